@@ -2,8 +2,10 @@ package com.badminton.shop.ws_booking_sport;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class WsBookingSportApplication {
 
 	public static void main(String[] args) {
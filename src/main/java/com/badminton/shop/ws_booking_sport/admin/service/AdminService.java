@@ -9,10 +9,13 @@ import com.badminton.shop.ws_booking_sport.model.booking.Booking;
 import com.badminton.shop.ws_booking_sport.model.core.User;
 import com.badminton.shop.ws_booking_sport.model.venue.Venue;
 import com.badminton.shop.ws_booking_sport.venue.repository.VenueRepository;
+import com.badminton.shop.ws_booking_sport.venue.service.VenueCardService;
+import com.badminton.shop.ws_booking_sport.venue.service.VenueDetailCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -28,6 +31,8 @@ public class AdminService {
     private final UserRepository userRepository;
     private final VenueRepository venueRepository;
     private final BookingRepository bookingRepository;
+    private final VenueCardService venueCardService;
+    private final VenueDetailCache venueDetailCache;
 
     public Page<User> getAllUsers(Pageable pageable) {
         return userRepository.findAll(pageable);
@@ -118,10 +123,13 @@ public class AdminService {
         }
         return filledData;
     }
+    @Transactional
     public void deleteVenue(Integer venueId) {
         Venue venue = venueRepository.findById(venueId)
                 .orElseThrow(() -> new ResourceUnavailableException("Venue not found with id: " + venueId));
 
         venueRepository.delete(venue);
+        venueCardService.delete(venueId);
+        venueDetailCache.evict(venueId);
     }
 }
\ No newline at end of file
@@ -1,10 +1,14 @@
 package com.badminton.shop.ws_booking_sport.booking.controller;
 
 
+import com.badminton.shop.ws_booking_sport.booking.service.BookingHistoryService;
 import com.badminton.shop.ws_booking_sport.booking.service.BookingService;
 import com.badminton.shop.ws_booking_sport.booking.service.SlotService;
+import com.badminton.shop.ws_booking_sport.dto.request.BatchBookingRequest;
 import com.badminton.shop.ws_booking_sport.dto.request.BookingRequest;
 import com.badminton.shop.ws_booking_sport.dto.request.PaymentUpdateRequest;
+import com.badminton.shop.ws_booking_sport.dto.response.BatchBookingResponse;
+import com.badminton.shop.ws_booking_sport.dto.response.BookingHistoryResponse;
 import com.badminton.shop.ws_booking_sport.dto.response.BookingResponse;
 import com.badminton.shop.ws_booking_sport.dto.response.DataResponse;
 import com.badminton.shop.ws_booking_sport.dto.response.UnavailableSlotResponse;
@@ -25,29 +29,14 @@ import java.util.List;
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingHistoryService bookingHistoryService;
     private final SlotService slotService;
     private final JwtService jwtService;
 
     @PostMapping("/api/bookings")
     public ResponseEntity<DataResponse> createBooking(@RequestHeader(value = "Authorization", required = false) String authorizationHeader,
                                                       @RequestBody BookingRequest req) {
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
-            throw new IllegalArgumentException("Authorization header with Bearer token is required");
-        }
-        String token = authorizationHeader.substring(7);
-        if (!jwtService.isTokenValid(token)) {
-            throw new IllegalArgumentException("Invalid or expired token");
-        }
-        String subject = jwtService.extractSubject(token);
-        if (subject == null || subject.isBlank()) {
-            throw new IllegalArgumentException("Token does not contain user id");
-        }
-        int userId;
-        try {
-            userId = Integer.parseInt(subject);
-        } catch (NumberFormatException ex) {
-            throw new IllegalArgumentException("Invalid user id in token subject");
-        }
+        int userId = jwtService.requireUserId(authorizationHeader);
 
         var booking = bookingService.createBookingForUser(req, userId);
         // map entity to DTO before returning to client
@@ -56,29 +45,25 @@ public class BookingController {
         return ResponseEntity.status(HttpStatus.CREATED).body(body);
     }
 
+    // POST /api/bookings/batch -> book several (field, date, range) items at once; returns per-item results
+    @PostMapping("/api/bookings/batch")
+    public ResponseEntity<DataResponse> createBatchBooking(@RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+                                                           @RequestBody BatchBookingRequest req) {
+        int userId = jwtService.requireUserId(authorizationHeader);
+
+        BatchBookingResponse result = bookingService.createBatchBookingForUser(req, userId);
+        HttpStatus status = result.getBooked() > 0 ? HttpStatus.CREATED : HttpStatus.OK;
+        DataResponse body = DataResponse.success(result, "Batch booking processed", status.value());
+        return ResponseEntity.status(status).body(body);
+    }
+
     // POST /api/bookings/{bookingId}/online-payment -> returns redirect url for customer to pay
     @PostMapping("/api/bookings/{bookingId}/online-payment")
     public ResponseEntity<DataResponse> initiateOnlinePayment(
             @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
             @PathVariable String bookingId
     ) {
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
-            throw new IllegalArgumentException("Authorization header with Bearer token is required");
-        }
-        String token = authorizationHeader.substring(7);
-        if (!jwtService.isTokenValid(token)) {
-            throw new IllegalArgumentException("Invalid or expired token");
-        }
-        String subject = jwtService.extractSubject(token);
-        if (subject == null || subject.isBlank()) {
-            throw new IllegalArgumentException("Token does not contain user id");
-        }
-        int userId;
-        try {
-            userId = Integer.parseInt(subject);
-        } catch (NumberFormatException ex) {
-            throw new IllegalArgumentException("Invalid user id in token subject");
-        }
+        int userId = jwtService.requireUserId(authorizationHeader);
 
         String redirectUrl = bookingService.initiateOnlinePayment(bookingId, userId);
         DataResponse body = DataResponse.success(redirectUrl, "Redirect URL generated", HttpStatus.OK.value());
@@ -123,32 +108,16 @@ public class BookingController {
         return ResponseEntity.ok(body);
     }
 
-    // New: Get booking history for authenticated user
+    // New: Get booking history for authenticated user (keyset paged: pass nextCursor back as ?cursor=)
     @GetMapping("/api/bookings/history")
     public ResponseEntity<DataResponse> getBookingHistory(
             @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
-            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "size", defaultValue = "10") int size
     ) {
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
-            throw new IllegalArgumentException("Authorization header with Bearer token is required");
-        }
-        String token = authorizationHeader.substring(7);
-        if (!jwtService.isTokenValid(token)) {
-            throw new IllegalArgumentException("Invalid or expired token");
-        }
-        String subject = jwtService.extractSubject(token);
-        if (subject == null || subject.isBlank()) {
-            throw new IllegalArgumentException("Token does not contain user id");
-        }
-        int userId;
-        try {
-            userId = Integer.parseInt(subject);
-        } catch (NumberFormatException ex) {
-            throw new IllegalArgumentException("Invalid user id in token subject");
-        }
+        int userId = jwtService.requireUserId(authorizationHeader);
 
-        var history = bookingService.getBookingHistory(userId, page, size);
+        BookingHistoryResponse history = bookingHistoryService.getHistory(userId, cursor, size);
         DataResponse body = DataResponse.success(history, "Booking history fetched", HttpStatus.OK.value());
         return ResponseEntity.ok(body);
     }
@@ -158,26 +127,10 @@ public class BookingController {
     public ResponseEntity<DataResponse> getRecentBookings(
             @RequestHeader(value = "Authorization", required = false) String authorizationHeader
     ) {
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
-            throw new IllegalArgumentException("Authorization header with Bearer token is required");
-        }
-        String token = authorizationHeader.substring(7);
-        if (!jwtService.isTokenValid(token)) {
-            throw new IllegalArgumentException("Invalid or expired token");
-        }
-        String subject = jwtService.extractSubject(token);
-        if (subject == null || subject.isBlank()) {
-            throw new IllegalArgumentException("Token does not contain user id");
-        }
-        int userId;
-        try {
-            userId = Integer.parseInt(subject);
-        } catch (NumberFormatException ex) {
-            throw new IllegalArgumentException("Invalid user id in token subject");
-        }
+        int userId = jwtService.requireUserId(authorizationHeader);
 
-        var historyPage = bookingService.getBookingHistory(userId, 0, 3);
-        DataResponse body = DataResponse.success(historyPage.getContent(), "Recent bookings fetched", HttpStatus.OK.value());
+        BookingHistoryResponse recent = bookingHistoryService.getHistory(userId, null, 3);
+        DataResponse body = DataResponse.success(recent.getItems(), "Recent bookings fetched", HttpStatus.OK.value());
         return ResponseEntity.ok(body);
     }
 }
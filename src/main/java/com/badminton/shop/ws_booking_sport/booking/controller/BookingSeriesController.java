@@ -0,0 +1,50 @@
+package com.badminton.shop.ws_booking_sport.booking.controller;
+
+import com.badminton.shop.ws_booking_sport.booking.service.BookingSeriesService;
+import com.badminton.shop.ws_booking_sport.dto.request.BookingSeriesRequest;
+import com.badminton.shop.ws_booking_sport.dto.response.BookingSeriesResponse;
+import com.badminton.shop.ws_booking_sport.dto.response.DataResponse;
+import com.badminton.shop.ws_booking_sport.security.JwtService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class BookingSeriesController {
+
+    private final BookingSeriesService bookingSeriesService;
+    private final JwtService jwtService;
+
+    // POST /api/bookings/series -> book the same court/time every N weeks until untilDate
+    @PostMapping("/api/bookings/series")
+    public ResponseEntity<DataResponse> createSeries(@RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+                                                     @RequestBody BookingSeriesRequest req) {
+        int userId = jwtService.requireUserId(authorizationHeader);
+        BookingSeriesResponse series = bookingSeriesService.createSeriesForUser(req, userId);
+        DataResponse body = DataResponse.success(series, "Booking series created", HttpStatus.CREATED.value());
+        return ResponseEntity.status(HttpStatus.CREATED).body(body);
+    }
+
+    // GET /api/bookings/series -> series of the current user
+    @GetMapping("/api/bookings/series")
+    public ResponseEntity<DataResponse> getMySeries(@RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
+        int userId = jwtService.requireUserId(authorizationHeader);
+        List<BookingSeriesResponse> series = bookingSeriesService.getSeriesForUser(userId);
+        DataResponse body = DataResponse.success(series, "Booking series fetched", HttpStatus.OK.value());
+        return ResponseEntity.ok(body);
+    }
+
+    // DELETE /api/bookings/series/{seriesId} -> cancel the series and its upcoming occurrences
+    @DeleteMapping("/api/bookings/series/{seriesId}")
+    public ResponseEntity<DataResponse> cancelSeries(@RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+                                                     @PathVariable String seriesId) {
+        int userId = jwtService.requireUserId(authorizationHeader);
+        BookingSeriesResponse series = bookingSeriesService.cancelSeries(seriesId, userId);
+        DataResponse body = DataResponse.success(series, "Booking series cancelled", HttpStatus.OK.value());
+        return ResponseEntity.ok(body);
+    }
+}
@@ -175,7 +175,12 @@ public class PaymentController {
                 String txnNo = request.getParameter("vnp_TransactionNo");
 
                 // Cập nhật DB
-                paymentService.confirmPayment(bookingId, amount, txnNo);
+                PaymentService.Confirmation confirmation = paymentService.confirmPayment(bookingId, amount, txnNo);
+                if (confirmation == PaymentService.Confirmation.REFUND_REQUIRED) {
+                    // đã nhận tiền nhưng đặt sân đã hết hạn giữ chỗ: ghi nhận để hoàn tiền, không báo lỗi cho cổng thanh toán
+                    return ResponseEntity.ok(DataResponse.success(confirmation.name(),
+                            "Payment received after the booking hold expired, it will be refunded", HttpStatus.OK.value()));
+                }
 
                 return ResponseEntity.ok(DataResponse.success(null, "Payment Success", HttpStatus.OK.value()));
             } else {
@@ -0,0 +1,26 @@
+package com.badminton.shop.ws_booking_sport.booking.repository;
+
+import com.badminton.shop.ws_booking_sport.enums.BookingStatus;
+import com.badminton.shop.ws_booking_sport.enums.PaymentStatus;
+
+import java.time.LocalDateTime;
+
+// One booking row of the history read model (booking + customer + field + payment subtype, no slots)
+public interface BookingHistoryProjection {
+    String getId();
+    Integer getCustomerId();
+    String getCustomerName();
+    Integer getFieldId();
+    String getFieldName();
+    BookingStatus getStatus();
+    double getTotalPrice();
+    LocalDateTime getBookedAt();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+    String getPaymentId();
+    String getPaymentMethod();
+    String getPaymentRedirectUrl();
+    Double getPaymentAmount();
+    String getPaymentCurrency();
+    PaymentStatus getPaymentStatus();
+}
@@ -4,13 +4,21 @@ import com.badminton.shop.ws_booking_sport.dto.response.ChartDataPoint;
 import com.badminton.shop.ws_booking_sport.model.booking.Booking;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, String> {
@@ -31,5 +39,50 @@ public interface BookingRepository extends JpaRepository<Booking, String> {
 
     // Find bookings by customer ID (user ID), ordered by newest first
     Page<Booking> findByCustomerIdOrderByCreatedAtDesc(Integer customerId, Pageable pageable);
+
+    // History read model: bookings of a customer newest first, keyset-paged on (createdAt, id).
+    String HISTORY_SELECT = "SELECT b.id AS id, c.id AS customerId, c.name AS customerName, f.id AS fieldId, f.name AS fieldName, " +
+            "b.status AS status, b.totalPrice AS totalPrice, b.bookedAt AS bookedAt, b.createdAt AS createdAt, b.updatedAt AS updatedAt, " +
+            "p.id AS paymentId, CASE WHEN op.id IS NOT NULL THEN op.method WHEN cp.id IS NOT NULL THEN 'CASH' ELSE NULL END AS paymentMethod, " +
+            "op.redirectUrl AS paymentRedirectUrl, p.amount AS paymentAmount, p.currency AS paymentCurrency, p.status AS paymentStatus " +
+            "FROM Booking b LEFT JOIN b.customer c LEFT JOIN b.field f LEFT JOIN b.payment p " +
+            "LEFT JOIN OnlinePayment op ON op.id = p.id LEFT JOIN CashPayment cp ON cp.id = p.id ";
+
+    @Query(HISTORY_SELECT + "WHERE b.customer.id = :customerId ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingHistoryProjection> findHistoryFirstPage(@Param("customerId") Integer customerId, Pageable pageable);
+
+    @Query(HISTORY_SELECT + "WHERE b.customer.id = :customerId " +
+            "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingHistoryProjection> findHistoryAfter(@Param("customerId") Integer customerId, @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") String id, Pageable pageable);
+
+    // Slots of several bookings in one query (second half of the history read model)
+    @Query("SELECT b.id AS bookingId, s.date AS date, s.startTime AS startTime, s.endTime AS endTime, s.finalPrice AS finalPrice " +
+            "FROM Booking b JOIN b.slot s WHERE b.id IN :bookingIds ORDER BY s.date, s.startTime")
+    List<BookingSlotProjection> findSlotsByBookingIdIn(@Param("bookingIds") Collection<String> bookingIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id = :id")
+    Optional<Booking> findByIdForUpdate(@Param("id") String id);
+
+    // Expired PENDING holds, oldest first. Rows locked by another transaction (e.g. a payment being confirmed)
+    // are skipped and picked up by a later sweep.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT b FROM Booking b WHERE b.status = com.badminton.shop.ws_booking_sport.enums.BookingStatus.PENDING " +
+            "AND b.expiresAt <= :now ORDER BY b.expiresAt")
+    List<Booking> findExpiredHolds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Gives PENDING online bookings created before hold expiry existed an expiry based on their creation time
+    @Modifying
+    @Query(value = "UPDATE booking b SET expires_at = b.created_at + make_interval(mins => :holdMinutes) " +
+            "FROM payment p JOIN online_payment op ON op.id = p.id " +
+            "WHERE p.booking_id = b.id AND b.status = 'PENDING' AND b.expires_at IS NULL AND b.series_id IS NULL", nativeQuery = true)
+    int backfillOnlineHoldExpiry(@Param("holdMinutes") int holdMinutes);
+
+    // PENDING/CONFIRMED occurrences of a series that are played on or after the given date
+    @Query("SELECT DISTINCT b FROM Booking b JOIN b.slot s WHERE b.series.id = :seriesId AND s.date >= :fromDate " +
+            "AND b.status IN (com.badminton.shop.ws_booking_sport.enums.BookingStatus.PENDING, com.badminton.shop.ws_booking_sport.enums.BookingStatus.CONFIRMED)")
+    List<Booking> findActiveBySeriesIdFrom(@Param("seriesId") String seriesId, @Param("fromDate") LocalDate fromDate);
 }
 
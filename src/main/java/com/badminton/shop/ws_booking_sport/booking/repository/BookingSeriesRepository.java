@@ -0,0 +1,54 @@
+package com.badminton.shop.ws_booking_sport.booking.repository;
+
+import com.badminton.shop.ws_booking_sport.model.booking.BookingSeries;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookingSeriesRepository extends JpaRepository<BookingSeries, String> {
+
+    List<BookingSeries> findByCustomerIdOrderByCreatedAtDesc(Integer customerId);
+
+    // Active series on a field/weekday whose time window and date range overlap the given ones
+    @Query("SELECT s FROM BookingSeries s WHERE s.field.id = :fieldId AND s.dayOfWeek = :dayOfWeek " +
+            "AND s.status = com.badminton.shop.ws_booking_sport.enums.SeriesStatus.ACTIVE " +
+            "AND s.startTime < :endTime AND s.endTime > :startTime AND s.startDate <= :toDate AND s.untilDate >= :fromDate")
+    List<BookingSeries> findActiveOverlapping(@Param("fieldId") Integer fieldId, @Param("dayOfWeek") DayOfWeek dayOfWeek,
+                                              @Param("startTime") LocalTime startTime, @Param("endTime") LocalTime endTime,
+                                              @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    // Active series on any of the given fields that still have occurrences after the given date
+    @Query("SELECT s FROM BookingSeries s WHERE s.field.id IN :fieldIds " +
+            "AND s.status = com.badminton.shop.ws_booking_sport.enums.SeriesStatus.ACTIVE AND s.untilDate >= :fromDate")
+    List<BookingSeries> findActiveByFieldIdIn(@Param("fieldIds") Collection<Integer> fieldIds, @Param("fromDate") LocalDate fromDate);
+
+    // Active series on the given fields that may claim the date without having materialized it yet
+    // (interval weeks are checked by BookingSeries.claims)
+    @Query("SELECT s FROM BookingSeries s WHERE s.field.id IN :fieldIds AND s.dayOfWeek = :dayOfWeek " +
+            "AND s.status = com.badminton.shop.ws_booking_sport.enums.SeriesStatus.ACTIVE " +
+            "AND s.startDate <= :date AND s.untilDate >= :date " +
+            "AND (s.materializedThrough IS NULL OR s.materializedThrough < :date)")
+    List<BookingSeries> findUnmaterializedOn(@Param("fieldIds") Collection<Integer> fieldIds, @Param("dayOfWeek") DayOfWeek dayOfWeek,
+                                             @Param("date") LocalDate date);
+
+    // Series that still have occurrences to materialize before the horizon (series starting later are left alone)
+    @Query("SELECT s.id FROM BookingSeries s WHERE s.status = com.badminton.shop.ws_booking_sport.enums.SeriesStatus.ACTIVE " +
+            "AND s.startDate <= :horizon " +
+            "AND (s.materializedThrough IS NULL OR (s.materializedThrough < :horizon AND s.materializedThrough < s.untilDate))")
+    List<String> findIdsDueForMaterialization(@Param("horizon") LocalDate horizon);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BookingSeries s WHERE s.id = :id")
+    Optional<BookingSeries> findByIdForUpdate(@Param("id") String id);
+}
@@ -0,0 +1,12 @@
+package com.badminton.shop.ws_booking_sport.booking.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public interface BookingSlotProjection {
+    String getBookingId();
+    LocalDate getDate();
+    LocalTime getStartTime();
+    LocalTime getEndTime();
+    double getFinalPrice();
+}
@@ -0,0 +1,11 @@
+package com.badminton.shop.ws_booking_sport.booking.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public interface SlotOccupancyProjection {
+    Integer getFieldId();
+    LocalDate getDate();
+    LocalTime getStartTime();
+    LocalTime getEndTime();
+}
@@ -9,13 +9,15 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SlotRepository extends JpaRepository<Slot, Integer> {
 
-    // Find any slots on the given field/date that overlap with the requested time range
-    @Query("SELECT s FROM Slot s WHERE s.field.id = :fieldId AND s.date = :date AND s.startTime < :endTime AND s.endTime > :startTime")
+    // Find any occupying (non-AVAILABLE) slots on the given field/date that overlap with the requested time range
+    @Query("SELECT s FROM Slot s WHERE s.field.id = :fieldId AND s.date = :date AND s.startTime < :endTime AND s.endTime > :startTime " +
+            "AND s.status <> com.badminton.shop.ws_booking_sport.enums.SlotStatus.AVAILABLE")
     List<Slot> findOverlappingSlots(@Param("fieldId") Integer fieldId, @Param("date") LocalDate date,
                                     @Param("startTime") LocalTime startTime, @Param("endTime") LocalTime endTime);
 
@@ -23,4 +25,12 @@ public interface SlotRepository extends JpaRepository<Slot, Integer> {
     @Query("SELECT s.startTime AS startTime, s.endTime AS endTime FROM Slot s WHERE s.field.id = :fieldId AND s.date = :date AND s.status = :status ORDER BY s.startTime")
     List<SlotTimeProjection> findTimesByFieldIdAndDateAndStatus(@Param("fieldId") Integer fieldId, @Param("date") LocalDate date, @Param("status") SlotStatus status);
 
+    // Same as above for several statuses (used to warm the in-memory availability index)
+    @Query("SELECT s.startTime AS startTime, s.endTime AS endTime FROM Slot s WHERE s.field.id = :fieldId AND s.date = :date AND s.status IN :statuses ORDER BY s.startTime")
+    List<SlotTimeProjection> findTimesByFieldIdAndDateAndStatusIn(@Param("fieldId") Integer fieldId, @Param("date") LocalDate date, @Param("statuses") List<SlotStatus> statuses);
+
+    // Occupied time ranges for several fields/dates in one query (batch booking validation)
+    @Query("SELECT s.field.id AS fieldId, s.date AS date, s.startTime AS startTime, s.endTime AS endTime FROM Slot s WHERE s.field.id IN :fieldIds AND s.date IN :dates AND s.status IN :statuses")
+    List<SlotOccupancyProjection> findOccupancyByFieldIdInAndDateIn(@Param("fieldIds") Collection<Integer> fieldIds, @Param("dates") Collection<LocalDate> dates, @Param("statuses") List<SlotStatus> statuses);
+
 }
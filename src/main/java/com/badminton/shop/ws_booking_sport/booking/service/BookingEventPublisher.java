@@ -0,0 +1,189 @@
+package com.badminton.shop.ws_booking_sport.booking.service;
+
+import com.badminton.shop.ws_booking_sport.enums.NotificationType;
+import com.badminton.shop.ws_booking_sport.model.action.OutboxEvent;
+import com.badminton.shop.ws_booking_sport.model.booking.Booking;
+import com.badminton.shop.ws_booking_sport.model.booking.BookingSeries;
+import com.badminton.shop.ws_booking_sport.model.booking.OnlinePayment;
+import com.badminton.shop.ws_booking_sport.model.core.Customer;
+import com.badminton.shop.ws_booking_sport.model.venue.Field;
+import com.badminton.shop.ws_booking_sport.model.venue.Slot;
+import com.badminton.shop.ws_booking_sport.model.venue.Venue;
+import com.badminton.shop.ws_booking_sport.notification.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns booking state changes into outbox events. Must be called inside the transaction that makes the change;
+ * OutboxRelay delivers the notifications, emails and venue pushes after commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingEventPublisher {
+
+    private final OutboxService outboxService;
+
+    public void bookingCreated(Booking booking) {
+        Field field = booking.getField();
+        OutboxEvent e = bookingEvent("BOOKING_CREATED", NotificationType.BOOKING, booking);
+        e.setCustomerTitle("Đặt sân thành công");
+        e.setCustomerMessage("Bạn đã đặt sân " + field.getName() + " tại " +
+                (field.getVenue() != null ? field.getVenue().getName() : "Sân cầu lông") +
+                " thành công. Mã đặt sân: " + booking.getId());
+        e.setEmailCustomer(true);
+        e.setOwnerTitle("Có lượt đặt sân mới");
+        e.setOwnerMessage("Sân " + field.getName() + " vừa được đặt. Mã đặt sân: " + booking.getId());
+        outboxService.publish(e);
+    }
+
+    // one summary for the customer, owner notification + venue push per booking
+    public void batchBooked(Customer customer, List<Booking> bookings) {
+        if (bookings.isEmpty()) return;
+        for (Booking b : bookings) {
+            OutboxEvent e = bookingEvent("BOOKING_CREATED", NotificationType.BOOKING, b);
+            e.setCustomerId(null);
+            e.setOwnerTitle("Có lượt đặt sân mới");
+            e.setOwnerMessage("Sân " + b.getField().getName() + " vừa được đặt. Mã đặt sân: " + b.getId());
+            outboxService.publish(e);
+        }
+        OutboxEvent summary = new OutboxEvent();
+        summary.setEventType("BATCH_BOOKED");
+        summary.setNotificationType(NotificationType.BOOKING);
+        summary.setReferenceType("BOOKING");
+        summary.setReferenceId(bookings.get(0).getId());
+        summary.setCustomerId(customer.getId());
+        summary.setCustomerTitle("Đặt sân thành công");
+        summary.setCustomerMessage("Bạn đã đặt thành công " + bookings.size() + " lượt sân.");
+        summary.setEmailCustomer(true);
+        outboxService.publish(summary);
+    }
+
+    public void seriesCreated(BookingSeries series, int occurrences, int materialized) {
+        OutboxEvent e = new OutboxEvent();
+        e.setEventType("SERIES_CREATED");
+        e.setNotificationType(NotificationType.BOOKING);
+        e.setReferenceType("BOOKING_SERIES");
+        e.setReferenceId(series.getId());
+        e.setCustomerId(series.getCustomer().getId());
+        e.setCustomerTitle("Đặt sân định kỳ thành công");
+        e.setCustomerMessage("Bạn đã đặt lịch định kỳ " + occurrences + " buổi tại sân " + series.getField().getName() +
+                " (" + materialized + " buổi đầu đã được tạo).");
+        e.setEmailCustomer(true);
+        Venue venue = series.getField().getVenue();
+        if (venue != null && venue.getOwner() != null) {
+            e.setOwnerId(venue.getOwner().getId());
+            e.setOwnerTitle("Có lịch đặt sân định kỳ mới");
+            e.setOwnerMessage("Sân " + series.getField().getName() + " được đặt định kỳ " + occurrences + " buổi.");
+        }
+        outboxService.publish(e);
+    }
+
+    // an occurrence could not be materialized because the court was blocked after the series was created
+    public void seriesOccurrenceSkipped(BookingSeries series, LocalDate date) {
+        OutboxEvent e = new OutboxEvent();
+        e.setEventType("SERIES_OCCURRENCE_SKIPPED");
+        e.setNotificationType(NotificationType.BOOKING);
+        e.setReferenceType("BOOKING_SERIES");
+        e.setReferenceId(series.getId());
+        e.setCustomerId(series.getCustomer().getId());
+        e.setCustomerTitle("Buổi đặt sân định kỳ bị hủy");
+        e.setCustomerMessage("Buổi ngày " + date + " (" + series.getStartTime() + " - " + series.getEndTime() + ") tại sân " +
+                series.getField().getName() + " không thể tạo do sân đã bị khóa. Các buổi khác của lịch định kỳ không bị ảnh hưởng.");
+        e.setEmailCustomer(true);
+        Venue venue = series.getField().getVenue();
+        if (venue != null && venue.getOwner() != null) {
+            e.setOwnerId(venue.getOwner().getId());
+            e.setOwnerTitle("Buổi đặt sân định kỳ bị bỏ qua");
+            e.setOwnerMessage("Buổi ngày " + date + " của lịch định kỳ " + series.getId() + " tại sân " +
+                    series.getField().getName() + " đã bị bỏ qua vì sân bị khóa.");
+        }
+        outboxService.publish(e);
+    }
+
+    public void paymentConfirmed(Booking booking) {
+        OutboxEvent e = bookingEvent("PAYMENT_CONFIRMED", NotificationType.PAYMENT, booking);
+        e.setCustomerTitle("Thanh toán thành công");
+        e.setCustomerMessage("Thanh toán cho mã đặt sân " + booking.getId() + " đã được xác nhận.");
+        e.setEmailCustomer(true);
+        e.setOwnerTitle("Đã nhận thanh toán");
+        e.setOwnerMessage("Mã đặt sân " + booking.getId() + " đã được thanh toán trực tuyến.");
+        outboxService.publish(e);
+    }
+
+    // an online payment came back after the hold expired: the customer paid for slots that were released
+    public void latePaymentRefundRequired(Booking booking) {
+        OutboxEvent e = bookingEvent("PAYMENT_REFUND_REQUIRED", NotificationType.PAYMENT, booking);
+        // nothing changes on the venue's schedule, so no venue push
+        e.setVenueId(null);
+        e.setPayload(null);
+        e.setCustomerTitle("Thanh toán sẽ được hoàn lại");
+        e.setCustomerMessage("Thanh toán cho mã đặt sân " + booking.getId() + " đến sau khi thời gian giữ chỗ đã hết " +
+                "nên đặt sân không còn hiệu lực. Khoản tiền sẽ được hoàn lại cho bạn.");
+        e.setEmailCustomer(true);
+        e.setOwnerTitle("Cần hoàn tiền thanh toán trễ");
+        e.setOwnerMessage("Mã đặt sân " + booking.getId() + " đã được thanh toán trực tuyến sau khi hết thời gian giữ chỗ " +
+                "(mã giao dịch " + ((OnlinePayment) booking.getPayment()).getTransactionRef() + "). Vui lòng hoàn tiền cho khách.");
+        outboxService.publish(e);
+    }
+
+    public void paymentUpdated(Booking booking) {
+        OutboxEvent e = bookingEvent("PAYMENT_UPDATED", NotificationType.PAYMENT, booking);
+        e.setOwnerId(null);
+        e.setCustomerTitle("Cập nhật thanh toán");
+        e.setCustomerMessage("Trạng thái thanh toán của mã đặt sân " + booking.getId() + ": " +
+                (booking.getPayment() != null && booking.getPayment().getStatus() != null ? booking.getPayment().getStatus().name() : "-"));
+        outboxService.publish(e);
+    }
+
+    // slots of the booking went back to inventory; the customer is told only when it was not their own action
+    public void bookingReleased(Booking booking, String reason, boolean notifyCustomer) {
+        OutboxEvent e = bookingEvent("BOOKING_CANCELLED", NotificationType.BOOKING, booking);
+        e.setOwnerId(null);
+        if (notifyCustomer) {
+            e.setCustomerTitle("Đặt sân đã bị hủy");
+            e.setCustomerMessage("Mã đặt sân " + booking.getId() + " đã bị hủy: " + reason);
+        } else {
+            e.setCustomerId(null);
+        }
+        outboxService.publish(e);
+    }
+
+    // customer/owner ids, reference and the venue push payload; callers add titles/messages
+    private OutboxEvent bookingEvent(String type, NotificationType notificationType, Booking booking) {
+        OutboxEvent e = new OutboxEvent();
+        e.setEventType(type);
+        e.setNotificationType(notificationType);
+        e.setReferenceType("BOOKING");
+        e.setReferenceId(booking.getId());
+        if (booking.getCustomer() != null) e.setCustomerId(booking.getCustomer().getId());
+
+        Field field = booking.getField();
+        Venue venue = field != null ? field.getVenue() : null;
+        if (venue != null) {
+            if (venue.getOwner() != null) e.setOwnerId(venue.getOwner().getId());
+            e.setVenueId(venue.getId());
+
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("type", type);
+            payload.put("bookingId", booking.getId());
+            payload.put("venueId", venue.getId());
+            payload.put("fieldId", field.getId());
+            payload.put("status", booking.getStatus() != null ? booking.getStatus().name() : null);
+            List<Map<String, String>> slots = new ArrayList<>();
+            if (booking.getSlot() != null) {
+                for (Slot s : booking.getSlot()) {
+                    slots.add(Map.of("date", s.getDate().toString(), "startTime", s.getStartTime().toString(), "endTime", s.getEndTime().toString()));
+                }
+            }
+            payload.put("slots", slots);
+            e.setPayload(outboxService.toJson(payload));
+        }
+        return e;
+    }
+}
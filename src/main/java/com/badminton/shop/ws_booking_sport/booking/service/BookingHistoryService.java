@@ -0,0 +1,115 @@
+package com.badminton.shop.ws_booking_sport.booking.service;
+
+import com.badminton.shop.ws_booking_sport.booking.repository.BookingHistoryProjection;
+import com.badminton.shop.ws_booking_sport.booking.repository.BookingRepository;
+import com.badminton.shop.ws_booking_sport.booking.repository.BookingSlotProjection;
+import com.badminton.shop.ws_booking_sport.dto.response.BookingHistoryResponse;
+import com.badminton.shop.ws_booking_sport.dto.response.BookingResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Booking history read model: one projection query for the bookings (with customer, field and payment subtype)
+ * and one for their slots, paged by (createdAt, id) keyset instead of OFFSET.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookingHistoryService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final BookingRepository bookingRepository;
+
+    // cursor == null -> newest bookings first
+    @Transactional(readOnly = true)
+    public BookingHistoryResponse getHistory(Integer userId, String cursor, int size) {
+        if (userId == null) throw new IllegalArgumentException("userId is required");
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // fetch one extra row to know whether there is a next page
+        PageRequest window = PageRequest.of(0, limit + 1);
+
+        List<BookingHistoryProjection> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = bookingRepository.findHistoryFirstPage(userId, window);
+        } else {
+            Cursor c = decodeCursor(cursor);
+            rows = bookingRepository.findHistoryAfter(userId, c.createdAt, c.id, window);
+        }
+
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) rows = rows.subList(0, limit);
+
+        Map<String, List<BookingResponse.SlotInfo>> slotsByBooking = new HashMap<>();
+        if (!rows.isEmpty()) {
+            List<String> ids = rows.stream().map(BookingHistoryProjection::getId).collect(Collectors.toList());
+            for (BookingSlotProjection s : bookingRepository.findSlotsByBookingIdIn(ids)) {
+                slotsByBooking.computeIfAbsent(s.getBookingId(), k -> new ArrayList<>())
+                        .add(new BookingResponse.SlotInfo(s.getDate(), s.getStartTime(), s.getEndTime(), s.getFinalPrice()));
+            }
+        }
+
+        List<BookingResponse> items = rows.stream()
+                .map(r -> toResponse(r, slotsByBooking.getOrDefault(r.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasMore) {
+            BookingHistoryProjection last = rows.get(rows.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        return new BookingHistoryResponse(items, nextCursor, hasMore);
+    }
+
+    private BookingResponse toResponse(BookingHistoryProjection r, List<BookingResponse.SlotInfo> slots) {
+        BookingResponse resp = new BookingResponse();
+        resp.setId(r.getId());
+        resp.setCustomerId(r.getCustomerId());
+        resp.setCustomerName(r.getCustomerName());
+        resp.setFieldId(r.getFieldId());
+        resp.setFieldName(r.getFieldName());
+        resp.setStatus(r.getStatus() != null ? r.getStatus().name() : null);
+        resp.setTotalPrice(r.getTotalPrice());
+        resp.setBookedAt(r.getBookedAt());
+        resp.setCreatedAt(r.getCreatedAt());
+        resp.setUpdatedAt(r.getUpdatedAt());
+        resp.setSlots(slots);
+        if (r.getPaymentId() != null) {
+            resp.setPayment(new BookingResponse.PaymentInfo(
+                    r.getPaymentMethod(),
+                    r.getPaymentRedirectUrl(),
+                    r.getPaymentAmount() != null ? r.getPaymentAmount() : 0,
+                    r.getPaymentCurrency(),
+                    r.getPaymentStatus() != null ? r.getPaymentStatus().name() : null
+            ));
+        }
+        return resp;
+    }
+
+    // opaque cursor: base64url("<createdAt>|<id>")
+    private static String encodeCursor(LocalDateTime createdAt, String id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, sep)), raw.substring(sep + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private record Cursor(LocalDateTime createdAt, String id) {}
+}
@@ -0,0 +1,91 @@
+package com.badminton.shop.ws_booking_sport.booking.service;
+
+import com.badminton.shop.ws_booking_sport.config.StatementCounter;
+import com.badminton.shop.ws_booking_sport.handleException.ResourceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instrumentation of the booking pipeline:
+ * - booking.create (timer, flow + outcome tags: success / conflict / validation / error)
+ * - booking.stage (timer per stage of a booking attempt: resolve_customer, load_field, lock, overlap_check, ...)
+ * - booking.db.statements (Hibernate statements per booking, flow tag)
+ * - booking.reservation.retries (attempts retried after a lock conflict)
+ * Latency timers publish histograms so p99 can be computed from /actuator/prometheus.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public <T> T recordBooking(String flow, Supplier<T> booking) {
+        long start = System.nanoTime();
+        long statementsBefore = StatementCounter.current();
+        String outcome = "success";
+        try {
+            return booking.get();
+        } catch (ResourceUnavailableException e) {
+            outcome = "conflict";
+            throw e;
+        } catch (IllegalArgumentException e) {
+            outcome = "validation";
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            Timer.builder("booking.create")
+                    .description("End-to-end booking latency including retries")
+                    .tag("flow", flow)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("booking.db.statements")
+                    .description("Hibernate statements issued per booking request")
+                    .tag("flow", flow)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(StatementCounter.current() - statementsBefore);
+        }
+    }
+
+    public <T> T stage(String stage, Supplier<T> work) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return work.get();
+        } finally {
+            sample.stop(stageTimer(stage));
+        }
+    }
+
+    public void stage(String stage, Runnable work) {
+        stage(stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder("booking.stage")
+                .description("Time spent in one stage of a booking attempt")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void reservationRetry() {
+        Counter.builder("booking.reservation.retries")
+                .description("Booking attempts retried after a lock timeout or deadlock")
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,251 @@
+package com.badminton.shop.ws_booking_sport.booking.service;
+
+import com.badminton.shop.ws_booking_sport.booking.repository.BookingRepository;
+import com.badminton.shop.ws_booking_sport.booking.repository.BookingSeriesRepository;
+import com.badminton.shop.ws_booking_sport.booking.repository.SlotOccupancyProjection;
+import com.badminton.shop.ws_booking_sport.booking.repository.SlotRepository;
+import com.badminton.shop.ws_booking_sport.dto.request.BookingSeriesRequest;
+import com.badminton.shop.ws_booking_sport.dto.response.BookingSeriesResponse;
+import com.badminton.shop.ws_booking_sport.enums.SeriesStatus;
+import com.badminton.shop.ws_booking_sport.enums.SlotStatus;
+import com.badminton.shop.ws_booking_sport.handleException.ResourceUnavailableException;
+import com.badminton.shop.ws_booking_sport.model.booking.Booking;
+import com.badminton.shop.ws_booking_sport.model.booking.BookingSeries;
+import com.badminton.shop.ws_booking_sport.model.core.Customer;
+import com.badminton.shop.ws_booking_sport.model.venue.Field;
+import com.badminton.shop.ws_booking_sport.model.venue.Slot;
+import com.badminton.shop.ws_booking_sport.venue.repository.FieldRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Recurring bookings. A series is validated against existing slots for all of its occurrences at once, but only
+ * the occurrences inside a rolling horizon (booking.series.materialize-days) are written as Booking/Slot rows;
+ * later ones are claimed by the series row and materialized by AvailabilitySlotScheduler as the horizon moves.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookingSeriesService {
+
+    private static final Logger log = LoggerFactory.getLogger(BookingSeriesService.class);
+
+    private static final int MAX_SERIES_WEEKS = 52;
+
+    private final BookingService bookingService;
+    private final BookingSeriesRepository bookingSeriesRepository;
+    private final BookingRepository bookingRepository;
+    private final SlotRepository slotRepository;
+    private final FieldRepository fieldRepository;
+    private final SlotAvailabilityIndex slotAvailabilityIndex;
+    private final SlotReservationLock slotReservationLock;
+    private final BookingEventPublisher bookingEventPublisher;
+    private final BookingMetrics bookingMetrics;
+
+    @Value("${booking.series.materialize-days:14}")
+    private int materializeDays;
+
+    public BookingSeriesResponse createSeriesForUser(BookingSeriesRequest req, Integer userId) {
+        if (userId == null) throw new IllegalArgumentException("userId is required");
+        validate(req);
+        return bookingMetrics.recordBooking("series",
+                () -> bookingService.withReservationRetry(() -> toResponse(createSeries(req, bookingService.resolveCustomerForUser(userId)))));
+    }
+
+    private BookingSeries createSeries(BookingSeriesRequest req, Customer customer) {
+        Field field = fieldRepository.findById(req.getFieldId()).orElseThrow(() -> new IllegalArgumentException("Field not found"));
+        if (field.getVenue() == null || !field.getVenue().getId().equals(req.getVenueId())) {
+            throw new IllegalArgumentException("Field does not belong to the specified venue");
+        }
+        if (field.getVenue().getPricePerHour() == null) throw new IllegalArgumentException("Venue pricePerHour is not set");
+
+        LocalDateTime now = LocalDateTime.now();
+        BookingSeries series = new BookingSeries();
+        series.setCustomer(customer);
+        series.setField(field);
+        series.setDayOfWeek(req.getDayOfWeek() != null ? req.getDayOfWeek() : req.getStartDate().getDayOfWeek());
+        series.setIntervalWeeks(req.getIntervalWeeks() != null ? req.getIntervalWeeks() : 1);
+        series.setStartTime(req.getStartTime());
+        series.setEndTime(req.getEndTime());
+        series.setStartDate(req.getStartDate());
+        series.setUntilDate(req.getUntilDate());
+        series.setPaymentMethod(req.getPaymentMethod());
+        series.setPaymentProvider(req.getPaymentProvider());
+        series.setStatus(SeriesStatus.ACTIVE);
+        series.setCreatedAt(now);
+        series.setUpdatedAt(now);
+
+        List<LocalDate> occurrences = occurrences(series, series.firstOccurrence(), series.getUntilDate());
+        if (occurrences.isEmpty()) throw new IllegalArgumentException("The series has no occurrence between startDate and untilDate");
+
+        // hold every occurrence's court/day (dates are ascending, so lock order is fixed), then check them all
+        // against existing slots with one query and against other active series
+        occurrences.forEach(d -> slotReservationLock.lock(field.getId(), d));
+        TreeSet<LocalDate> conflicts = slotRepository.findOccupancyByFieldIdInAndDateIn(
+                        List.of(field.getId()), occurrences, List.of(SlotStatus.BOOKED, SlotStatus.BLOCKED)).stream()
+                .filter(r -> r.getStartTime().isBefore(series.getEndTime()) && r.getEndTime().isAfter(series.getStartTime()))
+                .map(SlotOccupancyProjection::getDate)
+                .collect(Collectors.toCollection(TreeSet::new));
+        List<BookingSeries> competing = bookingSeriesRepository.findActiveOverlapping(field.getId(), series.getDayOfWeek(),
+                series.getStartTime(), series.getEndTime(), occurrences.get(0), series.getUntilDate());
+        for (BookingSeries other : competing) {
+            for (LocalDate d : occurrences) {
+                if (other.claims(field.getId(), d, series.getStartTime(), series.getEndTime())) conflicts.add(d);
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            throw new ResourceUnavailableException("Requested time range is already booked on " + conflicts);
+        }
+
+        BookingSeries saved = bookingSeriesRepository.save(series);
+        // cached availability of the field does not know the new claims yet
+        slotAvailabilityIndex.invalidateFieldAfterCompletion(field.getId());
+        int materialized = materialize(saved, LocalDate.now().plusDays(materializeDays));
+
+        bookingEventPublisher.seriesCreated(saved, occurrences.size(), materialized);
+        return saved;
+    }
+
+    // Write Booking/Slot rows for the occurrences after materializedThrough up to the horizon (or untilDate).
+    // Must run inside a transaction; returns the number of occurrences booked.
+    int materialize(BookingSeries series, LocalDate horizon) {
+        LocalDate from = series.getMaterializedThrough() != null ? series.getMaterializedThrough().plusDays(1) : series.firstOccurrence();
+        LocalDate to = horizon.isBefore(series.getUntilDate()) ? horizon : series.getUntilDate();
+        if (from.isAfter(to)) return 0;
+
+        Field field = series.getField();
+        Integer fieldId = field.getId();
+        int booked = 0;
+        for (LocalDate d : occurrences(series, from, to)) {
+            slotReservationLock.lock(fieldId, d);
+            // the series claimed this occurrence, but owners can still block the court in the meantime
+            if (!slotAvailabilityIndex.isRangeFree(fieldId, d, series.getStartTime(), series.getEndTime())) {
+                log.warn("Skipping occurrence {} of booking series {}: court is no longer available", d, series.getId());
+                bookingEventPublisher.seriesOccurrenceSkipped(series, d);
+                continue;
+            }
+            List<Slot> slots = slotRepository.saveAllAndFlush(
+                    bookingService.buildSlots(field, d, series.getStartTime(), series.getEndTime()));
+            slotAvailabilityIndex.markBookedOnCommit(fieldId, d, series.getStartTime(), series.getEndTime());
+
+            double totalPrice = slots.stream().mapToDouble(Slot::getFinalPrice).sum();
+            Booking booking = bookingService.newPendingBooking(series.getCustomer(), field, slots, totalPrice);
+            booking.setSeries(series);
+            bookingService.attachPayment(booking, series.getPaymentMethod(), series.getPaymentProvider(), totalPrice);
+            // occurrences are paid session by session, they are not short-lived holds
+            booking.setExpiresAt(null);
+            bookingRepository.save(booking);
+            booked++;
+        }
+        series.setMaterializedThrough(to);
+        series.setUpdatedAt(LocalDateTime.now());
+        // claims up to `to` are now slot rows (or were skipped)
+        slotAvailabilityIndex.invalidateFieldAfterCompletion(fieldId);
+        bookingSeriesRepository.save(series);
+        return booked;
+    }
+
+    // Called by the scheduler: move every active series up to the current horizon, one transaction per series
+    public int materializeDue() {
+        LocalDate horizon = LocalDate.now().plusDays(materializeDays);
+        List<String> ids = bookingSeriesRepository.findIdsDueForMaterialization(horizon);
+        int total = 0;
+        for (String id : ids) {
+            try {
+                total += bookingService.withReservationRetry(() -> bookingSeriesRepository.findByIdForUpdate(id)
+                        .filter(s -> s.getStatus() == SeriesStatus.ACTIVE)
+                        .map(s -> materialize(s, horizon))
+                        .orElse(0));
+            } catch (Exception e) {
+                log.error("Failed to materialize booking series {}", id, e);
+            }
+        }
+        if (total > 0) log.info("Materialized {} occurrences from {} booking series", total, ids.size());
+        return total;
+    }
+
+    // Cancel the series and every upcoming occurrence that has not been played yet
+    @Transactional
+    public BookingSeriesResponse cancelSeries(String seriesId, Integer userId) {
+        BookingSeries series = bookingSeriesRepository.findByIdForUpdate(seriesId)
+                .orElseThrow(() -> new IllegalArgumentException("Booking series not found"));
+        if (series.getCustomer() == null || !series.getCustomer().getId().equals(userId)) {
+            throw new IllegalArgumentException("Only the customer who created the series can cancel it");
+        }
+        if (series.getStatus() == SeriesStatus.CANCELLED) return toResponse(series);
+
+        for (Booking b : bookingRepository.findActiveBySeriesIdFrom(seriesId, LocalDate.now())) {
+            bookingService.cancelBooking(b, "Booking series cancelled", false);
+            bookingRepository.save(b);
+        }
+        series.setStatus(SeriesStatus.CANCELLED);
+        series.setUpdatedAt(LocalDateTime.now());
+        slotAvailabilityIndex.invalidateFieldAfterCompletion(series.getField().getId());
+        return toResponse(bookingSeriesRepository.save(series));
+    }
+
+    public List<BookingSeriesResponse> getSeriesForUser(Integer userId) {
+        return bookingSeriesRepository.findByCustomerIdOrderByCreatedAtDesc(userId).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    public BookingSeriesResponse toResponse(BookingSeries s) {
+        if (s == null) return null;
+        Field f = s.getField();
+        return new BookingSeriesResponse(
+                s.getId(),
+                s.getCustomer() != null ? s.getCustomer().getId() : null,
+                f != null && f.getVenue() != null ? f.getVenue().getId() : null,
+                f != null ? f.getId() : null,
+                s.getDayOfWeek(),
+                s.getIntervalWeeks(),
+                s.getStartTime(),
+                s.getEndTime(),
+                s.getStartDate(),
+                s.getUntilDate(),
+                s.getMaterializedThrough(),
+                occurrences(s, s.firstOccurrence(), s.getUntilDate()).size(),
+                s.getStatus() != null ? s.getStatus().name() : null,
+                s.getCreatedAt()
+        );
+    }
+
+    private void validate(BookingSeriesRequest req) {
+        if (req == null) throw new IllegalArgumentException("Request body is required");
+        if (req.getFieldId() == null || req.getStartTime() == null || req.getEndTime() == null
+                || req.getStartDate() == null || req.getUntilDate() == null) {
+            throw new IllegalArgumentException("fieldId, startTime, endTime, startDate and untilDate are required");
+        }
+        if (!req.getStartTime().isBefore(req.getEndTime())) throw new IllegalArgumentException("startTime must be before endTime");
+        if (req.getStartDate().isBefore(LocalDate.now())) throw new IllegalArgumentException("startDate must not be in the past");
+        if (req.getUntilDate().isBefore(req.getStartDate())) throw new IllegalArgumentException("untilDate must not be before startDate");
+        if (req.getUntilDate().isAfter(req.getStartDate().plusWeeks(MAX_SERIES_WEEKS))) {
+            throw new IllegalArgumentException("A series can span at most " + MAX_SERIES_WEEKS + " weeks");
+        }
+        if (req.getIntervalWeeks() != null && req.getIntervalWeeks() < 1) {
+            throw new IllegalArgumentException("intervalWeeks must be at least 1");
+        }
+    }
+
+    // occurrence dates of the series within [from, to], ascending
+    private static List<LocalDate> occurrences(BookingSeries s, LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate end = to.isBefore(s.getUntilDate()) ? to : s.getUntilDate();
+        int step = Math.max(1, s.getIntervalWeeks());
+        for (LocalDate d = s.firstOccurrence(); !d.isAfter(end); d = d.plusWeeks(step)) {
+            if (!d.isBefore(from)) dates.add(d);
+        }
+        return dates;
+    }
+}
@@ -1,16 +1,22 @@
 package com.badminton.shop.ws_booking_sport.booking.service;
 
 import com.badminton.shop.ws_booking_sport.booking.repository.BookingRepository;
+import com.badminton.shop.ws_booking_sport.booking.repository.BookingSeriesRepository;
+import com.badminton.shop.ws_booking_sport.booking.repository.SlotOccupancyProjection;
 import com.badminton.shop.ws_booking_sport.booking.repository.SlotRepository;
 import com.badminton.shop.ws_booking_sport.core.repository.CustomerRepository;
 import com.badminton.shop.ws_booking_sport.core.repository.UserRepository;
 import com.badminton.shop.ws_booking_sport.core.repository.AccountRepository;
+import com.badminton.shop.ws_booking_sport.dto.request.BatchBookingRequest;
 import com.badminton.shop.ws_booking_sport.dto.request.BookingRequest;
+import com.badminton.shop.ws_booking_sport.dto.response.BatchBookingResponse;
 import com.badminton.shop.ws_booking_sport.dto.response.BookingResponse;
 import com.badminton.shop.ws_booking_sport.enums.BookingStatus;
 import com.badminton.shop.ws_booking_sport.enums.PaymentStatus;
+import com.badminton.shop.ws_booking_sport.enums.SlotStatus;
 import com.badminton.shop.ws_booking_sport.handleException.ResourceUnavailableException;
 import com.badminton.shop.ws_booking_sport.model.booking.Booking;
+import com.badminton.shop.ws_booking_sport.model.booking.BookingSeries;
 import com.badminton.shop.ws_booking_sport.model.booking.CashPayment;
 import com.badminton.shop.ws_booking_sport.model.booking.OnlinePayment;
 import com.badminton.shop.ws_booking_sport.model.booking.Payment;
@@ -20,24 +26,32 @@ import com.badminton.shop.ws_booking_sport.model.core.User;
 import com.badminton.shop.ws_booking_sport.model.venue.Field;
 import com.badminton.shop.ws_booking_sport.model.venue.Slot;
 import com.badminton.shop.ws_booking_sport.venue.repository.FieldRepository;
-import com.badminton.shop.ws_booking_sport.notification.service.NotificationService;
-import com.badminton.shop.ws_booking_sport.enums.NotificationType;
-import com.badminton.shop.ws_booking_sport.enums.RecipientType;
+import com.badminton.shop.ws_booking_sport.venue.service.PricingEngine;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -46,28 +60,71 @@ public class BookingService {
 
     private static final Logger log = LoggerFactory.getLogger(BookingService.class);
 
+    // bookings for the same court/day serialize on an advisory lock; a lock timeout or deadlock is retried
+    private static final int MAX_RESERVATION_ATTEMPTS = 3;
+    private static final long RESERVATION_RETRY_BACKOFF_MS = 50;
+    private static final int MAX_BATCH_ITEMS = 100;
+
     private final BookingRepository bookingRepository;
     private final SlotRepository slotRepository;
     private final FieldRepository fieldRepository;
     private final CustomerRepository customerRepository;
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
-    private final NotificationService notificationService;
+    private final BookingEventPublisher bookingEventPublisher;
+    private final SlotAvailabilityIndex slotAvailabilityIndex;
+    private final SlotReservationLock slotReservationLock;
+    private final BookingSeriesRepository bookingSeriesRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PricingEngine pricingEngine;
+    private final BookingMetrics bookingMetrics;
+
+    // how long an unpaid online booking keeps its slots
+    @Value("${booking.hold.online-minutes:15}")
+    private int onlineHoldMinutes;
 
-    @Transactional
     public Booking createBooking(BookingRequest req) {
         // keep backward-compatible: if frontend still sends customerId, use previous flow
         if (req.getCustomerId() != null) {
-            return createBookingWithProvidedCustomer(req, req.getCustomerId());
+            return bookingMetrics.recordBooking("single", () -> withReservationRetry(() -> createBookingWithProvidedCustomer(req, req.getCustomerId())));
         }
         throw new IllegalArgumentException("customerId is required in this endpoint. Use authenticated endpoint instead.");
     }
 
     // New API used by controller: create booking using authenticated user's id extracted from JWT (userId)
-    @Transactional
     public Booking createBookingForUser(BookingRequest req, Integer userId) {
         if (userId == null) throw new IllegalArgumentException("userId is required");
+        return bookingMetrics.recordBooking("single", () -> withReservationRetry(() -> createBookingForResolvedUser(req, userId)));
+    }
 
+    // runs each attempt in its own transaction so a retried attempt starts from a clean state
+    <T> T withReservationRetry(Supplier<T> attempt) {
+        for (int i = 1; ; i++) {
+            try {
+                return transactionTemplate.execute(status -> attempt.get());
+            } catch (ConcurrencyFailureException e) {
+                if (i >= MAX_RESERVATION_ATTEMPTS) {
+                    throw new ResourceUnavailableException("The requested court is busy, please try again");
+                }
+                log.debug("Booking attempt {} hit a lock conflict, retrying: {}", i, e.getMessage());
+                bookingMetrics.reservationRetry();
+                try {
+                    Thread.sleep(RESERVATION_RETRY_BACKOFF_MS * i);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new ResourceUnavailableException("Booking interrupted");
+                }
+            }
+        }
+    }
+
+    private Booking createBookingForResolvedUser(BookingRequest req, Integer userId) {
+        Customer customer = bookingMetrics.stage("resolve_customer", () -> resolveCustomerForUser(userId));
+        return createBookingWithCustomer(req, customer);
+    }
+
+    // resolve the Customer behind an authenticated user id
+    Customer resolveCustomerForUser(Integer userId) {
         // resolve Customer from userId
         Customer customer = customerRepository.findById(userId).orElse(null);
         if (customer == null) {
@@ -91,8 +148,149 @@ public class BookingService {
         if (customer == null) {
             throw new IllegalArgumentException("Authenticated user is not a Customer or could not be resolved to a Customer");
         }
+        return customer;
+    }
 
-        return createBookingWithCustomer(req, customer);
+    // Batch booking: several (field, date, range) items for one customer in a single transaction.
+    // Items are validated against existing slots with one query; valid items are booked, the others are
+    // reported per item (partial success).
+    public BatchBookingResponse createBatchBookingForUser(BatchBookingRequest req, Integer userId) {
+        if (userId == null) throw new IllegalArgumentException("userId is required");
+        if (req == null || req.getItems() == null || req.getItems().isEmpty()) {
+            throw new IllegalArgumentException("items are required");
+        }
+        if (req.getItems().size() > MAX_BATCH_ITEMS) {
+            throw new IllegalArgumentException("A batch can contain at most " + MAX_BATCH_ITEMS + " items");
+        }
+        return bookingMetrics.recordBooking("batch",
+                () -> withReservationRetry(() -> createBatchBookingWithCustomer(req, resolveCustomerForUser(userId))));
+    }
+
+    private BatchBookingResponse createBatchBookingWithCustomer(BatchBookingRequest req, Customer customer) {
+        List<BatchBookingRequest.Item> items = req.getItems();
+        BatchBookingResponse.ItemResult[] results = new BatchBookingResponse.ItemResult[items.size()];
+
+        // load every referenced field once
+        Set<Integer> fieldIds = items.stream().map(BatchBookingRequest.Item::getFieldId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Integer, Field> fields = fieldRepository.findAllById(fieldIds).stream()
+                .collect(Collectors.toMap(Field::getId, f -> f));
+
+        // per-item validation
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            String error = validateBatchItem(items.get(i), fields);
+            if (error != null) {
+                results[i] = batchItemResult(i, items.get(i), "INVALID", error, null);
+            } else {
+                validIndexes.add(i);
+            }
+        }
+
+        // lock every touched court/day in a fixed order (avoids deadlocks between overlapping batches)
+        TreeMap<Integer, TreeSet<LocalDate>> toLock = new TreeMap<>();
+        Set<LocalDate> dates = new HashSet<>();
+        for (int i : validIndexes) {
+            BatchBookingRequest.Item it = items.get(i);
+            toLock.computeIfAbsent(it.getFieldId(), k -> new TreeSet<>()).add(it.getDate());
+            dates.add(it.getDate());
+        }
+        toLock.forEach((fieldId, fieldDates) -> fieldDates.forEach(d -> slotReservationLock.lock(fieldId, d)));
+
+        // one availability query for all items, grouped by court/day
+        Map<String, List<LocalTime[]>> occupied = new HashMap<>();
+        // active recurring series still claim their not-yet-materialized occurrences
+        List<BookingSeries> seriesClaims = validIndexes.isEmpty() ? List.of()
+                : bookingSeriesRepository.findActiveByFieldIdIn(fields.keySet(), Collections.min(dates));
+        if (!validIndexes.isEmpty()) {
+            List<SlotOccupancyProjection> rows = slotRepository.findOccupancyByFieldIdInAndDateIn(
+                    fields.keySet(), dates, List.of(SlotStatus.BOOKED, SlotStatus.BLOCKED));
+            for (SlotOccupancyProjection r : rows) {
+                occupied.computeIfAbsent(r.getFieldId() + ":" + r.getDate(), k -> new ArrayList<>())
+                        .add(new LocalTime[]{r.getStartTime(), r.getEndTime()});
+            }
+        }
+
+        // accept items that overlap neither existing slots nor items accepted earlier in this batch
+        List<Integer> accepted = new ArrayList<>();
+        List<Slot> slotsToSave = new ArrayList<>();
+        Map<Integer, List<Slot>> slotsByItem = new HashMap<>();
+        for (int i : validIndexes) {
+            BatchBookingRequest.Item it = items.get(i);
+            List<LocalTime[]> ranges = occupied.computeIfAbsent(it.getFieldId() + ":" + it.getDate(), k -> new ArrayList<>());
+            boolean overlaps = ranges.stream().anyMatch(r -> r[0].isBefore(it.getEndTime()) && r[1].isAfter(it.getStartTime()))
+                    || seriesClaims.stream().anyMatch(sc -> sc.claims(it.getFieldId(), it.getDate(), it.getStartTime(), it.getEndTime()));
+            if (overlaps) {
+                results[i] = batchItemResult(i, it, "CONFLICT", "Requested time range overlaps with existing bookings or slots", null);
+                continue;
+            }
+            ranges.add(new LocalTime[]{it.getStartTime(), it.getEndTime()});
+            Field field = fields.get(it.getFieldId());
+            List<Slot> slots = buildSlots(field, it.getDate(), it.getStartTime(), it.getEndTime());
+            slotsByItem.put(i, slots);
+            slotsToSave.addAll(slots);
+            accepted.add(i);
+        }
+
+        if (!accepted.isEmpty()) {
+            try {
+                // sequence ids + hibernate.jdbc.batch_size: all slot rows go out as JDBC batches in one flush
+                slotRepository.saveAllAndFlush(slotsToSave);
+            } catch (DataIntegrityViolationException e) {
+                // a writer that bypassed the court/day lock committed an overlapping slot after the occupancy query.
+                // Roll back this attempt and run the batch again: the new occupancy query sees that slot, so only
+                // the items overlapping it are reported as CONFLICT and the rest are still booked
+                throw new ConcurrencyFailureException("Batch slot insert hit slot_no_overlap, re-validating items", e);
+            }
+
+            List<Booking> bookings = new ArrayList<>();
+            for (int i : accepted) {
+                BatchBookingRequest.Item it = items.get(i);
+                List<Slot> slots = slotsByItem.get(i);
+                double totalPrice = slots.stream().mapToDouble(Slot::getFinalPrice).sum();
+
+                Booking booking = newPendingBooking(customer, fields.get(it.getFieldId()), slots, totalPrice);
+                attachPayment(booking, req.getPaymentMethod(), req.getPaymentProvider(), totalPrice);
+                bookings.add(booking);
+
+                slotAvailabilityIndex.markBookedOnCommit(it.getFieldId(), it.getDate(), it.getStartTime(), it.getEndTime());
+            }
+            List<Booking> saved = bookingRepository.saveAll(bookings);
+            for (int k = 0; k < accepted.size(); k++) {
+                int i = accepted.get(k);
+                results[i] = batchItemResult(i, items.get(i), "BOOKED", null, toBookingResponse(saved.get(k)));
+            }
+
+            // one summary notification for the whole batch, owner notification + venue push per booking
+            bookingEventPublisher.batchBooked(customer, saved);
+        }
+
+        List<BatchBookingResponse.ItemResult> list = List.of(results);
+        return new BatchBookingResponse(accepted.size(), items.size() - accepted.size(), list);
+    }
+
+    // returns an error message for an invalid batch item, or null if the item is well-formed
+    private String validateBatchItem(BatchBookingRequest.Item it, Map<Integer, Field> fields) {
+        if (it == null || it.getFieldId() == null || it.getDate() == null || it.getStartTime() == null || it.getEndTime() == null) {
+            return "fieldId, date, startTime and endTime are required";
+        }
+        if (!it.getStartTime().isBefore(it.getEndTime())) return "startTime must be before endTime";
+        Field field = fields.get(it.getFieldId());
+        if (field == null) return "Field not found";
+        if (field.getVenue() == null || (it.getVenueId() != null && !field.getVenue().getId().equals(it.getVenueId()))) {
+            return "Field does not belong to the specified venue";
+        }
+        if (field.getVenue().getPricePerHour() == null) return "Venue pricePerHour is not set";
+        return null;
+    }
+
+    private BatchBookingResponse.ItemResult batchItemResult(int index, BatchBookingRequest.Item it, String status, String message, BookingResponse booking) {
+        return new BatchBookingResponse.ItemResult(index,
+                it != null ? it.getFieldId() : null,
+                it != null ? it.getDate() : null,
+                it != null ? it.getStartTime() : null,
+                it != null ? it.getEndTime() : null,
+                status, message, booking);
     }
 
     // New: initiate online payment (returns redirect url)
@@ -109,13 +307,6 @@ public class BookingService {
         return op.getRedirectUrl();
     }
 
-    // New: get booking history for a user
-    public Page<BookingResponse> getBookingHistory(Integer userId, int page, int size) {
-        Pageable p = PageRequest.of(page, size);
-        Page<Booking> bookings = bookingRepository.findByCustomerIdOrderByCreatedAtDesc(userId, p);
-        return bookings.map(this::toBookingResponse);
-    }
-
     // internal: booking flow when customer is already resolved
     private Booking createBookingWithCustomer(BookingRequest req, Customer customer) {
         if (req == null) throw new IllegalArgumentException("Request body is required");
@@ -131,114 +322,149 @@ public class BookingService {
         }
         if (!start.isBefore(end)) throw new IllegalArgumentException("startTime must be before endTime");
 
-        Field field = fieldRepository.findById(fieldId).orElseThrow(() -> new IllegalArgumentException("Field not found"));
+        Field field = bookingMetrics.stage("load_field",
+                () -> fieldRepository.findById(fieldId).orElseThrow(() -> new IllegalArgumentException("Field not found")));
         if (field.getVenue() == null || !field.getVenue().getId().equals(venueId)) {
             throw new IllegalArgumentException("Field does not belong to the specified venue");
         }
 
-        // check overlapping slots
-        List<Slot> overlapping = slotRepository.findOverlappingSlots(fieldId, date, start, end);
-        if (overlapping != null && !overlapping.isEmpty()) {
+        // serialize bookings for this court/day until commit, then check overlapping slots
+        // (answered from the in-memory availability index when possible)
+        bookingMetrics.stage("lock", () -> slotReservationLock.lock(fieldId, date));
+        boolean free = bookingMetrics.stage("overlap_check",
+                () -> slotAvailabilityIndex.isRangeFree(fieldId, date, start, end) && !isClaimedBySeries(fieldId, date, start, end));
+        if (!free) {
             throw new ResourceUnavailableException("Requested time range overlaps with existing bookings or slots");
         }
 
         long totalRequestedMinutes = Duration.between(start, end).toMinutes();
         if (totalRequestedMinutes <= 0) throw new IllegalArgumentException("Invalid booking duration");
 
-        // compute total price using venue-level pricePerHour (moved from field to venue)
-        Double venuePricePerHour = field.getVenue() != null ? field.getVenue().getPricePerHour() : null;
-        if (venuePricePerHour == null) throw new IllegalArgumentException("Venue pricePerHour is not set");
+        // create slot entities per 30-minute chunks priced by the field's price rules (venue pricePerHour elsewhere)
+        List<Slot> slotsToSave = bookingMetrics.stage("pricing", () -> buildSlots(field, date, start, end));
+        double totalPrice = slotsToSave.stream().mapToDouble(Slot::getFinalPrice).sum();
 
-        double totalPrice = (totalRequestedMinutes / 60.0) * venuePricePerHour;
+        List<Slot> savedSlots;
+        try {
+            // flush now so the slot_no_overlap exclusion constraint is checked here rather than at commit
+            savedSlots = bookingMetrics.stage("slot_insert", () -> slotRepository.saveAllAndFlush(slotsToSave));
+        } catch (DataIntegrityViolationException e) {
+            throw new ResourceUnavailableException("Requested time range overlaps with existing bookings or slots");
+        }
+        slotAvailabilityIndex.markBookedOnCommit(fieldId, date, start, end);
 
-        // create slot entities per 30-minute chunks and compute per-slot price proportional to venue price
-        List<Slot> slotsToSave = new ArrayList<>();
+        Booking booking = newPendingBooking(customer, field, savedSlots, totalPrice);
+
+        // handle payment creation according to request
+        attachPayment(booking, req.getPaymentMethod(), req.getPaymentProvider(), totalPrice);
+
+        Booking savedBooking = bookingMetrics.stage("booking_insert", () -> bookingRepository.save(booking));
+
+        // notify customer/owner through the outbox (delivered after commit by OutboxRelay)
+        bookingMetrics.stage("outbox", () -> bookingEventPublisher.bookingCreated(savedBooking));
+
+        return savedBooking;
+    }
+
+    // split [start, end) into 30-minute BOOKED slots, each priced by the pricing engine
+    List<Slot> buildSlots(Field field, LocalDate date, LocalTime start, LocalTime end) {
+        List<Slot> slots = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
         LocalTime cursor = start;
         while (cursor.isBefore(end)) {
             LocalTime slotEnd = cursor.plusMinutes(30);
             if (slotEnd.isAfter(end)) slotEnd = end;
 
-            long minutes = Duration.between(cursor, slotEnd).toMinutes();
-            double slotPrice = (minutes / 60.0) * venuePricePerHour;
+            double slotPrice = pricingEngine.price(field, date, cursor, slotEnd);
 
             Slot s = new Slot();
             s.setDate(date);
             s.setStartTime(cursor);
             s.setEndTime(slotEnd);
-            s.setStatus(com.badminton.shop.ws_booking_sport.enums.SlotStatus.BOOKED);
+            s.setStatus(SlotStatus.BOOKED);
             s.setFinalPrice(slotPrice);
             s.setField(field);
-            slotsToSave.add(s);
+            s.setUpdatedAt(now);
+            slots.add(s);
 
             cursor = slotEnd;
         }
+        return slots;
+    }
 
-        List<Slot> savedSlots = slotRepository.saveAll(slotsToSave);
+    // create the payment entity for a booking according to the requested method (no payment if method is null)
+    void attachPayment(Booking booking, String pm, String paymentProvider, double totalPrice) {
+        if (pm == null) {
+            // Default to CASH if not specified? Or throw error.
+            // Existing logic seems to imply optional payment.
+            return;
+        }
+        if ("CASH".equalsIgnoreCase(pm)) {
+            CashPayment cp = new CashPayment();
+            cp.setAmount(totalPrice);
+            cp.setCurrency("VND");
+            cp.setStatus(PaymentStatus.PENDING);
+            cp.setCreatedAt(LocalDateTime.now());
+            cp.setBooking(booking);
+            booking.setPayment(cp);
+        } else if ("ONLINE".equalsIgnoreCase(pm)) {
+            OnlinePayment op = new OnlinePayment();
+            op.setAmount(totalPrice);
+            op.setCurrency("VND");
+            op.setStatus(PaymentStatus.PENDING);
+            op.setCreatedAt(LocalDateTime.now());
+            String provider = paymentProvider != null ? paymentProvider.toUpperCase() : "VNPAY";
+            op.setMethod(provider);
+            // generate a simple redirect url for the demo (frontend will redirect user to this URL)
+            String redirect = "https://pay.example.com/" + provider + "/pay?bookingId=" + "{bookingId}" + "&amount=" + (long) totalPrice;
+            // placeholder: we don't have booking id until saved; store placeholder and replace after saving
+            op.setRedirectUrl(redirect);
+            op.setBooking(booking);
+            booking.setPayment(op);
+            // the slots are only held until the online payment comes back (see HoldExpirySweeper)
+            booking.setExpiresAt(LocalDateTime.now().plusMinutes(onlineHoldMinutes));
+        }
+    }
 
+    Booking newPendingBooking(Customer customer, Field field, List<Slot> slots, double totalPrice) {
+        LocalDateTime now = LocalDateTime.now();
         Booking booking = new Booking();
         booking.setCustomer(customer);
         booking.setField(field);
-        booking.setSlot(savedSlots);
+        booking.setSlot(slots);
         booking.setStatus(BookingStatus.PENDING);
         booking.setTotalPrice(totalPrice);
-        booking.setBookedAt(LocalDateTime.now());
-        booking.setCreatedAt(LocalDateTime.now());
-        booking.setUpdatedAt(LocalDateTime.now());
+        booking.setBookedAt(now);
+        booking.setCreatedAt(now);
+        booking.setUpdatedAt(now);
+        return booking;
+    }
 
-        // handle payment creation according to request
-        String pm = req.getPaymentMethod();
-        if (pm != null) {
-            if ("CASH".equalsIgnoreCase(pm)) {
-                CashPayment cp = new CashPayment();
-                cp.setAmount(totalPrice);
-                cp.setCurrency("VND");
-                cp.setStatus(PaymentStatus.PENDING);
-                cp.setCreatedAt(LocalDateTime.now());
-                cp.setBooking(booking);
-                booking.setPayment(cp);
-            } else if ("ONLINE".equalsIgnoreCase(pm)) {
-                OnlinePayment op = new OnlinePayment();
-                op.setAmount(totalPrice);
-                op.setCurrency("VND");
-                op.setStatus(PaymentStatus.PENDING);
-                op.setCreatedAt(LocalDateTime.now());
-                String provider = req.getPaymentProvider() != null ? req.getPaymentProvider().toUpperCase() : "VNPAY";
-                op.setMethod(provider);
-                // generate a simple redirect url for the demo (frontend will redirect user to this URL)
-                String redirect = "https://pay.example.com/" + provider + "/pay?bookingId=" + "{bookingId}" + "&amount=" + (long) totalPrice;
-                // placeholder: we don't have booking id until saved; store placeholder and replace after saving
-                op.setRedirectUrl(redirect);
-                op.setBooking(booking);
-                booking.setPayment(op);
-            }
-        } else {
-            // Default to CASH if not specified? Or throw error.
-            // Existing logic seems to imply optional payment.
+    // Cancel a booking and give its slots back to inventory (slot rows are kept as AVAILABLE for history)
+    void cancelBooking(Booking booking, String reason, boolean notifyCustomer) {
+        booking.setStatus(BookingStatus.CANCELLED);
+        booking.setCancelReason(reason);
+        booking.setUpdatedAt(LocalDateTime.now());
+        if (booking.getPayment() != null && booking.getPayment().getStatus() == PaymentStatus.PENDING) {
+            booking.getPayment().setStatus(PaymentStatus.CANCELLED);
         }
-
-        Booking savedBooking = bookingRepository.save(booking);
-
-        // Notify user about successful booking
-        try {
-            String message = "Bạn đã đặt sân " + field.getName() + " tại " +
-                             (field.getVenue() != null ? field.getVenue().getName() : "Sân cầu lông") +
-                             " thành công. Mã đặt sân: " + savedBooking.getId();
-            notificationService.createNotification(
-                    String.valueOf(customer.getId()),
-                    RecipientType.USER,
-                    NotificationType.BOOKING,
-                    "Đặt sân thành công",
-                    message,
-                    "BOOKING",
-                    savedBooking.getId()
-            );
-        } catch (Exception e) {
-            log.error("Failed to create notification for booking: {}", savedBooking.getId(), e);
+        if (booking.getSlot() != null) {
+            for (Slot s : booking.getSlot()) {
+                s.setStatus(SlotStatus.AVAILABLE);
+                s.setUpdatedAt(LocalDateTime.now());
+                if (s.getField() != null) slotAvailabilityIndex.invalidateAfterCompletion(s.getField().getId(), s.getDate());
+            }
         }
+        bookingEventPublisher.bookingReleased(booking, reason, notifyCustomer);
+    }
 
-        return savedBooking;
+    // true if an active recurring series owns this range on a date it has not materialized yet
+    private boolean isClaimedBySeries(Integer fieldId, LocalDate date, LocalTime start, LocalTime end) {
+        return bookingSeriesRepository.findActiveOverlapping(fieldId, date.getDayOfWeek(), start, end, date, date).stream()
+                .anyMatch(sc -> sc.claims(fieldId, date, start, end));
     }
 
+
     // keep existing helper for backward compatible path
     private Booking createBookingWithProvidedCustomer(BookingRequest req, Integer providedId) {
         // reuse previous resolution logic: attempt to resolve providedId to Customer
@@ -336,8 +562,11 @@ public class BookingService {
         if (newStatus == PaymentStatus.SUCCESS) {
             cp.setPaidAt(LocalDateTime.now());
             booking.setStatus(BookingStatus.CONFIRMED);
+            booking.setExpiresAt(null);
         }
         booking.setUpdatedAt(LocalDateTime.now());
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.save(booking);
+        bookingEventPublisher.paymentUpdated(saved);
+        return saved;
     }
 }
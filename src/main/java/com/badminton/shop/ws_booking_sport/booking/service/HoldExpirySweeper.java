@@ -0,0 +1,97 @@
+package com.badminton.shop.ws_booking_sport.booking.service;
+
+import com.badminton.shop.ws_booking_sport.booking.repository.BookingRepository;
+import com.badminton.shop.ws_booking_sport.model.booking.Booking;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Cancels PENDING bookings whose payment hold (Booking.expiresAt) has run out and releases their slots.
+ * Due holds are read through the (status, expires_at) index in batches, one transaction per batch.
+ */
+@Component
+public class HoldExpirySweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldExpirySweeper.class);
+
+    private static final int BATCH_SIZE = 100;
+    // upper bound per run so one sweep never monopolizes the scheduler thread
+    private static final int MAX_BATCHES_PER_RUN = 50;
+
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter reclaimedHolds;
+    private final Counter releasedSlots;
+
+    @Value("${booking.hold.online-minutes:15}")
+    private int onlineHoldMinutes;
+
+    public HoldExpirySweeper(BookingRepository bookingRepository, BookingService bookingService,
+                             TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.bookingRepository = bookingRepository;
+        this.bookingService = bookingService;
+        this.transactionTemplate = transactionTemplate;
+        this.reclaimedHolds = Counter.builder("booking.holds.reclaimed")
+                .description("Unpaid bookings cancelled because their payment hold expired")
+                .register(meterRegistry);
+        this.releasedSlots = Counter.builder("booking.holds.released.slots")
+                .description("Slots released back to inventory by expired holds")
+                .register(meterRegistry);
+    }
+
+    // online bookings created before holds had an expiry would otherwise stay PENDING forever
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillExpiry() {
+        try {
+            Integer updated = transactionTemplate.execute(status -> bookingRepository.backfillOnlineHoldExpiry(onlineHoldMinutes));
+            if (updated != null && updated > 0) log.info("Set hold expiry on {} pending online bookings", updated);
+        } catch (Exception e) {
+            log.warn("Could not backfill booking hold expiry: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${booking.hold.sweep-interval-ms:30000}")
+    public void sweep() {
+        int total = 0;
+        for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+            int[] reclaimed;
+            try {
+                reclaimed = transactionTemplate.execute(status -> sweepBatch(LocalDateTime.now()));
+            } catch (Exception e) {
+                log.error("Hold expiry sweep failed", e);
+                break;
+            }
+            // counted only once the batch has committed
+            reclaimedHolds.increment(reclaimed[0]);
+            releasedSlots.increment(reclaimed[1]);
+            total += reclaimed[0];
+            if (reclaimed[0] < BATCH_SIZE) break;
+        }
+        if (total > 0) log.info("Reclaimed {} expired booking holds", total);
+    }
+
+    // returns {cancelled bookings, released slots}
+    private int[] sweepBatch(LocalDateTime now) {
+        List<Booking> expired = bookingRepository.findExpiredHolds(now, PageRequest.of(0, BATCH_SIZE));
+        int slots = 0;
+        for (Booking b : expired) {
+            if (b.getSlot() != null) slots += b.getSlot().size();
+            bookingService.cancelBooking(b, "Payment hold expired", true);
+        }
+        bookingRepository.saveAll(expired);
+        return new int[]{expired.size(), slots};
+    }
+}
@@ -5,7 +5,10 @@ import com.badminton.shop.ws_booking_sport.enums.BookingStatus;
 import com.badminton.shop.ws_booking_sport.enums.PaymentStatus;
 import com.badminton.shop.ws_booking_sport.booking.repository.BookingRepository;
 import com.badminton.shop.ws_booking_sport.model.booking.OnlinePayment;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,29 +18,60 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class PaymentService {
 
+    private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
+
     private final BookingRepository bookingRepository;
+    private final MeterRegistry meterRegistry;
+    private final BookingEventPublisher bookingEventPublisher;
+
+    public enum Confirmation {
+        CONFIRMED,
+        // the money arrived after the hold expired and the slots were released; it has to be paid back
+        REFUND_REQUIRED
+    }
 
     @Transactional
-    public void confirmPayment(String bookingId, long amount, String transactionRef) {
-        Booking booking = bookingRepository.findById(bookingId)
+    public Confirmation confirmPayment(String bookingId, long amount, String transactionRef) {
+        // row lock: serializes with HoldExpirySweeper, which skips locked bookings
+        Booking booking = bookingRepository.findByIdForUpdate(bookingId)
                 .orElseThrow(() -> new IllegalArgumentException("Booking not found: " + bookingId));
+        if (!(booking.getPayment() instanceof OnlinePayment)) {
+            meterRegistry.counter("payment.confirmations", "outcome", "not_online").increment();
+            throw new IllegalArgumentException("Booking payment method is not ONLINE");
+        }
+        OnlinePayment onlinePayment = (OnlinePayment) booking.getPayment();
 
-        if (booking.getPayment() instanceof OnlinePayment) {
-            OnlinePayment onlinePayment = (OnlinePayment) booking.getPayment();
-
-            // Verify amount if necessary (Note: VNPay amount includes 2 decimals, e.g. 1000000 for 10,000)
-            // if (amount / 100 != onlinePayment.getAmount()) { ... }
+        // gateways repeat callbacks; answer a repeat with the recorded outcome without notifying again
+        if (onlinePayment.getStatus() == PaymentStatus.SUCCESS) return Confirmation.CONFIRMED;
+        if (onlinePayment.getStatus() == PaymentStatus.REFUND_REQUIRED) return Confirmation.REFUND_REQUIRED;
 
-            onlinePayment.setStatus(PaymentStatus.SUCCESS);
+        if (booking.getStatus() == BookingStatus.CANCELLED) {
+            // the customer has been charged anyway: keep the gateway reference so the payment can be refunded
+            onlinePayment.setStatus(PaymentStatus.REFUND_REQUIRED);
             onlinePayment.setPaidAt(LocalDateTime.now());
             onlinePayment.setTransactionRef(transactionRef);
-            // Assumption: OnlinePayment has transactionRef field or similar to store provider ref
-
-            booking.setStatus(BookingStatus.CONFIRMED);
+            booking.setUpdatedAt(LocalDateTime.now());
             bookingRepository.save(booking);
-        } else {
-            throw new IllegalArgumentException("Booking payment method is not ONLINE");
+            bookingEventPublisher.latePaymentRefundRequired(booking);
+            meterRegistry.counter("payment.confirmations", "outcome", "refund_required").increment();
+            log.warn("Payment {} for booking {} arrived after its hold expired, refund required", transactionRef, bookingId);
+            return Confirmation.REFUND_REQUIRED;
         }
+
+        // Verify amount if necessary (Note: VNPay amount includes 2 decimals, e.g. 1000000 for 10,000)
+        // if (amount / 100 != onlinePayment.getAmount()) { ... }
+
+        onlinePayment.setStatus(PaymentStatus.SUCCESS);
+        onlinePayment.setPaidAt(LocalDateTime.now());
+        onlinePayment.setTransactionRef(transactionRef);
+        // Assumption: OnlinePayment has transactionRef field or similar to store provider ref
+
+        booking.setStatus(BookingStatus.CONFIRMED);
+        booking.setExpiresAt(null);
+        booking.setUpdatedAt(LocalDateTime.now());
+        bookingRepository.save(booking);
+        bookingEventPublisher.paymentConfirmed(booking);
+        meterRegistry.counter("payment.confirmations", "outcome", "success").increment();
+        return Confirmation.CONFIRMED;
     }
 }
-
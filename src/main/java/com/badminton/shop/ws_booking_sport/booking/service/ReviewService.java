@@ -9,6 +9,8 @@ import com.badminton.shop.ws_booking_sport.model.booking.Review;
 import com.badminton.shop.ws_booking_sport.model.core.Customer;
 import com.badminton.shop.ws_booking_sport.booking.repository.BookingRepository;
 import com.badminton.shop.ws_booking_sport.core.repository.CustomerRepository;
+import com.badminton.shop.ws_booking_sport.venue.service.VenueDetailCache;
+import com.badminton.shop.ws_booking_sport.venue.service.VenueRatingService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +26,8 @@ public class ReviewService {
     private final ReviewRepository reviewRepository;
     private final BookingRepository bookingRepository;
     private final CustomerRepository customerRepository;
+    private final VenueRatingService venueRatingService;
+    private final VenueDetailCache venueDetailCache;
 
     @Transactional
     public Review createReview(String bookingId, ReviewRequest req, Integer userId) {
@@ -45,7 +49,10 @@ public class ReviewService {
         review.setCreatedAt(LocalDateTime.now());
         review.setUpdatedAt(LocalDateTime.now());
 
-        return reviewRepository.save(review);
+        Review saved = reviewRepository.save(review);
+        venueRatingService.reviewCreated(saved);
+        venueDetailCache.evict(VenueRatingService.venueIdOf(saved));
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -66,11 +73,15 @@ public class ReviewService {
         if (r.getCustomer() == null || !r.getCustomer().getId().equals(userId)) {
             throw new IllegalArgumentException("Only the customer who created the review can update it");
         }
+        int previousRating = r.getRating();
         r.setRating(req.getRating());
         r.setComment(req.getComment());
         r.setPhotos(req.getPhotos());
         r.setUpdatedAt(LocalDateTime.now());
-        return reviewRepository.save(r);
+        Review saved = reviewRepository.save(r);
+        venueRatingService.reviewUpdated(saved, previousRating);
+        venueDetailCache.evict(VenueRatingService.venueIdOf(saved));
+        return saved;
     }
 
     @Transactional
@@ -80,6 +91,8 @@ public class ReviewService {
             throw new IllegalArgumentException("Only the customer who created the review can delete it");
         }
         reviewRepository.delete(r);
+        venueRatingService.reviewDeleted(r);
+        venueDetailCache.evict(VenueRatingService.venueIdOf(r));
     }
 
     // expose mapper for reuse
@@ -0,0 +1,316 @@
+package com.badminton.shop.ws_booking_sport.booking.service;
+
+import com.badminton.shop.ws_booking_sport.booking.repository.BookingSeriesRepository;
+import com.badminton.shop.ws_booking_sport.booking.repository.SlotRepository;
+import com.badminton.shop.ws_booking_sport.booking.repository.SlotTimeProjection;
+import com.badminton.shop.ws_booking_sport.dto.response.UnavailableSlotResponse;
+import com.badminton.shop.ws_booking_sport.enums.SlotStatus;
+import com.badminton.shop.ws_booking_sport.model.booking.BookingSeries;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory occupancy index keyed by (fieldId, date).
+ * Each entry is a bitmap of 5-minute cells (288 cells per day) built from the BOOKED/BLOCKED slot rows of that
+ * field/date plus the occurrences active recurring series claim there without slot rows yet, so overlap checks and
+ * unavailable-slot lookups are answered without a DB round trip. Series writes drop the field's entries.
+ * Entries are loaded lazily on first access (outside the map's bin lock, concurrent readers wait on the same
+ * load), updated as booking transactions on this node commit and reloaded after booking.availability.index-ttl-seconds,
+ * which bounds how long writes made on other nodes stay invisible. An "occupied" answer to isRangeFree is
+ * confirmed against the DB, and a stale "free" one is caught by the slot_no_overlap constraint on insert.
+ * When full, entries for past dates and then the least recently used ones are evicted.
+ * If a field/date contains slot times that are not aligned to the cell size the entry is marked inexact and
+ * callers fall back to the DB queries.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlotAvailabilityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotAvailabilityIndex.class);
+
+    public static final int CELL_MINUTES = 5;
+    public static final int CELLS_PER_DAY = 24 * 60 / CELL_MINUTES;
+    private static final int MAX_ENTRIES = 50_000;
+    // eviction frees this share of the index at once, so a full index does not sort on every load
+    private static final int EVICT_TO_ENTRIES = MAX_ENTRIES * 9 / 10;
+    private static final List<SlotStatus> OCCUPYING_STATUSES = List.of(SlotStatus.BOOKED, SlotStatus.BLOCKED);
+
+    private final SlotRepository slotRepository;
+    private final BookingSeriesRepository bookingSeriesRepository;
+
+    @Value("${booking.availability.index-ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private final ConcurrentMap<String, Entry> store = new ConcurrentHashMap<>();
+
+    /**
+     * Returns true if no slot row overlaps [start, end) on the given field/date. A cell claimed only by a series
+     * is confirmed against the slot rows, so series claims are not part of the answer (callers check them).
+     */
+    public boolean isRangeFree(Integer fieldId, LocalDate date, LocalTime start, LocalTime end) {
+        if (isAligned(start) && isAligned(end)) {
+            DayBitmap bitmap = load(fieldId, date);
+            if (bitmap.exact && bitmap.isFree(toCell(start), endCell(end))) return true;
+        }
+        // unaligned request, inexact entry or occupied (possibly released on another node since the load): ask the DB
+        List<?> overlapping = slotRepository.findOverlappingSlots(fieldId, date, start, end);
+        return overlapping == null || overlapping.isEmpty();
+    }
+
+    /**
+     * Returns merged unavailable ranges (slot rows and unmaterialized series occurrences) for the field/date, or
+     * null if the entry cannot be answered from the bitmap (caller should fall back to the DB queries).
+     */
+    public List<UnavailableSlotResponse> getUnavailableRanges(Integer fieldId, LocalDate date) {
+        DayBitmap bitmap = load(fieldId, date);
+        if (!bitmap.exact) return null;
+        return bitmap.toRanges();
+    }
+
+    /**
+     * Marks [start, end) as occupied just before the current transaction commits (immediately if there is none),
+     * i.e. while the booking still holds its per-court/day reservation lock. If the commit then fails, or the
+     * entry was absent or replaced meanwhile (a load may have read the DB before the commit), the entry is
+     * dropped and reloaded from the DB on next access.
+     */
+    public void markBookedOnCommit(Integer fieldId, LocalDate date, LocalTime start, LocalTime end) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            markBooked(fieldId, date, start, end);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private Entry marked;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                marked = markBooked(fieldId, date, start, end);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED || marked == null || store.get(makeKey(fieldId, date)) != marked) {
+                    invalidate(fieldId, date);
+                }
+            }
+        });
+    }
+
+    // marks the range on the loaded (or loading) entry; returns it, or null if there is none
+    Entry markBooked(Integer fieldId, LocalDate date, LocalTime start, LocalTime end) {
+        // only touch entries that are already there; absent entries are loaded from the DB on next access
+        Entry entry = store.get(makeKey(fieldId, date));
+        if (entry != null) entry.bitmap.thenAccept(b -> b.mark(start, end));
+        return entry;
+    }
+
+    /**
+     * Drops the cached entry once the current transaction completes (immediately if there is none); used when
+     * slots are released so readers never cache the pre-release state.
+     */
+    public void invalidateAfterCompletion(Integer fieldId, LocalDate date) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(fieldId, date);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidate(fieldId, date);
+            }
+        });
+    }
+
+    /**
+     * Drops every cached entry of the field once the current transaction completes (immediately if there is
+     * none); used when a recurring series on the field is created, materialized or cancelled, since its claims
+     * can cover any number of dates.
+     */
+    public void invalidateFieldAfterCompletion(Integer fieldId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateField(fieldId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidateField(fieldId);
+            }
+        });
+    }
+
+    private void invalidateField(Integer fieldId) {
+        String prefix = fieldId + ":";
+        store.keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
+    /**
+     * Drops the cached entry so the next access reloads it from the DB.
+     */
+    public void invalidate(Integer fieldId, LocalDate date) {
+        store.remove(makeKey(fieldId, date));
+    }
+
+    public int size() {
+        return store.size();
+    }
+
+    private DayBitmap load(Integer fieldId, LocalDate date) {
+        String key = makeKey(fieldId, date);
+        long now = System.nanoTime();
+        Entry entry = store.get(key);
+        if (entry == null || entry.isExpired(now, ttlSeconds)) {
+            evictIfNeeded();
+            // only swaps in an empty entry under the bin lock; the thread that created it does the DB load
+            entry = store.compute(key, (k, current) ->
+                    current != null && !current.isExpired(now, ttlSeconds) ? current : new Entry(date, now));
+        }
+        entry.lastAccessNanos = now;
+        if (entry.loading.compareAndSet(false, true)) {
+            try {
+                List<SlotTimeProjection> rows = slotRepository.findTimesByFieldIdAndDateAndStatusIn(fieldId, date, OCCUPYING_STATUSES);
+                DayBitmap bitmap = new DayBitmap();
+                for (SlotTimeProjection p : rows) {
+                    bitmap.mark(p.getStartTime(), p.getEndTime());
+                }
+                for (BookingSeries s : bookingSeriesRepository.findUnmaterializedOn(List.of(fieldId), date.getDayOfWeek(), date)) {
+                    if (s.claims(fieldId, date, s.getStartTime(), s.getEndTime())) bitmap.mark(s.getStartTime(), s.getEndTime());
+                }
+                log.debug("Warmed availability bitmap for fieldId={} date={} from {} slot rows (exact={})", fieldId, date, rows.size(), bitmap.exact);
+                entry.bitmap.complete(bitmap);
+            } catch (RuntimeException e) {
+                store.remove(key, entry);
+                entry.bitmap.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return entry.bitmap.join();
+        } catch (CompletionException e) {
+            // the loading thread failed; it already removed the entry
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private void evictIfNeeded() {
+        if (store.size() < MAX_ENTRIES) return;
+        LocalDate today = LocalDate.now();
+        store.values().removeIf(e -> e.date.isBefore(today));
+        int excess = store.size() - EVICT_TO_ENTRIES;
+        if (excess <= 0) return;
+        // least recently used first
+        List<Map.Entry<String, Long>> byAccess = new ArrayList<>(store.size());
+        store.forEach((k, e) -> byAccess.add(Map.entry(k, e.lastAccessNanos)));
+        byAccess.sort(Map.Entry.comparingByValue());
+        for (int i = 0; i < excess && i < byAccess.size(); i++) {
+            store.remove(byAccess.get(i).getKey());
+        }
+        log.info("Availability index was full, evicted {} least recently used entries", excess);
+    }
+
+    private String makeKey(Integer fieldId, LocalDate date) {
+        return fieldId + ":" + date;
+    }
+
+    static boolean isAligned(LocalTime t) {
+        return t != null && t.getSecond() == 0 && t.getNano() == 0 && t.getMinute() % CELL_MINUTES == 0;
+    }
+
+    public static int toCell(LocalTime t) {
+        return (t.getHour() * 60 + t.getMinute()) / CELL_MINUTES;
+    }
+
+    // first cell boundary at or after t, so an unaligned range end still covers the cell it reaches into
+    public static int toCellCeil(LocalTime t) {
+        return (t.getHour() * 60 + t.getMinute() + CELL_MINUTES - 1) / CELL_MINUTES;
+    }
+
+    // cell boundary a range ends at; 00:00 is the end of the day
+    static int endCell(LocalTime end) {
+        return end.equals(LocalTime.MIDNIGHT) ? CELLS_PER_DAY : toCell(end);
+    }
+
+    static LocalTime fromCell(int cell) {
+        if (cell >= CELLS_PER_DAY) return LocalTime.MAX;
+        return LocalTime.of(0, 0).plusMinutes((long) cell * CELL_MINUTES);
+    }
+
+    // cache slot of one field/date: the bitmap (completed by the thread that loads it) and its age
+    static final class Entry {
+        final LocalDate date;
+        final long loadedAtNanos;
+        final CompletableFuture<DayBitmap> bitmap = new CompletableFuture<>();
+        final AtomicBoolean loading = new AtomicBoolean();
+        volatile long lastAccessNanos;
+
+        Entry(LocalDate date, long now) {
+            this.date = date;
+            this.loadedAtNanos = now;
+            this.lastAccessNanos = now;
+        }
+
+        boolean isExpired(long now, long ttlSeconds) {
+            return now - loadedAtNanos > TimeUnit.SECONDS.toNanos(ttlSeconds);
+        }
+    }
+
+    // one bit per 5-minute cell of a day
+    static class DayBitmap {
+        final long[] words = new long[(CELLS_PER_DAY + 63) / 64];
+        volatile boolean exact = true;
+
+        // an end of 00:00 means end of day (as in the schedule sheet); any other empty or reversed range is skipped
+        synchronized void mark(LocalTime start, LocalTime end) {
+            if (start == null || end == null) return;
+            boolean toMidnight = end.equals(LocalTime.MIDNIGHT);
+            if (!toMidnight && !start.isBefore(end)) return;
+            if (!isAligned(start) || !isAligned(end)) {
+                exact = false;
+                return;
+            }
+            int to = endCell(end);
+            for (int c = toCell(start); c < to; c++) {
+                words[c >>> 6] |= 1L << (c & 63);
+            }
+        }
+
+        synchronized boolean isFree(int fromCell, int toCell) {
+            for (int c = fromCell; c < toCell; c++) {
+                if ((words[c >>> 6] & (1L << (c & 63))) != 0) return false;
+            }
+            return true;
+        }
+
+        synchronized List<UnavailableSlotResponse> toRanges() {
+            List<UnavailableSlotResponse> ranges = new ArrayList<>();
+            int c = 0;
+            while (c < CELLS_PER_DAY) {
+                if ((words[c >>> 6] & (1L << (c & 63))) == 0) {
+                    c++;
+                    continue;
+                }
+                int runStart = c;
+                while (c < CELLS_PER_DAY && (words[c >>> 6] & (1L << (c & 63))) != 0) c++;
+                ranges.add(new UnavailableSlotResponse(fromCell(runStart), fromCell(c)));
+            }
+            return ranges;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.badminton.shop.ws_booking_sport.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+
+/**
+ * Per-(field, date) PostgreSQL advisory lock held until the surrounding transaction ends.
+ * Bookings for different courts or days never wait on each other; bookings for the same court/day are
+ * serialized between the availability check and the slot insert.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlotReservationLock {
+
+    // how long a booking waits for a competing booking on the same court/day before giving up (and retrying)
+    private static final String LOCK_TIMEOUT = "3s";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void lock(Integer fieldId, LocalDate date) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Slot reservation lock requires an active transaction");
+        }
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '" + LOCK_TIMEOUT + "'");
+        // two-int key: (fieldId, days since epoch); released automatically on commit/rollback
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?, ?)::text", String.class, fieldId, (int) date.toEpochDay());
+    }
+}
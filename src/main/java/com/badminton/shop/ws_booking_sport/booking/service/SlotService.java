@@ -1,14 +1,18 @@
 package com.badminton.shop.ws_booking_sport.booking.service;
 
+import com.badminton.shop.ws_booking_sport.booking.repository.BookingSeriesRepository;
 import com.badminton.shop.ws_booking_sport.booking.repository.SlotRepository;
 import com.badminton.shop.ws_booking_sport.booking.repository.SlotTimeProjection;
 import com.badminton.shop.ws_booking_sport.dto.response.UnavailableSlotResponse;
 import com.badminton.shop.ws_booking_sport.enums.SlotStatus;
+import com.badminton.shop.ws_booking_sport.model.booking.BookingSeries;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
@@ -18,14 +22,28 @@ import java.util.List;
 public class SlotService {
 
     private final SlotRepository slotRepository;
+    private final SlotAvailabilityIndex slotAvailabilityIndex;
+    private final BookingSeriesRepository bookingSeriesRepository;
+    private final MeterRegistry meterRegistry;
 
     public List<UnavailableSlotResponse> getUnavailableSlots(Integer fieldId, LocalDate date) {
-        List<SlotTimeProjection> proj = slotRepository.findTimesByFieldIdAndDateAndStatus(fieldId, date, SlotStatus.BOOKED);
-        // Map to simple pairs and sort by startTime
-        List<UnavailableSlotResponse> ranges = proj.stream()
-                .map(p -> new UnavailableSlotResponse(p.getStartTime(), p.getEndTime()))
-                .sorted(Comparator.comparing(UnavailableSlotResponse::getStartTime))
-                .toList();
+        List<UnavailableSlotResponse> ranges = new ArrayList<>();
+        // fast path: answer from the in-memory bitmap (slot rows and series claims, already merged)
+        List<UnavailableSlotResponse> fromIndex = slotAvailabilityIndex.getUnavailableRanges(fieldId, date);
+        meterRegistry.counter("booking.availability.lookups", "source", fromIndex != null ? "index" : "db").increment();
+        if (fromIndex != null) return fromIndex;
+
+        List<SlotTimeProjection> proj = slotRepository.findTimesByFieldIdAndDateAndStatusIn(fieldId, date, List.of(SlotStatus.BOOKED, SlotStatus.BLOCKED));
+        proj.forEach(p -> ranges.add(new UnavailableSlotResponse(p.getStartTime(), p.getEndTime())));
+
+        // occurrences of recurring series beyond their materialized horizon have no slot rows yet, but booking
+        // validation rejects them all the same
+        for (BookingSeries s : bookingSeriesRepository.findUnmaterializedOn(List.of(fieldId), date.getDayOfWeek(), date)) {
+            if (s.claims(fieldId, date, s.getStartTime(), s.getEndTime())) {
+                ranges.add(new UnavailableSlotResponse(s.getStartTime(), s.getEndTime()));
+            }
+        }
+        ranges.sort(Comparator.comparing(UnavailableSlotResponse::getStartTime));
 
         // Merge overlapping/adjacent ranges
         LinkedList<UnavailableSlotResponse> merged = new LinkedList<>();
@@ -90,10 +90,13 @@ public class ChatController {
         return ResponseEntity.status(HttpStatus.CREATED).body(body);
     }
 
-    // list messages
+    // list messages: latest page, or keyset pages around an anchor message (?before=<messageId> / ?after=<messageId>)
     @GetMapping("/{chatRoomId}/messages")
     public ResponseEntity<DataResponse> listMessages(@RequestHeader(value = "Authorization", required = false) String authorizationHeader,
-                                                     @PathVariable String chatRoomId) {
+                                                     @PathVariable String chatRoomId,
+                                                     @RequestParam(required = false) Integer before,
+                                                     @RequestParam(required = false) Integer after,
+                                                     @RequestParam(required = false) Integer limit) {
         if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
             throw new IllegalArgumentException("Authorization header with Bearer token is required");
         }
@@ -102,7 +105,7 @@ public class ChatController {
             throw new IllegalArgumentException("Invalid or expired token");
         }
 
-        var messages = chatService.listMessages(chatRoomId);
+        var messages = chatService.listMessages(chatRoomId, before, after, limit);
         return ResponseEntity.ok(DataResponse.success(messages, "Messages fetched successfully", HttpStatus.OK.value()));
     }
 
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +22,10 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, String> {
     @Query("SELECT c FROM ChatRoom c WHERE c.userId = :id OR c.ownerId = :id OR c.friendId = :id ORDER BY c.updatedAt DESC")
     List<ChatRoom> findByUserParticipation(@Param("id") String id);
 
+    // which of the given ids exist, without loading the rooms
+    @Query("SELECT c.id FROM ChatRoom c WHERE c.id IN :ids")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
+
     // allow reverse lookup (friend vs user) - Keeping for backward compatibility or safely removing if usages are gone
     // Optional<ChatRoom> findByUserIdAndOwnerIdOrUserIdAndOwnerId(String userId1, String ownerId1, String userId2, String ownerId2);
 }
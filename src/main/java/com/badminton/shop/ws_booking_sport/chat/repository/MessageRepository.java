@@ -3,6 +3,8 @@ package com.badminton.shop.ws_booking_sport.chat.repository;
 import com.badminton.shop.ws_booking_sport.model.chat.Message;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -16,4 +18,29 @@ public interface MessageRepository extends JpaRepository<Message, Integer> {
 
     // Fetch the latest message for preview
     Message findTopByChatRoomIdOrderBySentAtDesc(String chatRoomId);
+
+    // History pages ordered by (sentAt, id), read through idx_message_room_sent.
+    // An anchor that is not a message of the room yields an empty page.
+    @Query("SELECT m.id AS id, m.chatRoom.id AS chatRoomId, m.senderId AS senderId, m.senderRole AS senderRole, " +
+            "m.content AS content, m.sentAt AS sentAt, m.isRead AS isRead FROM Message m " +
+            "WHERE m.chatRoom.id = :roomId ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageRow> findLatestRows(@Param("roomId") String roomId, Pageable pageable);
+
+    // newest first, strictly older than the anchor
+    @Query("SELECT m.id AS id, m.chatRoom.id AS chatRoomId, m.senderId AS senderId, m.senderRole AS senderRole, " +
+            "m.content AS content, m.sentAt AS sentAt, m.isRead AS isRead FROM Message m, Message a " +
+            "WHERE a.id = :anchorId AND a.chatRoom.id = :roomId AND m.chatRoom.id = :roomId " +
+            "AND m.sentAt <= a.sentAt AND (m.sentAt < a.sentAt OR m.id < a.id) " +
+            "ORDER BY m.sentAt DESC, m.id DESC")
+    List<MessageRow> findRowsBefore(@Param("roomId") String roomId, @Param("anchorId") Integer anchorId, Pageable pageable);
+
+    // oldest first, strictly newer than the anchor
+    @Query("SELECT m.id AS id, m.chatRoom.id AS chatRoomId, m.senderId AS senderId, m.senderRole AS senderRole, " +
+            "m.content AS content, m.sentAt AS sentAt, m.isRead AS isRead FROM Message m, Message a " +
+            "WHERE a.id = :anchorId AND a.chatRoom.id = :roomId AND m.chatRoom.id = :roomId " +
+            "AND m.sentAt >= a.sentAt AND (m.sentAt > a.sentAt OR m.id > a.id) " +
+            "ORDER BY m.sentAt ASC, m.id ASC")
+    List<MessageRow> findRowsAfter(@Param("roomId") String roomId, @Param("anchorId") Integer anchorId, Pageable pageable);
+
+    boolean existsByIdAndChatRoomId(Integer id, String chatRoomId);
 }
@@ -0,0 +1,14 @@
+package com.badminton.shop.ws_booking_sport.chat.repository;
+
+import java.time.LocalDateTime;
+
+// Message columns only (chat room as its id), read without loading Message/ChatRoom entities
+public interface MessageRow {
+    Integer getId();
+    String getChatRoomId();
+    Integer getSenderId();
+    String getSenderRole();
+    String getContent();
+    LocalDateTime getSentAt();
+    Boolean getIsRead();
+}
@@ -0,0 +1,68 @@
+package com.badminton.shop.ws_booking_sport.chat.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Coalesces ChatRoom.updatedAt bumps: sending a message only records the room's latest activity in memory and a
+ * periodic flush writes all touched rooms in one JDBC batch (never moving updated_at backwards).
+ * Room lists ordered by updatedAt may lag by up to one flush interval.
+ */
+@Component
+public class ChatRoomActivity {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatRoomActivity.class);
+
+    private static final String TOUCH_SQL =
+            "UPDATE chat_room SET updated_at = ? WHERE id = ? AND (updated_at IS NULL OR updated_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentMap<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public ChatRoomActivity(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void touch(String chatRoomId, LocalDateTime at) {
+        pending.merge(chatRoomId, at, (a, b) -> a.isAfter(b) ? a : b);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.room.touch-interval-ms:2000}")
+    public void flush() {
+        if (pending.isEmpty()) return;
+        List<Map.Entry<String, LocalDateTime>> rows = new ArrayList<>(pending.size());
+        for (String id : pending.keySet()) {
+            LocalDateTime at = pending.remove(id);
+            if (at != null) rows.add(Map.entry(id, at));
+        }
+        try {
+            jdbcTemplate.batchUpdate(TOUCH_SQL, rows, rows.size(), (ps, row) -> {
+                Timestamp ts = Timestamp.valueOf(row.getValue());
+                ps.setTimestamp(1, ts);
+                ps.setString(2, row.getKey());
+                ps.setTimestamp(3, ts);
+            });
+        } catch (Exception e) {
+            // keep them for the next run unless a newer touch arrived meanwhile
+            rows.forEach(row -> touch(row.getKey(), row.getValue()));
+            log.warn("Failed to update activity of {} chat rooms: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        flush();
+    }
+}
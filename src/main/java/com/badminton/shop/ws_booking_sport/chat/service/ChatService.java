@@ -2,6 +2,7 @@ package com.badminton.shop.ws_booking_sport.chat.service;
 
 import com.badminton.shop.ws_booking_sport.chat.repository.ChatRoomRepository;
 import com.badminton.shop.ws_booking_sport.chat.repository.MessageRepository;
+import com.badminton.shop.ws_booking_sport.chat.repository.MessageRow;
 import com.badminton.shop.ws_booking_sport.dto.response.ChatRoomResponse;
 import com.badminton.shop.ws_booking_sport.dto.response.MessageResponse;
 import com.badminton.shop.ws_booking_sport.model.chat.ChatRoom;
@@ -12,12 +13,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -28,10 +29,15 @@ public class ChatService {
 
     private static final Logger log = LoggerFactory.getLogger(ChatService.class);
 
+    private static final int DEFAULT_HISTORY_SIZE = 50;
+    private static final int MAX_HISTORY_SIZE = 100;
+
     private final ChatRoomRepository chatRoomRepository;
     private final MessageRepository messageRepository;
     private final SimpMessagingTemplate simpMessagingTemplate; // used to broadcast
     private final MessageSaveQueue messageSaveQueue; // background persistence queue
+    private final MessageIdAllocator messageIdAllocator; // ids before persistence, for history cursors
+    private final ChatRoomActivity chatRoomActivity; // batched updatedAt bumps
 
     @Transactional
     public ChatRoom findOrCreateChatWithOwner(Integer userId, String ownerId) {
@@ -75,6 +81,8 @@ public class ChatService {
             throw new IllegalArgumentException("Sender is not part of this chat");
         }
         Message m = new Message();
+        // the id is known before the row exists, so live messages can be used as history cursors
+        m.setId(messageIdAllocator.next());
         m.setChatRoom(room);
         m.setSenderId(senderId);
         m.setSenderRole(senderRole);
@@ -82,40 +90,60 @@ public class ChatService {
         m.setSentAt(LocalDateTime.now());
         m.setRead(false);
 
+        // journal for background persistence before anyone sees the message: if that fails the send fails
+        // (ResourceUnavailableException) and the client retries, instead of a broadcast message being lost
+        messageSaveQueue.enqueue(m);
+        log.debug("Enqueued message for background persistence (chatRoomId={}, sender={})", chatRoomId, senderId);
+
         // immediate delivery to subscribers (fast UX) - do NOT wait for DB save
+        // sent once; subscribers of /topic/chat/{id} are aliased to this destination (DestinationAliasInterceptor)
         try {
             MessageResponse mr = toMessageResponse(m);
-            String destDot = "/topic/chat." + chatRoomId;
-            String destSlash = "/topic/chat/" + chatRoomId;
-            simpMessagingTemplate.convertAndSend(destDot, mr);
-            simpMessagingTemplate.convertAndSend(destSlash, mr);
-            log.debug("Broadcasted message to destinations: {} and {} (chatRoomId={}, sender={})", destDot, destSlash, chatRoomId, senderId);
+            String dest = "/topic/chat." + chatRoomId;
+            simpMessagingTemplate.convertAndSend(dest, mr);
+            log.debug("Broadcasted message to destination: {} (chatRoomId={}, sender={})", dest, chatRoomId, senderId);
         } catch (Exception ex) {
             log.error("Failed to broadcast message for chatRoomId={} sender={}, error={}", chatRoomId, senderId, ex.getMessage());
         }
 
-        // enqueue for background persistence
-        messageSaveQueue.enqueue(m);
-        log.debug("Enqueued message for background persistence (chatRoomId={}, sender={})", chatRoomId, senderId);
-
-        // update room's updatedAt and persist it (keeps chat metadata consistent)
-        room.setUpdatedAt(LocalDateTime.now());
-        chatRoomRepository.save(room);
+        // room's updatedAt is written by the next batched flush (the managed room is left untouched)
+        chatRoomActivity.touch(chatRoomId, m.getSentAt());
 
-        // return the unsaved message (id will be null until the queue saves it)
+        // return the message; its row is written by the queue shortly
         return m;
     }
 
+    /**
+     * A page of chat history in chronological order: the latest messages, the ones right before message `before`
+     * (scrolling back) or right after message `after` (catching up). Clients pass the id of the first/last message
+     * they hold as the next anchor, live messages included (their ids are assigned before the broadcast); a page
+     * shorter than limit means there is nothing more in that direction.
+     * An anchor still waiting in MessageSaveQueue is newer than everything stored for the room (a room's messages
+     * are stored in order), so `after` it there is nothing yet and `before` it is the latest page.
+     */
     @Transactional(readOnly = true)
-    public List<MessageResponse> listMessages(String chatRoomId) {
-        // User requested at least 10 messages. We fetch latest 50 to provide good context.
-        Pageable pageable = PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "sentAt"));
-        List<Message> msgs = messageRepository.findByChatRoomId(chatRoomId, pageable);
-
-        // Reverse from Newest->Oldest to Oldest->Newest for display
-        Collections.reverse(msgs);
-
-        return msgs.stream().map(this::toMessageResponse).collect(Collectors.toList());
+    public List<MessageResponse> listMessages(String chatRoomId, Integer before, Integer after, Integer limit) {
+        if (before != null && after != null) throw new IllegalArgumentException("Use either before or after, not both");
+        int size = limit == null ? DEFAULT_HISTORY_SIZE : limit;
+        if (size < 1 || size > MAX_HISTORY_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_HISTORY_SIZE);
+        }
+        Pageable pageable = PageRequest.of(0, size);
+        List<MessageRow> rows;
+        if (after != null) {
+            rows = messageRepository.findRowsAfter(chatRoomId, after, pageable);
+        } else {
+            rows = before != null
+                    ? messageRepository.findRowsBefore(chatRoomId, before, pageable)
+                    : messageRepository.findLatestRows(chatRoomId, pageable);
+            if (before != null && rows.isEmpty() && !messageRepository.existsByIdAndChatRoomId(before, chatRoomId)) {
+                rows = messageRepository.findLatestRows(chatRoomId, pageable);
+            }
+            // Reverse from Newest->Oldest to Oldest->Newest for display
+            rows = new ArrayList<>(rows);
+            Collections.reverse(rows);
+        }
+        return rows.stream().map(this::toMessageResponse).collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
@@ -139,28 +167,20 @@ public class ChatService {
         dto.setUpdatedAt(room.getUpdatedAt());
 
         if (listOnlyLastMessage) {
-            Message lastMsg = messageRepository.findTopByChatRoomIdOrderBySentAtDesc(room.getId());
-            if (lastMsg != null) {
-                dto.setMessages(List.of(toMessageResponse(lastMsg)));
-            } else {
-                dto.setMessages(List.of());
-            }
+            List<MessageRow> last = messageRepository.findLatestRows(room.getId(), PageRequest.of(0, 1));
+            dto.setMessages(last.stream().map(this::toMessageResponse).collect(Collectors.toList()));
         } else {
-            // Fetch latest 50 messages for detail view as well
-            Pageable pageable = PageRequest.of(0, 50, Sort.by(Sort.Direction.DESC, "sentAt"));
-            List<Message> msgs = messageRepository.findByChatRoomId(room.getId(), pageable);
-             // Reverse to chronological order
-            Collections.reverse(msgs);
-
-            if (msgs != null) {
-                dto.setMessages(msgs.stream().map(this::toMessageResponse).collect(Collectors.toList()));
-            } else {
-                dto.setMessages(List.of());
-            }
+            // latest page for the detail view as well; older pages come from listMessages(before)
+            dto.setMessages(listMessages(room.getId(), null, null, DEFAULT_HISTORY_SIZE));
         }
         return dto;
     }
 
+    public MessageResponse toMessageResponse(MessageRow r) {
+        return new MessageResponse(r.getId(), r.getChatRoomId(), r.getSenderId(), r.getSenderRole(), r.getContent(), r.getSentAt(),
+                Boolean.TRUE.equals(r.getIsRead()));
+    }
+
     public MessageResponse toMessageResponse(Message m) {
         String chatRoomId = (m.getChatRoom() != null) ? m.getChatRoom().getId() : null;
         return new MessageResponse(m.getId(), chatRoomId, m.getSenderId(), m.getSenderRole(), m.getContent(), m.getSentAt(), m.isRead());
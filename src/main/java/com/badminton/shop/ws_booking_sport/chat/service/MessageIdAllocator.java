@@ -0,0 +1,49 @@
+package com.badminton.shop.ws_booking_sport.chat.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out chat message ids before the message is stored, so live messages are broadcast with the id clients
+ * later use as a history cursor. Ids come from message_seq in blocks of BLOCK_SIZE with the same meaning as
+ * Hibernate's pooled optimizer on Message (nextval = highest id of the block), so both can share the sequence.
+ */
+@Component
+public class MessageIdAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageIdAllocator.class);
+
+    // must match allocationSize of the message_seq generator on Message
+    static final int BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private boolean synced;
+    private int next;
+    private int last = -1;
+
+    public MessageIdAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public synchronized int next() {
+        if (next > last) {
+            if (!synced) syncWithExistingIds();
+            Integer hi = jdbcTemplate.queryForObject("SELECT nextval('message_seq')::int", Integer.class);
+            last = hi;
+            next = Math.max(1, hi - BLOCK_SIZE + 1);
+        }
+        return next++;
+    }
+
+    // ids assigned while Message still used IDENTITY must never be handed out again; only moves the sequence
+    // forward, so a node starting next to running ones cannot set it back
+    private void syncWithExistingIds() {
+        Long moved = jdbcTemplate.queryForObject("SELECT count(setval('message_seq', x.hi)) FROM " +
+                "(SELECT COALESCE(MAX(id), 0) + " + BLOCK_SIZE + " AS hi FROM message) x " +
+                "WHERE x.hi > (SELECT last_value FROM message_seq)", Long.class);
+        if (moved != null && moved > 0) log.info("Moved message_seq past the existing message ids");
+        synced = true;
+    }
+}
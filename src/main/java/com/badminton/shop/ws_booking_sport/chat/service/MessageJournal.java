@@ -0,0 +1,401 @@
+package com.badminton.shop.ws_booking_sport.chat.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, memory-mapped journal of one MessageSaveQueue partition; it is the partition's queue.
+ * enqueue appends a record and waits for it to be forced to disk (concurrent appenders share one force, i.e. group
+ * commit); the partition worker reads records in order and checkpoints them once they are stored in the DB.
+ * Segments (p{partition}-{firstSeq}.log) are deleted when fully checkpointed; on startup the records after the
+ * DB checkpoint are read again, so messages survive a crash or a shutdown with a backlog.
+ */
+final class MessageJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageJournal.class);
+
+    // record: int payload length, long seq, payload, int crc32c(seq + payload)
+    private static final int RECORD_OVERHEAD = 4 + 8 + 4;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("p(\\d+)-(\\d+)\\.log");
+
+    private final Path dir;
+    private final int partition;
+    private final int segmentBytes;
+
+    // oldest first; the last one is the head that is appended to (guarded by this)
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private volatile Segment head;
+    private long nextSeq;
+    private boolean closed;
+
+    private volatile long appended;
+    private volatile long synced;
+    private volatile long checkpointed;
+    private final Object syncLock = new Object();
+
+    // reader state, only touched by the partition worker
+    private Segment readSegment;
+    private int readPosition;
+    private long readSeq;
+
+    private MessageJournal(Path dir, int partition, int segmentBytes) {
+        this.dir = dir;
+        this.partition = partition;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Opens the partition's segments, drops a torn tail and positions the reader after the given checkpoint.
+     */
+    static MessageJournal open(Path dir, int partition, int segmentBytes, long checkpoint) throws IOException {
+        MessageJournal j = new MessageJournal(dir, partition, segmentBytes);
+        long lastSeq = 0;
+        boolean headTorn = false;
+        for (Path path : segmentFiles(dir, partition)) {
+            Segment s = Segment.map(path, firstSeqOf(path));
+            headTorn = !s.scan();
+            if (headTorn) log.warn("Message journal segment {} ends with a torn or corrupt record after seq {}", path, s.lastSeq);
+            lastSeq = Math.max(lastSeq, s.lastSeq);
+            j.segments.addLast(s);
+        }
+        // only the last segment can be torn by a crash (older ones were forced when rolled); clear the partial
+        // record so a later scan does not stop in front of the records appended after it
+        if (headTorn) j.segments.peekLast().clearTail();
+
+        j.nextSeq = Math.max(lastSeq, checkpoint) + 1;
+        if (j.segments.isEmpty() || lastSeq < checkpoint) {
+            j.segments.addLast(Segment.create(dir, partition, j.nextSeq, segmentBytes));
+        }
+        j.head = j.segments.peekLast();
+        j.appended = j.nextSeq - 1;
+        j.synced = j.appended;
+        j.checkpoint(checkpoint);
+
+        j.readSegment = j.segments.peekFirst();
+        j.readPosition = 0;
+        j.readSeq = j.readSegment.firstSeq - 1;
+        if (j.pending() > 0) log.info("Message journal partition {} has {} messages to replay", partition, j.pending());
+        return j;
+    }
+
+    // partitions that have segments in the directory
+    static int highestPartition(Path dir) throws IOException {
+        int max = -1;
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                Matcher m = SEGMENT_NAME.matcher(p.getFileName().toString());
+                if (m.matches()) max = Math.max(max, Integer.parseInt(m.group(1)));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Appends the message and returns its sequence; it is durable once {@link #sync(long)} returns.
+     */
+    long append(MessageSaveQueue.PersistMessage pm) throws IOException {
+        byte[] payload = encode(pm);
+        int size = RECORD_OVERHEAD + payload.length;
+        if (size > segmentBytes) throw new IllegalArgumentException("Message too large for the journal");
+        synchronized (this) {
+            if (closed) throw new IllegalStateException("Message journal is closed");
+            if (head.writePosition + size > head.buffer.capacity()) roll();
+            long seq = nextSeq++;
+            head.write(seq, payload);
+            appended = seq;
+            notifyAll();
+            return seq;
+        }
+    }
+
+    /**
+     * Forces everything appended so far to disk unless a concurrent caller already covered seq.
+     */
+    void sync(long seq) {
+        if (synced >= seq) return;
+        synchronized (syncLock) {
+            if (synced >= seq) return;
+            // read before head: records of an older segment were forced when it was rolled
+            long upTo = appended;
+            head.buffer.force();
+            synced = upTo;
+        }
+    }
+
+    // caller holds this
+    private void roll() throws IOException {
+        head.buffer.force();
+        Segment s = Segment.create(dir, partition, nextSeq, segmentBytes);
+        segments.addLast(s);
+        head = s;
+    }
+
+    /**
+     * Next records after the reader position, at most max; worker thread only.
+     */
+    List<MessageSaveQueue.PersistMessage> read(int max) {
+        long limit = appended;
+        List<MessageSaveQueue.PersistMessage> out = new ArrayList<>();
+        while (out.size() < max && readSeq < limit) {
+            if (readSeq >= readSegment.lastSeq) {
+                readSegment = segmentAfter(readSegment);
+                readPosition = 0;
+                continue;
+            }
+            ByteBuffer b = readSegment.buffer;
+            int len = b.getInt(readPosition);
+            long seq = b.getLong(readPosition + 4);
+            byte[] payload = new byte[len];
+            b.get(readPosition + 12, payload);
+            readPosition += RECORD_OVERHEAD + len;
+            readSeq = seq;
+            if (seq <= checkpointed) continue;
+            MessageSaveQueue.PersistMessage pm = decode(payload);
+            pm.seq = seq;
+            out.add(pm);
+        }
+        return out;
+    }
+
+    boolean hasUnread() {
+        return readSeq < appended;
+    }
+
+    // worker thread only: waits up to millis for records after the reader position
+    synchronized void awaitAppend(long millis) throws InterruptedException {
+        if (closed || readSeq < appended) return;
+        wait(millis);
+    }
+
+    /**
+     * Marks records up to seq as stored and deletes the segments that only hold stored records.
+     */
+    synchronized void checkpoint(long seq) {
+        if (seq > checkpointed) checkpointed = seq;
+        while (segments.size() > 1) {
+            Segment s = segments.peekFirst();
+            if (s.lastSeq > checkpointed || s == readSegment) break;
+            segments.pollFirst();
+            s.delete();
+        }
+        notifyAll();
+    }
+
+    synchronized boolean awaitCheckpoint(long seq, long millis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        while (checkpointed < seq) {
+            long left = deadline - System.currentTimeMillis();
+            if (left <= 0) return false;
+            wait(left);
+        }
+        return true;
+    }
+
+    long appended() {
+        return appended;
+    }
+
+    long pending() {
+        return appended - checkpointed;
+    }
+
+    synchronized void close() {
+        if (closed) return;
+        closed = true;
+        head.buffer.force();
+        for (Segment s : segments) s.close();
+        notifyAll();
+    }
+
+    private synchronized Segment segmentAfter(Segment s) {
+        for (Segment next : segments) {
+            if (next.firstSeq > s.firstSeq) return next;
+        }
+        throw new IllegalStateException("Message journal partition " + partition + " has no segment after seq " + s.lastSeq);
+    }
+
+    private static List<Path> segmentFiles(Path dir, int partition) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> {
+                        Matcher m = SEGMENT_NAME.matcher(p.getFileName().toString());
+                        return m.matches() && Integer.parseInt(m.group(1)) == partition;
+                    })
+                    .sorted((a, b) -> Long.compare(firstSeqOf(a), firstSeqOf(b)))
+                    .toList();
+        }
+    }
+
+    private static long firstSeqOf(Path path) {
+        Matcher m = SEGMENT_NAME.matcher(path.getFileName().toString());
+        if (!m.matches()) throw new IllegalArgumentException("Not a journal segment: " + path);
+        return Long.parseLong(m.group(2));
+    }
+
+    private static byte[] encode(MessageSaveQueue.PersistMessage pm) {
+        byte[] room = utf8(pm.chatRoomId);
+        byte[] role = utf8(pm.senderRole);
+        byte[] content = utf8(pm.content);
+        ByteBuffer b = ByteBuffer.allocate(3 * 4 + len(room) + len(role) + len(content) + 1 + 4 + 8 + 4 + 1 + 1 + 4);
+        putBytes(b, room);
+        b.put((byte) (pm.senderId == null ? 0 : 1));
+        b.putInt(pm.senderId == null ? 0 : pm.senderId);
+        putBytes(b, role);
+        putBytes(b, content);
+        b.putLong(pm.sentAt.toEpochSecond(ZoneOffset.UTC));
+        b.putInt(pm.sentAt.getNano());
+        b.put((byte) (pm.read ? 1 : 0));
+        // appended last so records of older versions (which end here) still decode
+        b.put((byte) (pm.id == null ? 0 : 1));
+        b.putInt(pm.id == null ? 0 : pm.id);
+        return b.array();
+    }
+
+    private static MessageSaveQueue.PersistMessage decode(byte[] payload) {
+        ByteBuffer b = ByteBuffer.wrap(payload);
+        MessageSaveQueue.PersistMessage pm = new MessageSaveQueue.PersistMessage();
+        pm.chatRoomId = getString(b);
+        boolean hasSender = b.get() == 1;
+        int senderId = b.getInt();
+        pm.senderId = hasSender ? senderId : null;
+        pm.senderRole = getString(b);
+        pm.content = getString(b);
+        long epochSecond = b.getLong();
+        pm.sentAt = LocalDateTime.ofEpochSecond(epochSecond, b.getInt(), ZoneOffset.UTC);
+        pm.read = b.get() == 1;
+        if (b.remaining() >= 5) {
+            boolean hasId = b.get() == 1;
+            int id = b.getInt();
+            pm.id = hasId ? id : null;
+        }
+        return pm;
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int len(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    // int length (-1 for null) followed by the bytes
+    private static void putBytes(ByteBuffer b, byte[] bytes) {
+        b.putInt(bytes == null ? -1 : bytes.length);
+        if (bytes != null) b.put(bytes);
+    }
+
+    private static String getString(ByteBuffer b) {
+        int n = b.getInt();
+        if (n < 0) return null;
+        byte[] bytes = new byte[n];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Segment {
+        final Path path;
+        final long firstSeq;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        // written under the journal lock before `appended` is published, so readers of published seqs see them
+        int writePosition;
+        long lastSeq;
+
+        private Segment(Path path, long firstSeq, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.firstSeq = firstSeq;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.lastSeq = firstSeq - 1;
+        }
+
+        static Segment create(Path dir, int partition, long firstSeq, int size) throws IOException {
+            Path path = dir.resolve(String.format("p%d-%020d.log", partition, firstSeq));
+            FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, firstSeq, ch, ch.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        static Segment map(Path path, long firstSeq) throws IOException {
+            FileChannel ch = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new Segment(path, firstSeq, ch, ch.map(FileChannel.MapMode.READ_WRITE, 0, ch.size()));
+        }
+
+        // walks the records from the start; false if it stopped at a torn/corrupt record before the zeroed tail
+        boolean scan() {
+            long expectedSeq = firstSeq;
+            int p = 0;
+            while (p + RECORD_OVERHEAD <= buffer.capacity()) {
+                int len = buffer.getInt(p);
+                if (len == 0) break;
+                if (len < 0 || p + RECORD_OVERHEAD + len > buffer.capacity()
+                        || buffer.getLong(p + 4) != expectedSeq
+                        || buffer.getInt(p + 12 + len) != crc(buffer, p, len)) {
+                    writePosition = p;
+                    return false;
+                }
+                lastSeq = expectedSeq++;
+                p += RECORD_OVERHEAD + len;
+            }
+            writePosition = p;
+            return true;
+        }
+
+        void clearTail() {
+            for (int p = writePosition; p < buffer.capacity(); p++) buffer.put(p, (byte) 0);
+            buffer.force();
+        }
+
+        void write(long seq, byte[] payload) {
+            int p = writePosition;
+            buffer.putInt(p, payload.length);
+            buffer.putLong(p + 4, seq);
+            buffer.put(p + 12, payload);
+            buffer.putInt(p + 12 + payload.length, crc(buffer, p, payload.length));
+            writePosition = p + RECORD_OVERHEAD + payload.length;
+            lastSeq = seq;
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close message journal segment {}: {}", path, e.getMessage());
+            }
+        }
+
+        void delete() {
+            close();
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Could not delete message journal segment {}: {}", path, e.getMessage());
+            }
+        }
+
+        // over seq + payload of the record at p
+        private static int crc(ByteBuffer buffer, int p, int len) {
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(p + 4, 8 + len));
+            return (int) crc.getValue();
+        }
+    }
+}
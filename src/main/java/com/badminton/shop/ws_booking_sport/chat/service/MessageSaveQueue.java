@@ -1,42 +1,98 @@
 package com.badminton.shop.ws_booking_sport.chat.service;
 
 import com.badminton.shop.ws_booking_sport.chat.repository.ChatRoomRepository;
-import com.badminton.shop.ws_booking_sport.chat.repository.MessageRepository;
-import com.badminton.shop.ws_booking_sport.model.chat.ChatRoom;
+import com.badminton.shop.ws_booking_sport.handleException.ResourceUnavailableException;
 import com.badminton.shop.ws_booking_sport.model.chat.Message;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Background persistence for chat messages (they are broadcast before they are stored).
+ * Messages are partitioned by chat room id across a pool of workers, so a room's messages are always written by
+ * the same worker in order. Each worker drains up to batch-size messages per poll and writes them with one JDBC
+ * batch insert in one transaction; room existence is checked against a cache of known room ids.
+ * Each partition's queue is a local MessageJournal: enqueue returns once the message is on disk, and the batch
+ * transaction also stores the partition's journal checkpoint, so messages not yet in the DB are replayed on the
+ * next start (after a crash or a shutdown with a backlog) without ever being inserted twice.
+ */
 @Component
 public class MessageSaveQueue {
 
     private static final Logger log = LoggerFactory.getLogger(MessageSaveQueue.class);
 
-    private final BlockingQueue<PersistMessage> queue = new LinkedBlockingQueue<>(10_000);
-    private final MessageRepository messageRepository;
+    private static final String INSERT_SQL =
+            "INSERT INTO message (id, chat_room_id, sender_id, sender_role, content, sent_at, is_read) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String CHECKPOINT_SQL =
+            "INSERT INTO message_journal_checkpoint (journal_key, seq, updated_at) VALUES (?, ?, ?) " +
+            "ON CONFLICT (journal_key) DO UPDATE SET seq = EXCLUDED.seq, updated_at = EXCLUDED.updated_at";
+    private static final long FLUSH_TIMEOUT_MS = 10_000;
+    // chat rooms are never deleted, so a known id stays valid; the set is only bounded to cap memory
+    private static final int MAX_KNOWN_ROOMS = 100_000;
+
     private final ChatRoomRepository chatRoomRepository;
+    private final MessageIdAllocator messageIdAllocator;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<String> knownRooms = ConcurrentHashMap.newKeySet();
     private volatile boolean running = true;
-    private Thread worker;
+    // journals of the current partitions come first; older journals from a larger pool are only drained
+    private List<MessageJournal> journals;
+    private int partitionCount;
+    private String journalId;
+    private List<Thread> workers;
+
+    @Value("${chat.persist.workers:4}")
+    private int workerCount;
+
+    @Value("${chat.persist.batch-size:200}")
+    private int batchSize;
+
+    @Value("${chat.persist.journal.dir:data/chat-journal}")
+    private String journalDir;
 
-    public MessageSaveQueue(MessageRepository messageRepository, ChatRoomRepository chatRoomRepository) {
-        this.messageRepository = messageRepository;
+    @Value("${chat.persist.journal.segment-mb:64}")
+    private int segmentMb;
+
+    public MessageSaveQueue(ChatRoomRepository chatRoomRepository, MessageIdAllocator messageIdAllocator,
+                            JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
         this.chatRoomRepository = chatRoomRepository;
+        this.messageIdAllocator = messageIdAllocator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
     }
 
+    // returns once the message is durable in the journal; throws if it is not, so the sender can retry
     public void enqueue(Message m) {
         if (m == null || m.getChatRoom() == null || m.getChatRoom().getId() == null) {
             log.warn("Attempted to enqueue null/invalid message (chatRoom missing)");
             return;
         }
         PersistMessage pm = new PersistMessage();
+        pm.id = m.getId();
         pm.chatRoomId = m.getChatRoom().getId();
         pm.senderId = m.getSenderId();
         pm.senderRole = m.getSenderRole();
@@ -44,129 +100,258 @@ public class MessageSaveQueue {
         pm.sentAt = m.getSentAt() == null ? LocalDateTime.now() : m.getSentAt();
         pm.read = m.isRead();
 
-        boolean offered = queue.offer(pm);
-        if (!offered) {
-            // queue full: log and try to blockingly put (to avoid data loss) but without stalling too long
-            log.warn("Message queue is full, blocking put for chatRoomId={} senderId={}. Will wait up to 2 seconds.", pm.chatRoomId, pm.senderId);
-            try {
-                boolean succeeded = queue.offer(pm, 2, TimeUnit.SECONDS);
-                if (!succeeded) {
-                    log.error("Failed to enqueue message after waiting: chatRoomId={} senderId={}. Dropping message.", pm.chatRoomId, pm.senderId);
-                } else {
-                    log.debug("Enqueued message after waiting: chatRoomId={} senderId={}", pm.chatRoomId, pm.senderId);
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.error("Interrupted while waiting to enqueue message for chatRoomId={} senderId={}", pm.chatRoomId, pm.senderId);
-            }
-        } else {
+        MessageJournal journal = journalOf(pm.chatRoomId);
+        try {
+            journal.sync(journal.append(pm));
             log.debug("Enqueued message for chatRoomId={} senderId={}", pm.chatRoomId, pm.senderId);
+        } catch (Exception e) {
+            log.error("Failed to journal message: chatRoomId={} senderId={}, error={}", pm.chatRoomId, pm.senderId, e.getMessage());
+            throw new ResourceUnavailableException("Message could not be saved, please try again");
         }
     }
 
     @PostConstruct
-    void start() {
-        log.info("Starting MessageSaveQueue worker thread");
-        worker = new Thread(() -> {
-            while (running || !queue.isEmpty()) {
+    void start() throws IOException {
+        Path dir = Paths.get(journalDir);
+        Files.createDirectories(dir);
+        requirePersistentStorage(dir);
+        journalId = readJournalId(dir);
+        partitionCount = Math.max(1, workerCount);
+        int n = Math.max(partitionCount, MessageJournal.highestPartition(dir) + 1);
+        Map<Integer, Long> checkpoints = loadCheckpoints();
+
+        journals = new ArrayList<>(n);
+        workers = new ArrayList<>(n);
+        log.info("Starting {} MessageSaveQueue workers (batch size {}, journal {})", n, batchSize, dir.toAbsolutePath());
+        for (int i = 0; i < n; i++) {
+            MessageJournal journal = MessageJournal.open(dir, i, segmentMb * 1024 * 1024, checkpoints.getOrDefault(i, 0L));
+            journals.add(journal);
+            int partition = i;
+            Thread worker = new Thread(() -> runWorker(partition, journal), "message-save-worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    // In a container the journal must sit on a mounted volume: the writable layer is thrown away with the container
+    // on every redeploy, and with it any backlog left for replay. Refuse to start rather than lose it silently.
+    static void requirePersistentStorage(Path dir) throws IOException {
+        if (!Files.exists(Paths.get("/.dockerenv")) && !Files.exists(Paths.get("/run/.containerenv"))) return;
+        Path mountInfo = Paths.get("/proc/self/mountinfo");
+        if (!Files.isReadable(mountInfo)) return;
+        Path real = dir.toRealPath();
+        String mountPoint = "/";
+        for (String line : Files.readAllLines(mountInfo, StandardCharsets.UTF_8)) {
+            String[] parts = line.split(" ");
+            if (parts.length < 5) continue;
+            String candidate = parts[4].replace("\\040", " ");
+            if (real.startsWith(candidate) && candidate.length() > mountPoint.length()) mountPoint = candidate;
+        }
+        if ("/".equals(mountPoint)) {
+            throw new IllegalStateException("Chat journal directory " + real + " is in the container's writable layer " +
+                    "and would be lost on redeploy; mount a volume there or point CHAT_JOURNAL_DIR at one");
+        }
+    }
+
+    // identifies this node's journal in message_journal_checkpoint; kept next to the segments
+    private static String readJournalId(Path dir) throws IOException {
+        Path file = dir.resolve("journal.id");
+        if (Files.exists(file)) return Files.readString(file, StandardCharsets.UTF_8).trim();
+        String id = UUID.randomUUID().toString();
+        Files.writeString(file, id, StandardCharsets.UTF_8);
+        return id;
+    }
+
+    private Map<Integer, Long> loadCheckpoints() {
+        Map<Integer, Long> checkpoints = new HashMap<>();
+        String prefix = journalId + ":";
+        jdbcTemplate.query("SELECT journal_key, seq FROM message_journal_checkpoint WHERE journal_key LIKE ?",
+                rs -> {
+                    checkpoints.put(Integer.parseInt(rs.getString(1).substring(prefix.length())), rs.getLong(2));
+                }, prefix + "%");
+        return checkpoints;
+    }
+
+    private void runWorker(int partition, MessageJournal journal) {
+        while (running || journal.hasUnread()) {
+            List<PersistMessage> batch = journal.read(batchSize);
+            if (batch.isEmpty()) {
                 try {
-                    PersistMessage pm = queue.poll(1, TimeUnit.SECONDS);
-                    if (pm == null) continue;
-                    try {
-                        savePersistMessage(pm);
-                    } catch (Exception ex) {
-                        log.error("Failed to persist message (will retry): chatRoomId={}, senderId={}, error={}", pm.chatRoomId, pm.senderId, ex.getMessage());
-                        // transient failure: re-enqueue with small backoff
-                        try { TimeUnit.SECONDS.sleep(1); } catch (InterruptedException ignored) { Thread.currentThread().interrupt(); }
-                        // try to re-offer, if it fails then blockingly put it back
-                        boolean offered = queue.offer(pm);
-                        if (!offered) {
-                            try {
-                                queue.put(pm);
-                            } catch (InterruptedException ie) {
-                                Thread.currentThread().interrupt();
-                                log.error("Interrupted while re-queueing message: chatRoomId={}, senderId={}", pm.chatRoomId, pm.senderId);
-                            }
-                        }
-                    }
+                    journal.awaitAppend(1000);
                 } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
+                    // stop() interrupts the wait; the loop keeps draining until the journal is read
                 }
+                continue;
             }
-            log.info("MessageSaveQueue worker thread exiting");
-        }, "message-save-worker");
-        worker.setDaemon(true);
-        worker.start();
-    }
-
-    private void savePersistMessage(PersistMessage pm) {
-        // resolve ChatRoom entity
-        log.debug("Persisting message for chatRoomId={} senderId={}", pm.chatRoomId, pm.senderId);
-        ChatRoom room = chatRoomRepository.findById(pm.chatRoomId).orElse(null);
-        if (room == null) {
-            // can't save without chat room, drop the message or re-enqueue later
-            log.warn("ChatRoom not found when trying to persist message: chatRoomId={}. Dropping message.", pm.chatRoomId);
-            return;
+            Outcome outcome = persistWithRetry(partition, batch);
+            if (outcome == Outcome.REJECTED) {
+                // a row the DB refuses (constraint, value too long) must not block the partition: store the batch
+                // row by row and dead-letter only the rows that are rejected on their own
+                log.warn("Batch of {} messages in partition {} rejected, retrying row by row", batch.size(), partition);
+                for (PersistMessage pm : batch) {
+                    outcome = persistWithRetry(partition, List.of(pm));
+                    if (outcome == Outcome.REJECTED) outcome = deadLetter(partition, pm);
+                    if (outcome == Outcome.FAILED) break;
+                }
+            }
+            if (outcome == Outcome.FAILED) {
+                log.warn("Shutting down with {} unsaved messages in partition {}; they are replayed from the journal on restart", journal.pending(), partition);
+                break;
+            }
+            journal.checkpoint(batch.get(batch.size() - 1).seq);
+        }
+        log.info("MessageSaveQueue worker {} exiting", Thread.currentThread().getName());
+    }
+
+    private enum Outcome { STORED, REJECTED, FAILED }
+
+    // transient failures are retried with a small backoff (the same rows, so the room's order is kept) until
+    // they succeed or the queue stops (FAILED); REJECTED = the DB refused the rows, retrying can not help
+    private Outcome persistWithRetry(int partition, List<PersistMessage> batch) {
+        while (true) {
+            try {
+                persistBatch(partition, withExistingRooms(batch), batch.get(batch.size() - 1).seq);
+                return Outcome.STORED;
+            } catch (DataIntegrityViolationException ex) {
+                if (batch.size() == 1) {
+                    log.error("Message rejected by the DB: chatRoomId={}, senderId={}, error={}", batch.get(0).chatRoomId, batch.get(0).senderId, ex.getMessage());
+                }
+                return Outcome.REJECTED;
+            } catch (Exception ex) {
+                log.error("Failed to persist {} messages (will retry): error={}", batch.size(), ex.getMessage());
+            }
+            if (!running) return Outcome.FAILED;
+            try {
+                TimeUnit.SECONDS.sleep(1);
+            } catch (InterruptedException ignored) {
+                // re-checked through running
+            }
+        }
+    }
+
+    // the full row goes to the log (nothing else keeps it) and the checkpoint moves past it
+    private Outcome deadLetter(int partition, PersistMessage pm) {
+        log.error("Dead-lettered chat message: chatRoomId={}, senderId={}, senderRole={}, sentAt={}, content={}",
+                pm.chatRoomId, pm.senderId, pm.senderRole, pm.sentAt, pm.content);
+        while (true) {
+            try {
+                persistBatch(partition, List.of(), pm.seq);
+                return Outcome.STORED;
+            } catch (Exception ex) {
+                log.error("Failed to checkpoint past dead-lettered message (will retry): error={}", ex.getMessage());
+            }
+            if (!running) return Outcome.FAILED;
+            try {
+                TimeUnit.SECONDS.sleep(1);
+            } catch (InterruptedException ignored) {
+                // re-checked through running
+            }
+        }
+    }
+
+    // inserts the rows and moves the partition's checkpoint to lastSeq in one transaction
+    private void persistBatch(int partition, List<PersistMessage> rows, long lastSeq) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, pm) -> {
+                    // records journaled before ids were assigned up front get one now
+                    if (pm.id == null) pm.id = messageIdAllocator.next();
+                    ps.setInt(1, pm.id);
+                    ps.setString(2, pm.chatRoomId);
+                    ps.setObject(3, pm.senderId);
+                    ps.setString(4, pm.senderRole);
+                    ps.setString(5, pm.content);
+                    ps.setTimestamp(6, Timestamp.valueOf(pm.sentAt));
+                    ps.setBoolean(7, pm.read);
+                });
+            }
+            jdbcTemplate.update(CHECKPOINT_SQL, journalId + ":" + partition, lastSeq, Timestamp.valueOf(LocalDateTime.now()));
+        });
+        log.debug("Persisted {} messages", rows.size());
+    }
+
+    // drops messages whose room does not exist; unknown ids of the batch are resolved with a single query
+    private List<PersistMessage> withExistingRooms(List<PersistMessage> batch) {
+        Set<String> unknown = new HashSet<>();
+        for (PersistMessage pm : batch) {
+            if (!knownRooms.contains(pm.chatRoomId)) unknown.add(pm.chatRoomId);
         }
-        Message msg = new Message();
-        msg.setChatRoom(room);
-        msg.setSenderId(pm.senderId);
-        msg.setSenderRole(pm.senderRole);
-        msg.setContent(pm.content);
-        msg.setSentAt(pm.sentAt);
-        msg.setRead(pm.read);
-        messageRepository.save(msg);
-        log.debug("Message persisted (chatRoomId={} senderId={})", pm.chatRoomId, pm.senderId);
+        if (unknown.isEmpty()) return batch;
+
+        if (knownRooms.size() + unknown.size() > MAX_KNOWN_ROOMS) knownRooms.clear();
+        knownRooms.addAll(chatRoomRepository.findExistingIds(unknown));
+        List<PersistMessage> rows = new ArrayList<>(batch.size());
+        for (PersistMessage pm : batch) {
+            if (knownRooms.contains(pm.chatRoomId)) {
+                rows.add(pm);
+            } else {
+                log.warn("ChatRoom not found when trying to persist message: chatRoomId={}. Dropping message.", pm.chatRoomId);
+            }
+        }
+        return rows;
+    }
+
+    private MessageJournal journalOf(String chatRoomId) {
+        return journals.get(Math.floorMod(chatRoomId.hashCode(), partitionCount));
     }
 
     /**
      * For debugging: return current queue size (number of messages waiting to be persisted)
      */
     public int getQueueSize() {
-        return queue.size();
+        long size = 0;
+        for (MessageJournal journal : journals) size += journal.pending();
+        return (int) Math.min(Integer.MAX_VALUE, size);
     }
 
     /**
-     * For debugging: drain the queue and persist synchronously (blocking). Useful to verify persistence immediately.
+     * For debugging: wait (up to 10 seconds) until everything enqueued so far is persisted.
      */
     public void flushNow() {
-        log.info("Flushing {} messages from queue synchronously", queue.size());
-        PersistMessage pm;
-        while ((pm = queue.poll()) != null) {
-            try {
-                savePersistMessage(pm);
-            } catch (Exception ex) {
-                log.error("Failed to persist message while flushing: chatRoomId={}, senderId={}, error={}", pm.chatRoomId, pm.senderId, ex.getMessage());
-                // re-enqueue to avoid loss
-                try {
-                    queue.put(pm);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    log.error("Interrupted while re-enqueueing during flush: chatRoomId={}, senderId={}", pm.chatRoomId, pm.senderId);
+        log.info("Flushing {} messages from queue", getQueueSize());
+        try {
+            for (MessageJournal journal : journals) {
+                if (!journal.awaitCheckpoint(journal.appended(), FLUSH_TIMEOUT_MS)) {
+                    log.warn("Flush timed out with {} messages still pending", journal.pending());
                 }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        log.info("Flush complete. queueSize={}", queue.size());
+        log.info("Flush complete. queueSize={}", getQueueSize());
     }
 
     @PreDestroy
     void stop() {
-        log.info("Stopping MessageSaveQueue worker thread");
+        log.info("Stopping MessageSaveQueue workers");
         running = false;
-        if (worker != null) {
-            worker.interrupt();
-            try { worker.join(2000); } catch (InterruptedException ignored) { Thread.currentThread().interrupt(); }
+        if (workers == null) return;
+        for (Thread worker : workers) worker.interrupt();
+        long deadline = System.currentTimeMillis() + 2000;
+        for (Thread worker : workers) {
+            try {
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
+            }
         }
+        // whatever is still pending stays in the journal and is replayed on the next start
+        for (MessageJournal journal : journals) journal.close();
     }
 
     // local DTO used in the queue
     static class PersistMessage {
+        // message id handed out before the broadcast (null in records written by older versions)
+        Integer id;
         String chatRoomId;
         Integer senderId;
         String senderRole;
         String content;
         LocalDateTime sentAt;
         boolean read;
+        // journal sequence within the partition
+        long seq;
     }
 
 }
@@ -0,0 +1,41 @@
+package com.badminton.shop.ws_booking_sport.config;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Schema tweaks for the chat tables that ddl-auto=update cannot express, applied once at startup:
+ * - widens message.content to text (it was created as varchar(255), which rejected longer chat messages);
+ *   update mode never changes the type of an existing column
+ * Best effort: failures are logged; MessageSaveQueue dead-letters rows the DB still rejects.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatSchemaInitializer implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatSchemaInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        widenMessageContent();
+    }
+
+    private void widenMessageContent() {
+        try {
+            String type = jdbcTemplate.queryForObject(
+                    "SELECT data_type FROM information_schema.columns WHERE table_name = 'message' AND column_name = 'content'",
+                    String.class);
+            if ("text".equals(type)) return;
+            jdbcTemplate.execute("ALTER TABLE message ALTER COLUMN content TYPE text");
+            log.info("Widened message.content from {} to text", type);
+        } catch (Exception e) {
+            log.warn("Could not widen message.content to text: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.badminton.shop.ws_booking_sport.config;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Schema tweak for the payment table that ddl-auto=update cannot express, applied once at startup:
+ * - drops the check constraint Hibernate generated on payment.status when the table was created. update never
+ *   rewrites it, so it would reject statuses added to PaymentStatus later (REFUND_REQUIRED); the enum mapping
+ *   already limits the values written.
+ * Best effort: failures are logged.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentSchemaInitializer implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentSchemaInitializer.class);
+
+    static final String STATUS_CHECK_NAME = "payment_status_check";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        try {
+            jdbcTemplate.execute("ALTER TABLE payment DROP CONSTRAINT IF EXISTS " + STATUS_CHECK_NAME);
+        } catch (Exception e) {
+            log.warn("Could not drop payment status check {}: {}", STATUS_CHECK_NAME, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.badminton.shop.ws_booking_sport.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Schema tweaks for the slot table that ddl-auto=update cannot express, applied once at startup, after the
+ * EntityManagerFactory has updated the schema and before the web server accepts requests (the embedded server only
+ * starts after all singletons are initialized, so no booking can draw a slot id from the stale sequence):
+ * - moves slot_seq past the ids generated while Slot still used IDENTITY, so sequence ids never collide
+ * - installs a PostgreSQL exclusion constraint that makes overlapping BOOKED/BLOCKED slots on the same
+ *   field impossible at the DB level
+ * Best effort: failures are logged and the advisory lock in the booking flow remains the only guard. A missing
+ * constraint is reported as health status DEGRADED (component slotSchemaInitializer) and by the
+ * booking.slot.overlap.constraint gauge (1 installed, 0 missing), with the conflicting slot ids logged at error.
+ */
+@Component
+@RequiredArgsConstructor
+public class SlotSchemaInitializer implements SmartInitializingSingleton, HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotSchemaInitializer.class);
+
+    static final String CONSTRAINT_NAME = "slot_no_overlap";
+    // must match allocationSize of the slot_seq generator on Slot
+    private static final int SEQUENCE_ALLOCATION_SIZE = 50;
+    // enough to start the cleanup without flooding the log
+    private static final int MAX_LISTED_CONFLICTS = 100;
+    // reported instead of DOWN: bookings still work under the advisory lock, so the node must stay in rotation
+    static final Status DEGRADED = new Status("DEGRADED", "Slot overlap constraint is missing");
+
+    private static final String CONFLICTS_SQL = "SELECT a.id || '/' || b.id FROM slot a JOIN slot b " +
+            "ON b.field_id = a.field_id AND b.id > a.id " +
+            "AND tsrange(a.date + a.start_time, a.date + a.end_time) && tsrange(b.date + b.start_time, b.date + b.end_time) " +
+            "WHERE a.status IN ('BOOKED', 'BLOCKED') AND b.status IN ('BOOKED', 'BLOCKED') ORDER BY a.id, b.id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private volatile boolean constraintInstalled;
+    private volatile String constraintError;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        syncSlotSequence();
+        installExclusionConstraint();
+        Gauge.builder("booking.slot.overlap.constraint", this, i -> i.constraintInstalled ? 1 : 0)
+                .description("Whether the slot exclusion constraint against overlapping bookings is installed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Health health() {
+        if (constraintInstalled) return Health.up().withDetail("constraint", CONSTRAINT_NAME).build();
+        return Health.status(DEGRADED).withDetail("constraint", CONSTRAINT_NAME)
+                .withDetail("error", constraintError != null ? constraintError : "unknown").build();
+    }
+
+    private void syncSlotSequence() {
+        try {
+            jdbcTemplate.queryForObject("SELECT setval('slot_seq', GREATEST(" +
+                    "(SELECT COALESCE(MAX(id), 0) FROM slot) + " + SEQUENCE_ALLOCATION_SIZE + ", " +
+                    "(SELECT last_value FROM slot_seq)))::text", String.class);
+        } catch (Exception e) {
+            log.warn("Could not sync slot_seq with existing slot ids: {}", e.getMessage());
+        }
+    }
+
+    private void installExclusionConstraint() {
+        try {
+            Integer existing = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_constraint WHERE conname = ?", Integer.class, CONSTRAINT_NAME);
+            if (existing != null && existing > 0) {
+                constraintInstalled = true;
+                return;
+            }
+
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+            jdbcTemplate.execute("ALTER TABLE slot ADD CONSTRAINT " + CONSTRAINT_NAME + " EXCLUDE USING gist (" +
+                    "field_id WITH =, tsrange(date + start_time, date + end_time) WITH &&) " +
+                    "WHERE (status IN ('BOOKED', 'BLOCKED'))");
+            constraintInstalled = true;
+            log.info("Installed slot exclusion constraint {}", CONSTRAINT_NAME);
+        } catch (Exception e) {
+            constraintError = e.getMessage();
+            log.error("Could not install slot exclusion constraint {}, overlapping bookings are only prevented by the " +
+                    "advisory lock: {}", CONSTRAINT_NAME, e.getMessage());
+            logConflicts();
+        }
+    }
+
+    // the usual cause is existing overlapping rows; list them (as id/id pairs) so they can be cancelled
+    private void logConflicts() {
+        try {
+            List<String> pairs = jdbcTemplate.queryForList(CONFLICTS_SQL, String.class, MAX_LISTED_CONFLICTS);
+            if (pairs.isEmpty()) return;
+            log.error("Overlapping BOOKED/BLOCKED slots block {} (slot id pairs{}): {}", CONSTRAINT_NAME,
+                    pairs.size() == MAX_LISTED_CONFLICTS ? ", first " + MAX_LISTED_CONFLICTS : "", String.join(", ", pairs));
+        } catch (Exception e) {
+            log.error("Could not list slots conflicting with {}: {}", CONSTRAINT_NAME, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.badminton.shop.ws_booking_sport.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread (JdbcTemplate calls are not seen).
+ * Registered as the Hibernate statement inspector in MetricsConfig; readers take the difference of two
+ * current() values around the work they want to measure.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> COUNT = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static long current() {
+        return COUNT.get()[0];
+    }
+}
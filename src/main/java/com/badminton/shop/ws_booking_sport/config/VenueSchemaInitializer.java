@@ -0,0 +1,65 @@
+package com.badminton.shop.ws_booking_sport.config;
+
+import com.badminton.shop.ws_booking_sport.venue.service.VenueCatalogVersion;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Schema tweaks for the venue table that ddl-auto=update cannot express, applied once at startup:
+ * - a GiST expression index on point(longitude, latitude) that serves the bounding-box prefilter of
+ *   VenueRepository.findVenueIdsWithinBox, so radius search does not scan every venue
+ * - the pg_trgm extension and a trigram GIN index on venue_card.search_text for fuzzy text search
+ * - the venue_catalog_seq sequence behind VenueCatalogVersion
+ * Best effort: without the indexes the queries are still correct, only slower; without pg_trgm text search
+ * falls back to substring matching; without the sequence listings are served without validators.
+ */
+@Component
+@RequiredArgsConstructor
+public class VenueSchemaInitializer implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(VenueSchemaInitializer.class);
+
+    static final String LOCATION_INDEX_NAME = "idx_venue_location_gist";
+    static final String SEARCH_TEXT_INDEX_NAME = "idx_venue_card_search_trgm";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        installLocationIndex();
+        installSearchTextIndex();
+        installCatalogSequence();
+    }
+
+    private void installLocationIndex() {
+        try {
+            // point/box GiST support is built into PostgreSQL, no extension needed
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + LOCATION_INDEX_NAME +
+                    " ON venue USING gist (point(longitude, latitude))");
+        } catch (Exception e) {
+            log.warn("Could not install venue location index {}: {}", LOCATION_INDEX_NAME, e.getMessage());
+        }
+    }
+
+    private void installSearchTextIndex() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS " + SEARCH_TEXT_INDEX_NAME +
+                    " ON venue_card USING gin (search_text gin_trgm_ops)");
+        } catch (Exception e) {
+            log.warn("Could not install venue search index {}: {}", SEARCH_TEXT_INDEX_NAME, e.getMessage());
+        }
+    }
+
+    private void installCatalogSequence() {
+        try {
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + VenueCatalogVersion.SEQUENCE_NAME);
+        } catch (Exception e) {
+            log.warn("Could not create venue catalog sequence {}: {}", VenueCatalogVersion.SEQUENCE_NAME, e.getMessage());
+        }
+    }
+}
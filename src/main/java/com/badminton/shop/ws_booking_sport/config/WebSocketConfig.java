@@ -1,7 +1,12 @@
 package com.badminton.shop.ws_booking_sport.config;
 
+import com.badminton.shop.ws_booking_sport.websocket.BrokerMetricsInterceptor;
+import com.badminton.shop.ws_booking_sport.websocket.DestinationAliasInterceptor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -10,6 +15,32 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // simple = broker trong bộ nhớ của JVM này; relay = broker STOMP ngoài (RabbitMQ/ActiveMQ) dùng chung cho mọi node
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    private final DestinationAliasInterceptor destinationAliasInterceptor = new DestinationAliasInterceptor();
+    private final BrokerMetricsInterceptor brokerMetricsInterceptor;
+
+    public WebSocketConfig(BrokerMetricsInterceptor brokerMetricsInterceptor) {
+        this.brokerMetricsInterceptor = brokerMetricsInterceptor;
+    }
+
     /**
      * Bước 1: Đăng ký điểm kết nối (Connection Endpoint)
      * Client (Flutter) sẽ kết nối vào đường dẫn này đầu tiên.
@@ -35,7 +66,25 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // 1. Prefix dành cho Server GỬI VỀ Client (Subscribe)
         // /topic: Thường dùng cho thông báo chung (1 người nói, nhiều người nghe - như cái chức năng Nhận việc của bạn)
         // /queue: Thường dùng cho tin nhắn riêng tư (1-1)
-        registry.enableSimpleBroker("/topic", "/queue");
+        // Đây là nơi duy nhất cấu hình broker (websocket.WebSocketConfig chỉ đăng ký endpoint)
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            // mọi node cùng subscribe/publish qua broker ngoài, nên tin nhắn đến được client ở node khác
+            StompBrokerRelayRegistration relay = registry.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // /user của session nằm ở node khác được chuyển qua hai topic này
+                    .setUserDestinationBroadcast("/topic/unresolved-user")
+                    .setUserRegistryBroadcast("/topic/user-registry");
+            if (!relayVirtualHost.isBlank()) relay.setVirtualHost(relayVirtualHost);
+        } else {
+            registry.enableSimpleBroker("/topic", "/queue");
+        }
+        // alias trước metrics để /topic/chat/{id} được tính như /topic/chat.{id}
+        registry.configureBrokerChannel().interceptors(destinationAliasInterceptor, brokerMetricsInterceptor);
 
         // 2. Prefix dành cho Client GỬI LÊN Server (Publish)
         // Ví dụ: Client gửi tin nhắn thì gửi vào /app/chat/...
@@ -44,4 +93,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // 3. (Tùy chọn) Prefix dành cho tin nhắn riêng tư cụ thể user
         registry.setUserDestinationPrefix("/user");
     }
-}
\ No newline at end of file
+
+    /**
+     * Bước 3: Interceptor cho tin nhắn từ client (SUBSCRIBE/SEND): gom alias destination và đếm subscription
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(destinationAliasInterceptor, brokerMetricsInterceptor);
+    }
+}
@@ -45,8 +45,8 @@ public class ChatService {
         socketPayload.put("type", "ROOM_CLAIMED");
         socketPayload.put("roomId", roomId);
 
-        // Gửi tới kênh chung của Admin
-        messagingTemplate.convertAndSend("/topic/admin/global-updates", socketPayload);
+        // Gửi tới kênh chung của Admin (dạng dấu chấm; client cũ subscribe /topic/admin/global-updates vẫn nhận qua alias)
+        messagingTemplate.convertAndSend("/topic/admin.global-updates", socketPayload);
 
         return savedRoom;
     }
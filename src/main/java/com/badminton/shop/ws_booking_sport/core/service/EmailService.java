@@ -19,5 +19,13 @@ public class EmailService {
         msg.setText("Mã xác thực của bạn: " + code + "\n\nNếu bạn không yêu cầu mã này, hãy bỏ qua email này.");
         mailSender.send(msg);
     }
+
+    public void sendNotification(String to, String subject, String text) {
+        SimpleMailMessage msg = new SimpleMailMessage();
+        msg.setTo(to);
+        msg.setSubject("[Sport Booking] " + subject);
+        msg.setText(text);
+        mailSender.send(msg);
+    }
 }
 
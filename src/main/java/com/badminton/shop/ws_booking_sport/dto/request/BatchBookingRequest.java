@@ -0,0 +1,28 @@
+package com.badminton.shop.ws_booking_sport.dto.request;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+public class BatchBookingRequest {
+    // applied to every booking created by the batch
+    private String paymentMethod;
+    private String paymentProvider;
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Integer venueId;
+        private Integer fieldId;
+        private LocalDate date;
+        private LocalTime startTime;
+        private LocalTime endTime;
+    }
+}
@@ -0,0 +1,22 @@
+package com.badminton.shop.ws_booking_sport.dto.request;
+
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+public class BookingSeriesRequest {
+    private Integer venueId;
+    private Integer fieldId;
+    private DayOfWeek dayOfWeek; // optional, defaults to the weekday of startDate
+    private Integer intervalWeeks; // optional, defaults to 1 (every week)
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private LocalDate startDate;
+    private LocalDate untilDate;
+    // applied to every materialized occurrence
+    private String paymentMethod;
+    private String paymentProvider;
+}
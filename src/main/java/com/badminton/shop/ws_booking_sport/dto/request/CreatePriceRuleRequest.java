@@ -5,8 +5,9 @@ import java.time.LocalTime;
 
 @Data
 public class CreatePriceRuleRequest {
-    private int dayOfWeek; // 1=Monday .. 7=Sunday (follow your convention)
+    private int dayOfWeek; // 1=Monday .. 7=Sunday
     private LocalTime startTime;
-    private LocalTime endTime;
-    // pricePerHour moved to Venue level. Keep these fields only if you still need time-based rules metadata.
+    private LocalTime endTime; // 00:00 = end of day
+    // overrides Venue.pricePerHour inside [startTime, endTime) on that weekday
+    private Double pricePerHour;
 }
@@ -8,4 +8,5 @@ public class UpdatePriceRuleRequest {
     private Integer dayOfWeek;
     private LocalTime startTime;
     private LocalTime endTime;
+    private Double pricePerHour;
 }
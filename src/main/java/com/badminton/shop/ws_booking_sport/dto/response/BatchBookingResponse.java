@@ -0,0 +1,32 @@
+package com.badminton.shop.ws_booking_sport.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBookingResponse {
+    private int booked;
+    private int failed;
+    private List<ItemResult> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index; // position of the item in the request
+        private Integer fieldId;
+        private LocalDate date;
+        private LocalTime startTime;
+        private LocalTime endTime;
+        private String status; // BOOKED, CONFLICT, INVALID
+        private String message;
+        private BookingResponse booking; // only set when status is BOOKED
+    }
+}
@@ -0,0 +1,17 @@
+package com.badminton.shop.ws_booking_sport.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingHistoryResponse {
+    private List<BookingResponse> items;
+    // pass back as ?cursor= to get the next page; null when there are no more bookings
+    private String nextCursor;
+    private boolean hasMore;
+}
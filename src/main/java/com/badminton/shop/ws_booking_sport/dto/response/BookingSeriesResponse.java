@@ -0,0 +1,30 @@
+package com.badminton.shop.ws_booking_sport.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSeriesResponse {
+    private String id;
+    private Integer customerId;
+    private Integer venueId;
+    private Integer fieldId;
+    private DayOfWeek dayOfWeek;
+    private int intervalWeeks;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private LocalDate startDate;
+    private LocalDate untilDate;
+    private LocalDate materializedThrough;
+    private int occurrences; // total number of occurrences in the series
+    private String status;
+    private LocalDateTime createdAt;
+}
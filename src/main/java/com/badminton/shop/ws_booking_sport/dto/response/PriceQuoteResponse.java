@@ -0,0 +1,33 @@
+package com.badminton.shop.ws_booking_sport.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceQuoteResponse {
+    private Integer fieldId;
+    private LocalDate date;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private double totalPrice;
+    private String currency;
+    // consecutive parts of the range charged at the same hourly rate
+    private List<Segment> segments;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Segment {
+        private LocalTime startTime;
+        private LocalTime endTime;
+        private double pricePerHour;
+        private double price;
+    }
+}
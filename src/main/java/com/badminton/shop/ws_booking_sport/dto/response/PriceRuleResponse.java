@@ -0,0 +1,19 @@
+package com.badminton.shop.ws_booking_sport.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceRuleResponse {
+    private Integer id;
+    private Integer fieldId;
+    private int dayOfWeek;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private double pricePerHour;
+}
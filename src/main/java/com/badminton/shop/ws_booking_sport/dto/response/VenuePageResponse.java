@@ -0,0 +1,17 @@
+package com.badminton.shop.ws_booking_sport.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VenuePageResponse {
+    private List<VenueResponse> items;
+    // pass back as ?cursor= to get the next page; null when there are no more venues
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -17,6 +17,7 @@ public class VenueResponse {
     private LocalTime timeOpen;
     private LocalTime timeClose;
     private List<String> imageUrls;
+    private String mainImageUrl;
     private Integer ownerId;
     private float rating;
     private LocalDateTime createdAt;
@@ -0,0 +1,25 @@
+package com.badminton.shop.ws_booking_sport.dto.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+// Columnar day sheet: fieldIds[i], fieldNames[i] and occupancy[i] describe the same field
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VenueScheduleResponse {
+    private Integer venueId;
+    private LocalDate date;
+    private LocalTime timeOpen;
+    private LocalTime timeClose;
+    private int cellMinutes;
+    private List<Integer> fieldIds;
+    private List<String> fieldNames;
+    // one character per cell from 00:00: '0' free, '1' booked, '2' blocked
+    private List<String> occupancy;
+}
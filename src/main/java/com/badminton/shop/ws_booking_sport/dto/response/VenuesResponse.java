@@ -15,4 +15,5 @@ public class VenuesResponse {
     private Double distanceKm;
     private Double minPricePerHour; // optional
     private double pricePerHour; // explicit price per hour to return to clients
+    private Integer freeFields; // fields free for the whole requested window; null when the search has no window
 }
@@ -1,3 +1,3 @@
 package com.badminton.shop.ws_booking_sport.enums;
 
-public enum PaymentStatus { PENDING, SUCCESS, FAILED, REFUNDED, CANCELLED }
+public enum PaymentStatus { PENDING, SUCCESS, FAILED, REFUNDED, CANCELLED, REFUND_REQUIRED }
@@ -0,0 +1,3 @@
+package com.badminton.shop.ws_booking_sport.enums;
+
+public enum SeriesStatus { ACTIVE, CANCELLED }
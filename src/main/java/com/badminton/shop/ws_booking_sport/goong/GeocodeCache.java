@@ -0,0 +1,169 @@
+package com.badminton.shop.ws_booking_sport.goong;
+
+import com.badminton.shop.ws_booking_sport.model.action.GeocodeCacheEntry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Two-level cache in front of the Goong geocode API:
+ * a bounded in-memory LRU with per-entry expiry, backed by the geocode_cache table so results survive restarts
+ * and are shared between instances. Both positive and negative (address not found) results are cached,
+ * negative ones with a much shorter TTL. Expired rows are deleted daily; keys longer than the query_key column are
+ * stored as a prefix plus the SHA-256 of the whole key.
+ */
+@Component
+public class GeocodeCache {
+
+    private static final Logger log = LoggerFactory.getLogger(GeocodeCache.class);
+
+    private static final int MAX_MEMORY_ENTRIES = 5_000;
+    // length of GeocodeCacheEntry.queryKey
+    static final int MAX_KEY_LENGTH = 512;
+    // '#' + 64 hex digits of the SHA-256
+    private static final int HASH_SUFFIX_LENGTH = 65;
+
+    private final GeocodeCacheRepository geocodeCacheRepository;
+    private final Counter memoryHits;
+    private final Counter dbHits;
+    private final Counter misses;
+
+    @Value("${goong.geocode.cache.ttl-hours:720}")
+    private long ttlHours;
+
+    @Value("${goong.geocode.cache.negative-ttl-minutes:60}")
+    private long negativeTtlMinutes;
+
+    // access-ordered so the least recently used entry is evicted first
+    private final Map<String, Cached> memory = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+            return size() > MAX_MEMORY_ENTRIES;
+        }
+    };
+
+    public GeocodeCache(GeocodeCacheRepository geocodeCacheRepository, MeterRegistry meterRegistry) {
+        this.geocodeCacheRepository = geocodeCacheRepository;
+        this.memoryHits = lookups(meterRegistry, "memory");
+        this.dbHits = lookups(meterRegistry, "db");
+        this.misses = lookups(meterRegistry, "miss");
+    }
+
+    private static Counter lookups(MeterRegistry registry, String source) {
+        return Counter.builder("geocode.cache.lookups")
+                .description("Geocode lookups by the level that answered them (miss = remote call needed)")
+                .tag("source", source)
+                .register(registry);
+    }
+
+    /**
+     * Cached result for the key, or null if it is unknown or expired (the caller should ask Goong).
+     * A cached "not found" is a Hit with a null location.
+     */
+    public Hit get(String key) {
+        long now = System.currentTimeMillis();
+        Cached cached;
+        synchronized (memory) {
+            cached = memory.get(key);
+            if (cached != null && cached.expiresAtMillis <= now) {
+                memory.remove(key);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            memoryHits.increment();
+            return new Hit(cached.location);
+        }
+
+        try {
+            GeocodeCacheEntry entry = geocodeCacheRepository.findById(storageKey(key)).orElse(null);
+            if (entry != null && entry.getExpiresAt() != null && entry.getExpiresAt().isAfter(LocalDateTime.now())) {
+                dbHits.increment();
+                GoongResponse.GoongLocation loc = entry.isFound() ? location(entry.getLatitude(), entry.getLongitude()) : null;
+                remember(key, loc, Duration.between(LocalDateTime.now(), entry.getExpiresAt()).toMillis());
+                return new Hit(loc);
+            }
+        } catch (Exception e) {
+            log.warn("Geocode cache lookup failed for '{}': {}", key, e.getMessage());
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores a remote result (null = address not found) in both levels.
+     */
+    public void put(String key, GoongResponse.GoongLocation location) {
+        Duration ttl = location != null ? Duration.ofHours(ttlHours) : Duration.ofMinutes(negativeTtlMinutes);
+        remember(key, location, ttl.toMillis());
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            geocodeCacheRepository.save(new GeocodeCacheEntry(storageKey(key), location != null,
+                    location != null ? location.getLat() : null, location != null ? location.getLng() : null,
+                    now, now.plus(ttl)));
+        } catch (Exception e) {
+            // a concurrent lookup may have stored the same key; the memory level still has it
+            log.warn("Could not persist geocode result for '{}': {}", key, e.getMessage());
+        }
+    }
+
+    // expired rows are never read again (get ignores them); without this the table only grows
+    @Scheduled(cron = "${goong.geocode.cache.cleanup-cron:0 45 3 * * *}")
+    @Transactional
+    public void deleteExpired() {
+        try {
+            int deleted = geocodeCacheRepository.deleteExpired(LocalDateTime.now());
+            if (deleted > 0) log.info("Deleted {} expired geocode cache entries", deleted);
+        } catch (Exception e) {
+            log.warn("Could not delete expired geocode cache entries: {}", e.getMessage());
+        }
+    }
+
+    // key as stored in geocode_cache: unchanged if it fits the column, else a prefix plus the hash of the whole key
+    static String storageKey(String key) {
+        if (key.length() <= MAX_KEY_LENGTH) return key;
+        return key.substring(0, MAX_KEY_LENGTH - HASH_SUFFIX_LENGTH) + "#" + sha256(key);
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void remember(String key, GoongResponse.GoongLocation location, long ttlMillis) {
+        synchronized (memory) {
+            memory.put(key, new Cached(location, System.currentTimeMillis() + ttlMillis));
+        }
+    }
+
+    private static GoongResponse.GoongLocation location(Double lat, Double lng) {
+        GoongResponse.GoongLocation loc = new GoongResponse.GoongLocation();
+        loc.setLat(lat);
+        loc.setLng(lng);
+        return loc;
+    }
+
+    public record Hit(GoongResponse.GoongLocation location) {
+    }
+
+    private record Cached(GoongResponse.GoongLocation location, long expiresAtMillis) {
+    }
+}
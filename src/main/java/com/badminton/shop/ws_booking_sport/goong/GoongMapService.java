@@ -11,6 +11,8 @@ import org.slf4j.LoggerFactory;
 
 import java.net.URI;
 import java.text.Normalizer;
+import java.time.Duration;
+import java.util.Locale;
 import java.util.regex.Pattern;
 
 @Service
@@ -18,6 +20,9 @@ public class GoongMapService {
 
     private static final Logger logger = LoggerFactory.getLogger(GoongMapService.class);
 
+    // how long a geocode waits for a rate-limit token before giving up (result is then not cached)
+    private static final Duration RATE_LIMIT_WAIT = Duration.ofSeconds(2);
+
     @Value("${goong.api.key}")
     private String apiKey;
 
@@ -25,9 +30,13 @@ public class GoongMapService {
     private String apiUrl;
 
     private final RestTemplate restTemplate;
+    private final GeocodeCache geocodeCache;
+    private final GoongRateLimiter rateLimiter;
 
-    public GoongMapService(RestTemplate restTemplate) {
+    public GoongMapService(RestTemplate restTemplate, GeocodeCache geocodeCache, GoongRateLimiter rateLimiter) {
         this.restTemplate = restTemplate;
+        this.geocodeCache = geocodeCache;
+        this.rateLimiter = rateLimiter;
     }
 
 
@@ -43,41 +52,66 @@ public class GoongMapService {
      * @return Location object chứa lat, lng hoặc null nếu không tìm thấy
      */
     public GoongResponse.GoongLocation getGeoLocation(String address) {
+        if (address == null || address.isBlank()) return null;
+        String key = cacheKey(address);
+        GeocodeCache.Hit hit = geocodeCache.get(key);
+        if (hit != null) return hit.location();
+
         try {
-            // SỬA QUAN TRỌNG: Tạo URI object để tránh lỗi double encoding tiếng Việt
-            String unsignedAddress = removeAccent(address);
+            GoongResponse.GoongLocation loc = fetchGeoLocation(address);
+            geocodeCache.put(key, loc);
+            return loc;
+        } catch (Exception e) {
+            // transient failures are not cached
+            logger.error("Error geocoding address: {}", address, e);
+        }
+        return null;
+    }
+
+    // same address typed with/without accents, other casing or extra spaces shares one cache entry
+    String cacheKey(String address) {
+        return removeAccent(address).toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
 
-            URI uri = UriComponentsBuilder.fromHttpUrl(apiUrl)
-                    .path("/geocode")
-                    .queryParam("address", unsignedAddress) // Gửi địa chỉ không dấu
-                    .queryParam("api_key", apiKey)
-                    .build()
-                    .toUri();
+    // remote call; null when Goong has no result for the address, exception on transport/API errors
+    private GoongResponse.GoongLocation fetchGeoLocation(String address) {
+        // SỬA QUAN TRỌNG: Tạo URI object để tránh lỗi double encoding tiếng Việt
+        String unsignedAddress = removeAccent(address);
 
-            logger.info("Calling Goong API: {}", uri);
-            logger.debug("Unsigned address sent to Goong: {}", unsignedAddress);
+        URI uri = UriComponentsBuilder.fromHttpUrl(apiUrl)
+                .path("/geocode")
+                .queryParam("address", unsignedAddress) // Gửi địa chỉ không dấu
+                .queryParam("api_key", apiKey)
+                .build()
+                .toUri();
 
-            // Gọi API
-            ResponseEntity<GoongResponse> responseEntity = restTemplate.getForEntity(uri, GoongResponse.class);
+        logger.info("Calling Goong API: {}", uri);
+        logger.debug("Unsigned address sent to Goong: {}", unsignedAddress);
 
-            if (responseEntity.getStatusCode().is2xxSuccessful() && responseEntity.getBody() != null) {
-                GoongResponse response = responseEntity.getBody();
+        // Gọi API
+        if (!rateLimiter.tryAcquire(RATE_LIMIT_WAIT)) {
+            throw new IllegalStateException("Goong rate limit exceeded");
+        }
+        ResponseEntity<GoongResponse> responseEntity = restTemplate.getForEntity(uri, GoongResponse.class);
 
-                logger.debug("Full Goong response: {}", response);
+        if (responseEntity.getStatusCode().is2xxSuccessful() && responseEntity.getBody() != null) {
+            GoongResponse response = responseEntity.getBody();
 
-                if ("OK".equals(response.getStatus())
-                        && response.getResults() != null
-                        && !response.getResults().isEmpty()) {
+            logger.debug("Full Goong response: {}", response);
 
-                    GoongResponse.GoongLocation loc = response.getResults().get(0).getGeometry().getLocation();
-                    logger.info(">>> SUCCESS: Coordinates lat={}, lng={}", loc.getLat(), loc.getLng());
-                    return loc;
-                }
-            }
+            if ("OK".equals(response.getStatus())
+                    && response.getResults() != null
+                    && !response.getResults().isEmpty()) {
 
-        } catch (Exception e) {
-            logger.error("Error geocoding address: {}", address, e);
+                GoongResponse.GoongLocation loc = response.getResults().get(0).getGeometry().getLocation();
+                logger.info(">>> SUCCESS: Coordinates lat={}, lng={}", loc.getLat(), loc.getLng());
+                return loc;
+            }
+            if (!"ZERO_RESULTS".equals(response.getStatus()) && !"OK".equals(response.getStatus())) {
+                throw new IllegalStateException("Goong geocode status " + response.getStatus());
+            }
+            return null;
         }
-        return null;
+        throw new IllegalStateException("Goong geocode HTTP " + responseEntity.getStatusCode());
     }
 }
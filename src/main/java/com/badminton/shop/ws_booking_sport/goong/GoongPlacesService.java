@@ -1,5 +1,6 @@
 package com.badminton.shop.ws_booking_sport.goong;
 
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,22 +11,55 @@ import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.*;
 
 @Service
 public class GoongPlacesService {
     private static final Logger logger = LoggerFactory.getLogger(GoongPlacesService.class);
 
+    // cap keywords to avoid excessive external calls
+    private static final int MAX_KEYWORDS = 8;
+    // upper bound for the whole fan-out; keywords still running after this are left out of the result
+    private static final Duration FAN_OUT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration RATE_LIMIT_WAIT = Duration.ofSeconds(3);
+    private static final int MAX_CACHED_QUERIES = 2_000;
+
     @Value("${goong.api.key}")
     private String apiKey;
 
     @Value("${goong.api.url}")
     private String apiUrl;
 
+    @Value("${goong.places.cache-ttl-minutes:10}")
+    private long cacheTtlMinutes;
+
     private final RestTemplate restTemplate;
+    private final GoongMapService goongMapService;
+    private final GoongRateLimiter rateLimiter;
+
+    // blocking RestTemplate calls are cheap on virtual threads, one per keyword
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // single-flight: identical queries running right now share one remote call
+    private final ConcurrentMap<String, CompletableFuture<List<GoongPlacesResponse.Place>>> inFlight = new ConcurrentHashMap<>();
+    // recent results per (rounded location, radius, keyword), least recently used evicted first
+    private final Map<String, CachedPlaces> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedPlaces> eldest) {
+            return size() > MAX_CACHED_QUERIES;
+        }
+    };
 
-    public GoongPlacesService(RestTemplate restTemplate) {
+    public GoongPlacesService(RestTemplate restTemplate, GoongMapService goongMapService, GoongRateLimiter rateLimiter) {
         this.restTemplate = restTemplate;
+        this.goongMapService = goongMapService;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
     }
 
     private String stripTrailingSlashes(String s) {
@@ -35,7 +69,8 @@ public class GoongPlacesService {
 
     /**
      * Search nearby places by lat/lng and radius in kilometers. If keywords is null or empty, do a single call without keyword.
-     * If keywords provided, call nearbysearch once per keyword and merge unique results by place_id.
+     * If keywords provided, nearbysearch runs once per keyword concurrently and unique results are merged by place_id
+     * in keyword order.
      */
     public List<GoongPlacesResponse.Place> searchNearby(double lat, double lng, double radiusKm, List<String> keywords) {
         Map<String, GoongPlacesResponse.Place> uniques = new LinkedHashMap<>();
@@ -59,58 +94,110 @@ public class GoongPlacesService {
             radiusKm = 5.0;
         }
 
-        try {
-            List<String> keysToUse = (keywords == null || keywords.isEmpty()) ? Collections.singletonList(null) : new ArrayList<>(keywords);
-            // cap keywords to avoid excessive external calls
-            int maxKeywords = 8;
-            if (keysToUse.size() > maxKeywords) keysToUse = keysToUse.subList(0, maxKeywords);
-
-            String base = stripTrailingSlashes(apiUrl);
-            String endpoint = base + "/place/nearbysearch";
+        List<String> keysToUse = (keywords == null || keywords.isEmpty()) ? Collections.singletonList(null) : new ArrayList<>(keywords);
+        if (keysToUse.size() > MAX_KEYWORDS) keysToUse = keysToUse.subList(0, MAX_KEYWORDS);
 
-            for (String kw : keysToUse) {
-                // log parameters so troubleshooting shows exactly what was used
-                logger.info("Goong call params: lat={}, lng={}, radiusKm={}, keyword={}", lat, lng, radiusKm, kw);
+        // ~110 m precision: nearby callers share cache entries and in-flight calls
+        double roundedLat = Math.round(lat * 1000) / 1000.0;
+        double roundedLng = Math.round(lng * 1000) / 1000.0;
+        int radiusMeters = (int) Math.round(radiusKm * 1000);
 
-                UriComponentsBuilder b = UriComponentsBuilder.fromUriString(endpoint)
-                        .queryParam("location", lat + "," + lng)
-                        .queryParam("radius", (int) Math.round(radiusKm * 1000))
-                        .queryParam("api_key", apiKey);
+        List<CompletableFuture<List<GoongPlacesResponse.Place>>> calls = new ArrayList<>();
+        for (String kw : keysToUse) {
+            String normalized = (kw == null || kw.isBlank()) ? null : kw.trim().toLowerCase(Locale.ROOT);
+            calls.add(nearby(roundedLat, roundedLng, radiusMeters, normalized));
+        }
 
-                if (kw != null && !kw.isBlank()) {
-                    b = b.queryParam("keyword", kw);
+        long deadline = System.nanoTime() + FAN_OUT_TIMEOUT.toNanos();
+        for (CompletableFuture<List<GoongPlacesResponse.Place>> call : calls) {
+            List<GoongPlacesResponse.Place> places;
+            try {
+                places = call.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                logger.warn("Goong nearbysearch did not finish within {}", FAN_OUT_TIMEOUT);
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                continue;
+            }
+            for (GoongPlacesResponse.Place p : places) {
+                if (p == null) continue;
+                String pid = p.getPlace_id();
+                if (pid == null) {
+                    pid = p.getName() + "@" + (p.getGeometry() != null && p.getGeometry().getLocation() != null ? p.getGeometry().getLocation().getLat() + "," + p.getGeometry().getLocation().getLng() : UUID.randomUUID());
                 }
+                uniques.putIfAbsent(pid, p);
+            }
+        }
+        return new ArrayList<>(uniques.values());
+    }
 
-                // ensure proper encoding
-                URI uri = b.build().encode().toUri();
-                logger.info("Calling Goong nearby places: {}", uri);
-
-                try {
-                    ResponseEntity<GoongPlacesResponse> resp = restTemplate.getForEntity(uri, GoongPlacesResponse.class);
-                    if (resp.getStatusCode().is2xxSuccessful() && resp.getBody() != null && resp.getBody().getResults() != null) {
-                        for (GoongPlacesResponse.Place p : resp.getBody().getResults()) {
-                            if (p == null) continue;
-                            String pid = p.getPlace_id();
-                            if (pid == null) {
-                                pid = p.getName() + "@" + (p.getGeometry() != null && p.getGeometry().getLocation() != null ? p.getGeometry().getLocation().getLat() + "," + p.getGeometry().getLocation().getLng() : UUID.randomUUID());
-                            }
-                            uniques.putIfAbsent(pid, p);
-                        }
-                    }
-                } catch (HttpClientErrorException he) {
-                    logger.warn("Goong nearbysearch returned {} for URI {} ; responseBody={}", he.getStatusCode(), uri, he.getResponseBodyAsString());
-                    // continue with next keyword
-                    continue;
-                } catch (Exception e) {
-                    logger.error("Error calling Goong nearbysearch for URI {}", uri, e);
-                    continue;
+    // cached result, the identical call already running, or a new call on a virtual thread
+    private CompletableFuture<List<GoongPlacesResponse.Place>> nearby(double lat, double lng, int radiusMeters, String keyword) {
+        String key = lat + "," + lng + "|" + radiusMeters + "|" + (keyword == null ? "" : keyword);
+        synchronized (cache) {
+            CachedPlaces cached = cache.get(key);
+            if (cached != null && cached.expiresAtMillis > System.currentTimeMillis()) {
+                return CompletableFuture.completedFuture(cached.places);
+            }
+        }
+        CompletableFuture<List<GoongPlacesResponse.Place>> call = new CompletableFuture<>();
+        CompletableFuture<List<GoongPlacesResponse.Place>> running = inFlight.putIfAbsent(key, call);
+        if (running != null) return running;
+
+        // completion handler is attached outside the map so it may run synchronously without re-entering it
+        call.whenComplete((places, error) -> {
+            inFlight.remove(key, call);
+            if (places != null) {
+                synchronized (cache) {
+                    cache.put(key, new CachedPlaces(places, System.currentTimeMillis() + Duration.ofMinutes(cacheTtlMinutes).toMillis()));
                 }
             }
+        });
+        executor.execute(() -> {
+            try {
+                call.complete(callNearby(lat, lng, radiusMeters, keyword));
+            } catch (RuntimeException e) {
+                call.completeExceptionally(e);
+            }
+        });
+        return call;
+    }
+
+    // one remote nearbysearch; failures are logged and surface as an exceptionally completed call (not cached)
+    private List<GoongPlacesResponse.Place> callNearby(double lat, double lng, int radiusMeters, String keyword) {
+        // log parameters so troubleshooting shows exactly what was used
+        logger.info("Goong call params: lat={}, lng={}, radiusMeters={}, keyword={}", lat, lng, radiusMeters, keyword);
+
+        UriComponentsBuilder b = UriComponentsBuilder.fromUriString(stripTrailingSlashes(apiUrl) + "/place/nearbysearch")
+                .queryParam("location", lat + "," + lng)
+                .queryParam("radius", radiusMeters)
+                .queryParam("api_key", apiKey);
+        if (keyword != null) {
+            b = b.queryParam("keyword", keyword);
+        }
+        // ensure proper encoding
+        URI uri = b.build().encode().toUri();
 
-            return new ArrayList<>(uniques.values());
-        } catch (Exception e) {
-            logger.error("Error preparing Goong nearby search", e);
+        if (!rateLimiter.tryAcquire(RATE_LIMIT_WAIT)) {
+            logger.warn("Goong rate limit exceeded, skipping nearbysearch keyword={}", keyword);
+            throw new IllegalStateException("Goong rate limit exceeded");
+        }
+        logger.info("Calling Goong nearby places: {}", uri);
+        try {
+            ResponseEntity<GoongPlacesResponse> resp = restTemplate.getForEntity(uri, GoongPlacesResponse.class);
+            if (resp.getStatusCode().is2xxSuccessful() && resp.getBody() != null && resp.getBody().getResults() != null) {
+                return resp.getBody().getResults();
+            }
             return Collections.emptyList();
+        } catch (HttpClientErrorException he) {
+            logger.warn("Goong nearbysearch returned {} for URI {} ; responseBody={}", he.getStatusCode(), uri, he.getResponseBodyAsString());
+            throw he;
+        } catch (RuntimeException e) {
+            logger.error("Error calling Goong nearbysearch for URI {}", uri, e);
+            throw e;
         }
     }
 
@@ -120,31 +207,14 @@ public class GoongPlacesService {
      */
     public List<GoongPlacesResponse.Place> searchByArea(String city, String district, List<String> keywords) {
         if ((city == null || city.isBlank()) && (district == null || district.isBlank())) return Collections.emptyList();
-        try {
-            String q = (district != null && !district.isBlank()) ? district + ", " + city : city;
-            String base = stripTrailingSlashes(apiUrl);
-            String geocodeEndpoint = base + "/geocode";
-            URI uri = UriComponentsBuilder.fromUriString(geocodeEndpoint)
-                    .queryParam("address", q)
-                    .queryParam("api_key", apiKey)
-                    .build()
-                    .encode()
-                    .toUri();
-
-            logger.info("Calling Goong geocode: {}", uri);
-            ResponseEntity<GoongResponse> resp = restTemplate.getForEntity(uri, GoongResponse.class);
-            if (resp.getStatusCode().is2xxSuccessful() && resp.getBody() != null) {
-                if ("OK".equals(resp.getBody().getStatus()) && resp.getBody().getResults() != null && !resp.getBody().getResults().isEmpty()) {
-                    GoongResponse.GoongLocation loc = resp.getBody().getResults().get(0).getGeometry().getLocation();
-                    // then call nearbysearch with a reasonable radius (e.g., 20km)
-                    return searchNearby(loc.getLat(), loc.getLng(), 20.0, keywords);
-                }
-            }
-        } catch (HttpClientErrorException he) {
-            logger.warn("Goong geocode returned {} for city/district {} / {} ; body={}", he.getStatusCode(), city, district, he.getResponseBodyAsString());
-        } catch (Exception e) {
-            logger.error("Error calling Goong area search", e);
-        }
-        return Collections.emptyList();
+        String q = (district != null && !district.isBlank()) ? district + ", " + city : city;
+        // geocode goes through the shared geocode cache, so repeated areas cost no remote call
+        GoongResponse.GoongLocation loc = goongMapService.getGeoLocation(q);
+        if (loc == null) return Collections.emptyList();
+        // then call nearbysearch with a reasonable radius (e.g., 20km)
+        return searchNearby(loc.getLat(), loc.getLng(), 20.0, keywords);
+    }
+
+    private record CachedPlaces(List<GoongPlacesResponse.Place> places, long expiresAtMillis) {
     }
 }
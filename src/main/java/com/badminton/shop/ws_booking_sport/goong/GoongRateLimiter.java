@@ -0,0 +1,59 @@
+package com.badminton.shop.ws_booking_sport.goong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Token bucket shared by every Goong API call (geocode and places) so concurrent fan-out stays within the
+ * account quota. Tokens refill continuously at goong.api.rate-per-second up to goong.api.burst.
+ */
+@Component
+public class GoongRateLimiter {
+
+    private final double permitsPerNano;
+    private final double burst;
+
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    public GoongRateLimiter(@Value("${goong.api.rate-per-second:10}") double ratePerSecond,
+                            @Value("${goong.api.burst:20}") double burst) {
+        this.permitsPerNano = ratePerSecond / 1_000_000_000d;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+    }
+
+    /**
+     * Takes one token, waiting up to timeout for it. Returns false (without taking a token) on timeout.
+     */
+    public boolean tryAcquire(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return true;
+                }
+                waitNanos = (long) Math.ceil((1 - tokens) / permitsPerNano);
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return false;
+            try {
+                Thread.sleep(Duration.ofNanos(Math.min(waitNanos, remaining)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+}
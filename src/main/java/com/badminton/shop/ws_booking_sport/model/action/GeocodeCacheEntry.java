@@ -0,0 +1,32 @@
+package com.badminton.shop.ws_booking_sport.model.action;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted Goong geocode result keyed by the normalized (accent-free, lower-case) address; addresses longer than
+ * the column are shortened to a prefix plus their SHA-256 (GeocodeCache.storageKey).
+ * found = false records a negative result so unknown addresses are not re-queried until the entry expires.
+ */
+@Entity
+@Table(name = "geocode_cache")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeocodeCacheEntry {
+
+    @Id
+    @Column(length = 512)
+    private String queryKey;
+
+    private boolean found;
+    private Double latitude;
+    private Double longitude;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,62 @@
+package com.badminton.shop.ws_booking_sport.model.action;
+
+import com.badminton.shop.ws_booking_sport.enums.NotificationType;
+import com.badminton.shop.ws_booking_sport.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Side effect of a booking state change, written in the same transaction as the change and delivered later by
+ * OutboxRelay. Each channel is optional: a customer notification (+ email), an owner notification and a STOMP
+ * push of payload to /topic/venue.{venueId}.bookings.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    private String eventType; // BOOKING_CREATED, PAYMENT_CONFIRMED, ...
+
+    @Enumerated(EnumType.STRING)
+    private NotificationType notificationType;
+
+    private String referenceType;
+    private String referenceId;
+
+    private Integer customerId;
+    private String customerTitle;
+    @Column(length = 1000)
+    private String customerMessage;
+    private boolean emailCustomer;
+
+    private Integer ownerId;
+    private String ownerTitle;
+    @Column(length = 1000)
+    private String ownerMessage;
+
+    private Integer venueId;
+    @Column(columnDefinition = "TEXT")
+    private String payload; // JSON pushed to the venue topic
+
+    @Enumerated(EnumType.STRING)
+    private OutboxStatus status;
+
+    private int attempts;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime createdAt;
+    private LocalDateTime processedAt;
+    // delivery steps already done, so a retry after a failed email does not duplicate the notification rows
+    private LocalDateTime notifiedAt;
+    private LocalDateTime emailSentAt;
+    @Column(length = 1000)
+    private String lastError;
+}
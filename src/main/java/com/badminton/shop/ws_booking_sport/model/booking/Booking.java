@@ -11,6 +11,12 @@ import java.util.List;
 
 
 @Entity
+@Table(indexes = {
+        // due-time queue for HoldExpirySweeper
+        @Index(name = "idx_booking_status_expires_at", columnList = "status, expires_at"),
+        // keyset-paged booking history per customer
+        @Index(name = "idx_booking_customer_created", columnList = "customer_id, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,12 +38,18 @@ public class Booking {
     @OneToOne(mappedBy = "booking", cascade = CascadeType.ALL)
     private Payment payment;
 
+    // set when the booking is an occurrence materialized from a recurring series
+    @ManyToOne
+    private BookingSeries series;
+
     @Enumerated(EnumType.STRING)
     private BookingStatus status;
 
     private double totalPrice;
     private String cancelReason;
     private LocalDateTime bookedAt;
+    // unpaid online holds are cancelled (and their slots released) after this time; null = no expiry
+    private LocalDateTime expiresAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
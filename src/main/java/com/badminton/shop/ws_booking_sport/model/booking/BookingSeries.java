@@ -0,0 +1,76 @@
+package com.badminton.shop.ws_booking_sport.model.booking;
+
+import com.badminton.shop.ws_booking_sport.enums.SeriesStatus;
+import com.badminton.shop.ws_booking_sport.model.core.Customer;
+import com.badminton.shop.ws_booking_sport.model.venue.Field;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Recurring booking ("every Tuesday 18:00-20:00 until ..."), i.e. FREQ=WEEKLY;BYDAY=dayOfWeek;INTERVAL=intervalWeeks.
+ * Occurrences are materialized into Booking/Slot rows only up to a rolling horizon (see materializedThrough);
+ * later occurrences are claimed by the series itself.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_booking_series_field_day", columnList = "field_id, day_of_week, status")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSeries {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @ManyToOne
+    private Customer customer;
+
+    @ManyToOne
+    private Field field;
+
+    @Enumerated(EnumType.STRING)
+    private DayOfWeek dayOfWeek;
+    private int intervalWeeks;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private LocalDate startDate;
+    private LocalDate untilDate;
+
+    // last date for which occurrences have been written as Booking/Slot rows (null = none yet)
+    private LocalDate materializedThrough;
+
+    private String paymentMethod;
+    private String paymentProvider;
+
+    @Enumerated(EnumType.STRING)
+    private SeriesStatus status;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public LocalDate firstOccurrence() {
+        return startDate.with(TemporalAdjusters.nextOrSame(dayOfWeek));
+    }
+
+    public boolean occursOn(LocalDate date) {
+        if (date == null || date.getDayOfWeek() != dayOfWeek) return false;
+        LocalDate first = firstOccurrence();
+        if (date.isBefore(first) || date.isAfter(untilDate)) return false;
+        return ChronoUnit.WEEKS.between(first, date) % Math.max(1, intervalWeeks) == 0;
+    }
+
+    // true if this series owns [start, end) on the field at a date it has not materialized as slot rows yet
+    public boolean claims(Integer fieldId, LocalDate date, LocalTime start, LocalTime end) {
+        if (field == null || !field.getId().equals(fieldId)) return false;
+        if (materializedThrough != null && !date.isAfter(materializedThrough)) return false;
+        return occursOn(date) && startTime.isBefore(end) && endTime.isAfter(start);
+    }
+}
@@ -5,13 +5,19 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = {
+        // chat history pages: (room, sent_at, id) keyset in both directions
+        @Index(name = "idx_message_room_sent", columnList = "chat_room_id, sent_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Message {
 
+    // assigned by MessageIdAllocator before the message is broadcast (sequence, blocks of 50)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "message_seq")
+    @SequenceGenerator(name = "message_seq", sequenceName = "message_seq", allocationSize = 50)
     private Integer id;
 
     @ManyToOne
@@ -20,6 +26,7 @@ public class Message {
 
     private Integer senderId; // was String
     private String senderRole;
+    @Column(columnDefinition = "text")
     private String content;
     private LocalDateTime sentAt;
     private boolean isRead;
@@ -0,0 +1,29 @@
+package com.badminton.shop.ws_booking_sport.model.chat;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Highest journal sequence of a MessageSaveQueue partition whose messages are stored in the message table.
+ * Written in the same transaction as the message batch, so a journal replay never inserts a message twice.
+ * journalKey = "{journal id of the node}:{partition}".
+ */
+@Entity
+@Table(name = "message_journal_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageJournalCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String journalKey;
+
+    private Long seq;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,25 @@
+package com.badminton.shop.ws_booking_sport.model.venue;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single row (id = 1) holding the Last-Modified time of the venue catalog (venue_card). The version itself is
+ * the venue_catalog_seq sequence; both are advanced after each card write commits (see VenueCatalogVersion).
+ */
+@Entity
+@Table(name = "venue_catalog_version")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+
+    @Id
+    private Integer id;
+
+    private LocalDateTime updatedAt;
+}
@@ -5,6 +5,9 @@ import lombok.*;
 import java.time.LocalTime;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_price_rule_field", columnList = "field_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,7 +16,8 @@ public class PriceRule {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    private int dayOfWeek;
+    private int dayOfWeek; // 1=Monday .. 7=Sunday (java.time.DayOfWeek#getValue)
+    // [startTime, endTime); endTime 00:00 means end of day
     private LocalTime startTime;
     private LocalTime endTime;
     private double pricePerHour;
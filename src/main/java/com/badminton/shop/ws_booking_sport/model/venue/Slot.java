@@ -5,15 +5,22 @@ import com.badminton.shop.ws_booking_sport.enums.SlotStatus;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
+@Table(indexes = {
+        // per-field/day occupancy lookups (availability, availability-aware search)
+        @Index(name = "idx_slot_field_date_status", columnList = "field_id, date, status")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Slot {
+    // sequence (not IDENTITY) so slot inserts can be JDBC-batched; ids are handed out in blocks of 50
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "slot_seq")
+    @SequenceGenerator(name = "slot_seq", sequenceName = "slot_seq", allocationSize = 50)
     private Integer id;
 
     private LocalDate date;
@@ -25,6 +32,9 @@ public class Slot {
 
     private double finalPrice;
 
+    // last insert or status change; feeds the venue day sheet's version (FieldRepository.findScheduleVersion)
+    private LocalDateTime updatedAt;
+
     @ManyToOne
     private Field field;
 }
@@ -4,12 +4,16 @@ import com.badminton.shop.ws_booking_sport.model.core.Address;
 import com.badminton.shop.ws_booking_sport.model.core.Owner;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalTime;
 import java.time.LocalDateTime;
 import java.util.List;
 
 
+// updates write only the changed columns, so saving a venue edit never overwrites the rating aggregates that
+// review writes maintain with their own UPDATE (VenueRepository.applyRatingDelta)
 @Entity
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,7 +24,10 @@ public class Venue {
 
     private String name;
     private String description;
+    // average review rating = ratingSum / ratingCount, maintained on review writes (see VenueRatingService)
     private float rating;
+    private Long ratingSum;
+    private Integer ratingCount;
     private String sport;
     @Embedded
     private Address address;
@@ -0,0 +1,50 @@
+package com.badminton.shop.ws_booking_sport.model.venue;
+
+import com.badminton.shop.ws_booking_sport.model.core.Address;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Denormalized list view of a Venue (one row per venue, same id) holding everything list/favorite endpoints
+ * render, so a page is one indexed query with no image collection or owner loads.
+ * Written by VenueCardService in the same transaction as the venue, image or rating change.
+ */
+@Entity
+@Table(name = "venue_card", indexes = {
+        @Index(name = "idx_venue_card_owner", columnList = "owner_id"),
+        @Index(name = "idx_venue_card_created", columnList = "created_at, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VenueCard {
+
+    @Id
+    private Integer id;
+
+    private String name;
+    private String description;
+    private String sport;
+    @Embedded
+    private Address address;
+    private LocalTime timeOpen;
+    private LocalTime timeClose;
+    @Column(length = 1024)
+    private String mainImageUrl;
+    private float rating;
+    private Double pricePerHour;
+    @Column(name = "owner_id")
+    private Integer ownerId;
+
+    // accent-folded, lower-case name/sport/district/city for text search (trigram index, see VenueSchemaInitializer)
+    @Column(length = 1024)
+    private String searchText;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.badminton.shop.ws_booking_sport.notification.repository;
+
+import com.badminton.shop.ws_booking_sport.model.action.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, String> {
+
+    // Ids of PENDING events that are due, oldest first
+    @Query("SELECT e.id FROM OutboxEvent e WHERE e.status = com.badminton.shop.ws_booking_sport.enums.OutboxStatus.PENDING " +
+            "AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt")
+    List<String> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Lock one event for delivery; returns empty if another relay instance holds it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.id = :id")
+    Optional<OutboxEvent> findByIdForDelivery(@Param("id") String id);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = com.badminton.shop.ws_booking_sport.enums.OutboxStatus.SENT AND e.processedAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
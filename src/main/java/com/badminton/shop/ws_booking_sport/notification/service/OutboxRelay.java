@@ -0,0 +1,178 @@
+package com.badminton.shop.ws_booking_sport.notification.service;
+
+import com.badminton.shop.ws_booking_sport.core.repository.AccountRepository;
+import com.badminton.shop.ws_booking_sport.core.service.EmailService;
+import com.badminton.shop.ws_booking_sport.enums.OutboxStatus;
+import com.badminton.shop.ws_booking_sport.enums.RecipientType;
+import com.badminton.shop.ws_booking_sport.model.action.OutboxEvent;
+import com.badminton.shop.ws_booking_sport.model.core.Account;
+import com.badminton.shop.ws_booking_sport.notification.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drains the outbox: due events are read in batches and each one is delivered in its own transaction
+ * (notification rows), then emailed and pushed to /topic/venue.{venueId}.bookings after commit, so no SMTP call
+ * runs while the event row is locked. Notification rows and the email are recorded on the event (notifiedAt,
+ * emailSentAt), so a retry only repeats the steps that have not completed.
+ * A failing event is retried with exponential backoff and marked FAILED after MAX_ATTEMPTS; it never blocks the
+ * other events of the batch. Delivery is at-least-once.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final int MAX_ATTEMPTS = 8;
+    private static final int MAX_BATCHES_PER_RUN = 20;
+    private static final int SENT_RETENTION_DAYS = 7;
+    // an event whose email is being sent is not due for this long, so other relay instances leave it alone;
+    // well above the SMTP connect/read/write timeouts
+    private static final int EMAIL_LEASE_SECONDS = 120;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final NotificationService notificationService;
+    private final EmailService emailService;
+    private final AccountRepository accountRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // committed delivery step; emailTo is set if the email still has to be sent
+    private record Delivery(OutboxEvent event, String emailTo) {
+    }
+
+    @Value("${outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}")
+    public void drain() {
+        for (int i = 0; i < MAX_BATCHES_PER_RUN; i++) {
+            List<String> ids = outboxEventRepository.findDueIds(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            for (String id : ids) {
+                deliver(id);
+            }
+            if (ids.size() < batchSize) break;
+        }
+    }
+
+    @Scheduled(cron = "${outbox.relay.cleanup-cron:0 30 3 * * *}")
+    public void deleteDelivered() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteSentBefore(LocalDateTime.now().minusDays(SENT_RETENTION_DAYS)));
+        if (deleted != null && deleted > 0) log.info("Deleted {} delivered outbox events", deleted);
+    }
+
+    private void deliver(String id) {
+        Delivery delivery;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            // re-checked under the lock: another instance may have leased the event since findDueIds
+            delivery = transactionTemplate.execute(status -> outboxEventRepository.findByIdForDelivery(id)
+                    .filter(e -> e.getStatus() == OutboxStatus.PENDING)
+                    .filter(e -> e.getNextAttemptAt() == null || !e.getNextAttemptAt().isAfter(now))
+                    .map(this::deliverInTransaction)
+                    .orElse(null));
+        } catch (Exception ex) {
+            recordFailure(id, ex);
+            return;
+        }
+        if (delivery == null) return;
+        OutboxEvent delivered = delivery.event();
+        if (delivery.emailTo() != null) {
+            try {
+                emailService.sendNotification(delivery.emailTo(), delivered.getCustomerTitle(), delivered.getCustomerMessage());
+                // if this commit fails the email is sent again on retry
+                delivered = transactionTemplate.execute(status ->
+                        markSent(outboxEventRepository.findById(id).orElseThrow(), true));
+            } catch (Exception ex) {
+                recordFailure(id, ex);
+                return;
+            }
+        }
+        meterRegistry.counter("outbox.events.delivered", "type", String.valueOf(delivered.getEventType())).increment();
+
+        // websocket push is best effort and happens only once the delivery is committed
+        if (delivered.getVenueId() != null && delivered.getPayload() != null) {
+            try {
+                Object payload = objectMapper.readValue(delivered.getPayload(), Map.class);
+                messagingTemplate.convertAndSend("/topic/venue." + delivered.getVenueId() + ".bookings", payload);
+            } catch (Exception ex) {
+                log.warn("Failed to push outbox event {} to venue {}: {}", id, delivered.getVenueId(), ex.getMessage());
+            }
+        }
+    }
+
+    // writes the notification rows (once per event); the event is SENT here unless an email is still due, in which
+    // case it is leased for the send that follows the commit
+    private Delivery deliverInTransaction(OutboxEvent e) {
+        if (e.getNotifiedAt() == null) {
+            if (e.getCustomerId() != null && e.getCustomerTitle() != null) {
+                notificationService.createNotification(String.valueOf(e.getCustomerId()), RecipientType.USER, e.getNotificationType(),
+                        e.getCustomerTitle(), e.getCustomerMessage(), e.getReferenceType(), e.getReferenceId());
+            }
+            if (e.getOwnerId() != null && e.getOwnerTitle() != null) {
+                notificationService.createNotification(String.valueOf(e.getOwnerId()), RecipientType.OWNER, e.getNotificationType(),
+                        e.getOwnerTitle(), e.getOwnerMessage(), e.getReferenceType(), e.getReferenceId());
+            }
+            e.setNotifiedAt(LocalDateTime.now());
+        }
+        String emailTo = null;
+        if (e.isEmailCustomer() && e.getCustomerId() != null && e.getEmailSentAt() == null) {
+            String to = accountRepository.findByUserId(e.getCustomerId()).map(Account::getEmail).orElse(null);
+            if (to != null && !to.isBlank()) emailTo = to;
+        }
+        if (emailTo == null) return new Delivery(markSent(e, false), null);
+        e.setNextAttemptAt(LocalDateTime.now().plusSeconds(EMAIL_LEASE_SECONDS));
+        return new Delivery(outboxEventRepository.save(e), emailTo);
+    }
+
+    private OutboxEvent markSent(OutboxEvent e, boolean emailSent) {
+        LocalDateTime now = LocalDateTime.now();
+        if (emailSent) e.setEmailSentAt(now);
+        e.setAttempts(e.getAttempts() + 1);
+        e.setStatus(OutboxStatus.SENT);
+        e.setProcessedAt(now);
+        e.setLastError(null);
+        return outboxEventRepository.save(e);
+    }
+
+    private void recordFailure(String id, Exception cause) {
+        log.warn("Outbox event {} delivery failed: {}", id, cause.getMessage());
+        meterRegistry.counter("outbox.events.failed").increment();
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.findById(id).ifPresent(e -> {
+                int attempts = e.getAttempts() + 1;
+                e.setAttempts(attempts);
+                String message = String.valueOf(cause.getMessage());
+                e.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+                if (attempts >= MAX_ATTEMPTS) {
+                    e.setStatus(OutboxStatus.FAILED);
+                    e.setProcessedAt(LocalDateTime.now());
+                    log.error("Outbox event {} ({}) gave up after {} attempts", id, e.getEventType(), attempts);
+                } else {
+                    // 2s, 4s, 8s, ... capped at ~4 minutes
+                    e.setNextAttemptAt(LocalDateTime.now().plusSeconds(1L << Math.min(attempts, 8)));
+                }
+                outboxEventRepository.save(e);
+            }));
+        } catch (Exception ex) {
+            log.error("Could not record failure of outbox event {}", id, ex);
+        }
+    }
+}
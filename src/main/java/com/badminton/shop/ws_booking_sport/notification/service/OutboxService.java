@@ -0,0 +1,40 @@
+package com.badminton.shop.ws_booking_sport.notification.service;
+
+import com.badminton.shop.ws_booking_sport.enums.OutboxStatus;
+import com.badminton.shop.ws_booking_sport.model.action.OutboxEvent;
+import com.badminton.shop.ws_booking_sport.notification.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    // must join the transaction of the state change it describes, so both commit or neither does
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent publish(OutboxEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        event.setStatus(OutboxStatus.PENDING);
+        event.setAttempts(0);
+        event.setCreatedAt(now);
+        event.setNextAttemptAt(now);
+        return outboxEventRepository.save(event);
+    }
+
+    public String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+    }
+}
@@ -127,4 +127,24 @@ public class JwtService {
             return false;
         }
     }
+
+    // user id (token subject) from an "Authorization: Bearer <token>" header, for endpoints that read it themselves
+    public int requireUserId(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            throw new IllegalArgumentException("Authorization header with Bearer token is required");
+        }
+        String token = authorizationHeader.substring(7);
+        if (!isTokenValid(token)) {
+            throw new IllegalArgumentException("Invalid or expired token");
+        }
+        String subject = extractSubject(token);
+        if (subject == null || subject.isBlank()) {
+            throw new IllegalArgumentException("Token does not contain user id");
+        }
+        try {
+            return Integer.parseInt(subject);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid user id in token subject");
+        }
+    }
 }
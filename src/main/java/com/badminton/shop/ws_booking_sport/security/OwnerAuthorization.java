@@ -0,0 +1,47 @@
+package com.badminton.shop.ws_booking_sport.security;
+
+import com.badminton.shop.ws_booking_sport.core.repository.AccountRepository;
+import com.badminton.shop.ws_booking_sport.enums.Role;
+import com.badminton.shop.ws_booking_sport.model.core.Account;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the account behind a Bearer token for owner-only endpoints (venues, fields, facilities, prices).
+ * Callers still check that the account owns the venue it is changing; admins may change any venue.
+ */
+@Component
+@RequiredArgsConstructor
+public class OwnerAuthorization {
+
+    private final JwtService jwtService;
+    private final AccountRepository accountRepository;
+
+    public Account requireOwnerOrAdmin(String authorizationHeader) {
+        if (authorizationHeader == null || authorizationHeader.isBlank()) {
+            throw new IllegalArgumentException("Authorization header is required");
+        }
+        if (!authorizationHeader.startsWith("Bearer ")) {
+            throw new IllegalArgumentException("Invalid Authorization header");
+        }
+        String token = authorizationHeader.substring(7);
+        if (!jwtService.isTokenValid(token)) {
+            throw new IllegalArgumentException("Invalid or expired token");
+        }
+
+        String email = jwtService.extractEmail(token);
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("Token does not contain email");
+        }
+
+        Account account = accountRepository.findByEmail(email)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
+
+        if (account.getRole() != Role.OWNER && account.getRole() != Role.ADMIN) {
+            throw new AccessDeniedException("Only owners or admins are allowed to perform this action");
+        }
+
+        return account;
+    }
+}
@@ -44,6 +44,9 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
 
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        // metrics/prometheus expose request rates, booking counters and JVM internals
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                     .requestMatchers(
                         "/",
                         "/error",
@@ -52,7 +55,6 @@ public class SecurityConfig {
                         "/api/auth/login",
                         "/api/auth/refresh",
                         "/api/auth/verify/**",
-                        "/actuator/**",
                         "/api/auth/**",
                         "/swagger-ui.html",
                         "/swagger-ui/**",
@@ -1,27 +1,81 @@
 package com.badminton.shop.ws_booking_sport.venue.controller;
 
+import com.badminton.shop.ws_booking_sport.dto.request.CreatePriceRuleRequest;
+import com.badminton.shop.ws_booking_sport.dto.request.UpdatePriceRuleRequest;
 import com.badminton.shop.ws_booking_sport.dto.response.DataResponse;
+import com.badminton.shop.ws_booking_sport.dto.response.PriceQuoteResponse;
+import com.badminton.shop.ws_booking_sport.dto.response.PriceRuleResponse;
+import com.badminton.shop.ws_booking_sport.venue.service.PriceRuleService;
+import com.badminton.shop.ws_booking_sport.venue.service.PricingEngine;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 public class PriceRuleController {
 
-    // PriceRule API removed; price is now stored at Venue level (venue.pricePerHour)
-    private static final String MESSAGE = "PriceRule API removed. Use Venue.pricePerHour instead.";
+    // Time-of-day / weekday price rules of a field; Venue.pricePerHour applies wherever no rule matches
+    private final PriceRuleService priceRuleService;
+    private final PricingEngine pricingEngine;
+
+    // list price rules of a field (public)
+    @GetMapping("/api/fields/{fieldId}/pricerules")
+    public ResponseEntity<DataResponse> listByField(@PathVariable Integer fieldId) {
+        List<PriceRuleResponse> list = priceRuleService.listByField(fieldId);
+        DataResponse body = DataResponse.success(list, "Price rules fetched", HttpStatus.OK.value());
+        return ResponseEntity.ok(body);
+    }
+
+    // create a price rule (owner/admin)
+    @PostMapping("/api/fields/{fieldId}/pricerules")
+    public ResponseEntity<DataResponse> createRule(@PathVariable Integer fieldId, @RequestBody CreatePriceRuleRequest req, HttpServletRequest request) {
+        PriceRuleResponse resp = priceRuleService.createRule(fieldId, req, request.getHeader("Authorization"));
+        DataResponse body = DataResponse.success(resp, "Price rule created", HttpStatus.CREATED.value());
+        return ResponseEntity.status(HttpStatus.CREATED).body(body);
+    }
+
+    @GetMapping("/api/pricerules/{id}")
+    public ResponseEntity<DataResponse> getRule(@PathVariable Integer id) {
+        PriceRuleResponse resp = priceRuleService.getRule(id);
+        DataResponse body = DataResponse.success(resp, "Price rule fetched", HttpStatus.OK.value());
+        return ResponseEntity.ok(body);
+    }
+
+    // update a price rule (owner/admin)
+    @PutMapping("/api/pricerules/{id}")
+    public ResponseEntity<DataResponse> updateRule(@PathVariable Integer id, @RequestBody UpdatePriceRuleRequest req, HttpServletRequest request) {
+        PriceRuleResponse resp = priceRuleService.updateRule(id, req, request.getHeader("Authorization"));
+        DataResponse body = DataResponse.success(resp, "Price rule updated", HttpStatus.OK.value());
+        return ResponseEntity.ok(body);
+    }
 
-    @RequestMapping(value = "/api/fields/{fieldId}/pricerules", method = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
-    public ResponseEntity<DataResponse> unavailableForField(@PathVariable(required = false) Integer fieldId) {
-        DataResponse body = DataResponse.success(null, MESSAGE, HttpStatus.GONE.value());
-        return ResponseEntity.status(HttpStatus.GONE).body(body);
+    // delete a price rule (owner/admin)
+    @DeleteMapping("/api/pricerules/{id}")
+    public ResponseEntity<DataResponse> deleteRule(@PathVariable Integer id, HttpServletRequest request) {
+        String resp = priceRuleService.deleteRule(id, request.getHeader("Authorization"));
+        DataResponse body = DataResponse.success(null, resp, HttpStatus.OK.value());
+        return ResponseEntity.ok(body);
     }
 
-    @RequestMapping(value = "/api/pricerules/{id}", method = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
-    public ResponseEntity<DataResponse> unavailableForId(@PathVariable(required = false) Integer id) {
-        DataResponse body = DataResponse.success(null, MESSAGE, HttpStatus.GONE.value());
-        return ResponseEntity.status(HttpStatus.GONE).body(body);
+    // GET /api/fields/{id}/price-quote?date=2025-01-01&startTime=18:00&endTime=20:00
+    // served from the compiled price table (no DB access once the field is cached)
+    @GetMapping("/api/fields/{id}/price-quote")
+    public ResponseEntity<DataResponse> priceQuote(
+            @PathVariable Integer id,
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam("startTime") @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime startTime,
+            @RequestParam("endTime") @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime endTime
+    ) {
+        PriceQuoteResponse quote = pricingEngine.quote(id, date, startTime, endTime);
+        DataResponse body = DataResponse.success(quote, "Price quote computed", HttpStatus.OK.value());
+        return ResponseEntity.ok(body);
     }
 }
@@ -8,15 +8,21 @@ import com.badminton.shop.ws_booking_sport.dto.response.VenueResponse;
 import com.badminton.shop.ws_booking_sport.dto.response.DataResponse;
 import com.badminton.shop.ws_booking_sport.dto.response.FieldResponse;
 import com.badminton.shop.ws_booking_sport.dto.response.VenueDetailResponse;
+import com.badminton.shop.ws_booking_sport.dto.response.VenueScheduleResponse;
+import com.badminton.shop.ws_booking_sport.venue.service.VenueScheduleService;
 import com.badminton.shop.ws_booking_sport.venue.service.VenueService;
 import com.badminton.shop.ws_booking_sport.dto.response.ReviewResponse;
 import com.badminton.shop.ws_booking_sport.security.JwtService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -25,6 +31,7 @@ import java.util.List;
 public class VenueController {
 
     private final VenueService venueService;
+    private final VenueScheduleService venueScheduleService;
     private final JwtService jwtService; // Need this to extract user ID for favorites
 
     @PostMapping
@@ -41,6 +48,22 @@ public class VenueController {
         return ResponseEntity.ok(body);
     }
 
+    // day sheet for owner/admin dashboards: all fields x 5-minute occupancy cells; pollers send If-None-Match to get
+    // 304, which is decided from a version query before the sheet is built
+    @GetMapping("/{id}/schedule")
+    public ResponseEntity<DataResponse> getSchedule(@PathVariable Integer id,
+                                                    @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                    WebRequest webRequest, HttpServletRequest request) {
+        venueScheduleService.requireScheduleAccess(id, request.getHeader("Authorization"));
+        String etag = venueScheduleService.etag(id, date);
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+        VenueScheduleResponse resp = venueScheduleService.getSchedule(id, date);
+        DataResponse body = DataResponse.success(resp, "Venue schedule fetched", HttpStatus.OK.value());
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(body);
+    }
+
     @GetMapping("/sport/{sportName}")
     public ResponseEntity<DataResponse> getVenuesBySport(@PathVariable String sportName) {
         List<VenueResponse> resp = venueService.getVenuesBySport(sportName);
@@ -1,14 +1,18 @@
 package com.badminton.shop.ws_booking_sport.venue.controller;
 
 import com.badminton.shop.ws_booking_sport.dto.response.DataResponse;
+import com.badminton.shop.ws_booking_sport.dto.response.VenueResponse;
 import com.badminton.shop.ws_booking_sport.dto.response.VenuesResponse;
 import com.badminton.shop.ws_booking_sport.model.action.AreaSearchFilter;
 import com.badminton.shop.ws_booking_sport.model.action.LocationSearchFilter;
 import com.badminton.shop.ws_booking_sport.model.action.SearchFilter;
+import com.badminton.shop.ws_booking_sport.venue.service.VenueCardService;
+import com.badminton.shop.ws_booking_sport.venue.service.VenueCatalogVersion;
 import com.badminton.shop.ws_booking_sport.venue.service.VenueSearchService;
 import com.badminton.shop.ws_booking_sport.venue.service.VenueService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +22,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -28,11 +33,16 @@ import java.util.Map;
 public class VenueSearchController {
     private final VenueSearchService venueSearchService;
     private final VenueService venueService;
+    private final VenueCardService venueCardService;
+    private final VenueCatalogVersion venueCatalogVersion;
     private final ObjectMapper objectMapper;
 
+    // page is 1-based like the listing below; size is capped at VenueSearchService.MAX_PAGE_SIZE
     @PostMapping(value = "/search", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> search(@RequestBody Map<String, Object> body,
-                                    @RequestParam(value = "debug", required = false, defaultValue = "false") boolean debug) {
+                                    @RequestParam(value = "debug", required = false, defaultValue = "false") boolean debug,
+                                    @RequestParam(value = "page", required = false, defaultValue = "1") int page,
+                                    @RequestParam(value = "size", required = false, defaultValue = "20") int size) {
         // decide which filter type to build
         SearchFilter filter;
         if (body.containsKey("latitude") || body.containsKey("longitude")) {
@@ -49,29 +59,57 @@ public class VenueSearchController {
             return ResponseEntity.ok(debugResp);
         }
 
-        List<VenuesResponse> results = venueSearchService.search(filter);
+        List<VenuesResponse> results = venueSearchService.search(filter, Math.max(1, page) - 1, size);
         return ResponseEntity.ok(results);
     }
 
+    // accent-insensitive, typo-tolerant search over venue name, sport, district and city
+    @GetMapping("/search/text")
+    public ResponseEntity<DataResponse> searchText(@RequestParam("q") String q,
+                                                   @RequestParam(value = "limit", required = false, defaultValue = "20") int limit) {
+        List<VenueResponse> results = venueCardService.searchText(q, limit);
+        DataResponse body = DataResponse.success(results, "Venues found", HttpStatus.OK.value());
+        return ResponseEntity.ok(body);
+    }
+
     // New: paginated list of venues
-    // NOTE: Accept `page` as 1-based for FE convenience. Defaults: page=1, size=10
+    // With ?cursor= (empty for the first page) the list is keyset-paged newest first and returns nextCursor;
+    // otherwise the legacy 1-based page/size Page response is kept for existing clients. Defaults: page=1, size=10
+    // Both are validated by the shared catalog version, so unchanged polls get 304 after one sequence read.
     @GetMapping
     public ResponseEntity<DataResponse> listPaginated(
+            @RequestParam(value = "cursor", required = false) String cursor,
             @RequestParam(value = "page", required = false, defaultValue = "1") int page,
-            @RequestParam(value = "size", required = false, defaultValue = "10") int size) {
-        // Convert FE-friendly 1-based page -> service 0-based page index
-        int pageIndex = Math.max(1, page) - 1;
+            @RequestParam(value = "size", required = false, defaultValue = "10") int size,
+            WebRequest webRequest) {
         int safeSize = Math.max(1, size);
+        VenueCatalogVersion.Snapshot version = venueCatalogVersion.current();
+        String etag = version != null
+                ? "\"" + version.tag() + "-" + (cursor != null ? "c" + cursor : "p" + page) + "-" + safeSize + "\"" : null;
+        long lastModified = version != null ? version.lastModifiedMillis() : -1;
+        if (etag != null && webRequest.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).lastModified(lastModified)
+                    .cacheControl(CacheControl.noCache()).build();
+        }
 
-        var paged = venueService.listPaginated(pageIndex, safeSize);
+        Object paged;
+        if (cursor != null) {
+            paged = venueCardService.listPage(cursor, safeSize);
+        } else {
+            // Convert FE-friendly 1-based page -> service 0-based page index
+            int pageIndex = Math.max(1, page) - 1;
+            var offsetPage = venueService.listPaginated(pageIndex, safeSize);
 
-        // If requested page is out of range but there are results, return last page instead of empty
-        if ((paged.getContent() == null || paged.getContent().isEmpty()) && paged.getTotalElements() > 0 && pageIndex > 0) {
-            int lastPage = Math.max(0, paged.getTotalPages() - 1);
-            paged = venueService.listPaginated(lastPage, safeSize);
+            // If requested page is out of range but there are results, return last page instead of empty
+            if ((offsetPage.getContent() == null || offsetPage.getContent().isEmpty()) && offsetPage.getTotalElements() > 0 && pageIndex > 0) {
+                int lastPage = Math.max(0, offsetPage.getTotalPages() - 1);
+                offsetPage = venueService.listPaginated(lastPage, safeSize);
+            }
+            paged = offsetPage;
         }
 
         DataResponse body = DataResponse.success(paged, "Venues fetched", HttpStatus.OK.value());
-        return ResponseEntity.ok(body);
+        if (etag == null) return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(body);
+        return ResponseEntity.ok().eTag(etag).lastModified(lastModified).cacheControl(CacheControl.noCache()).body(body);
     }
 }
@@ -1,13 +1,38 @@
 package com.badminton.shop.ws_booking_sport.venue.repository;
 
 import com.badminton.shop.ws_booking_sport.model.venue.Field;
+import com.badminton.shop.ws_booking_sport.enums.SlotStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @Repository
 public interface FieldRepository extends JpaRepository<Field, Integer> {
     List<Field> findByVenueId(Integer venueId);
+
+    // Every field of a venue with its occupying slots on one date, in a single query (day sheet)
+    @Query("SELECT f.id AS fieldId, f.name AS fieldName, s.startTime AS startTime, s.endTime AS endTime, s.status AS status " +
+            "FROM Field f LEFT JOIN Slot s ON s.field = f AND s.date = :date AND s.status IN :statuses " +
+            "WHERE f.venue.id = :venueId ORDER BY f.id, s.startTime")
+    List<VenueScheduleRow> findDaySchedule(@Param("venueId") Integer venueId, @Param("date") LocalDate date,
+                                           @Param("statuses") List<SlotStatus> statuses);
+
+    // Cheap change marker for that day sheet: the venue's slot rows on the date (count, occupying count, latest
+    // write), its recurring series, its hours and its fields. Anything the sheet shows changes at least one part.
+    @Query(value = "SELECT concat_ws('|', " +
+            "(SELECT count(*) || ':' || count(*) FILTER (WHERE s.status IN ('BOOKED', 'BLOCKED')) || ':' || " +
+            "COALESCE(max(s.updated_at)::text, '') FROM slot s JOIN field f ON f.id = s.field_id " +
+            "WHERE f.venue_id = :venueId AND s.date = :date), " +
+            "(SELECT count(*) || ':' || COALESCE(max(bs.updated_at)::text, '') FROM booking_series bs " +
+            "JOIN field f ON f.id = bs.field_id WHERE f.venue_id = :venueId), " +
+            "(SELECT COALESCE(v.time_open::text, '') || ':' || COALESCE(v.time_close::text, '') FROM venue v " +
+            "WHERE v.id = :venueId), " +
+            "(SELECT string_agg(f.id || ':' || COALESCE(f.name, ''), ',' ORDER BY f.id) FROM field f " +
+            "WHERE f.venue_id = :venueId))", nativeQuery = true)
+    String findScheduleVersion(@Param("venueId") Integer venueId, @Param("date") LocalDate date);
 }
 
@@ -0,0 +1,64 @@
+package com.badminton.shop.ws_booking_sport.venue.repository;
+
+import com.badminton.shop.ws_booking_sport.model.venue.Venue;
+import com.badminton.shop.ws_booking_sport.model.venue.VenueCard;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface VenueCardRepository extends JpaRepository<VenueCard, Integer> {
+    List<VenueCard> findByOwnerIdOrderByIdAsc(Integer ownerId);
+    List<VenueCard> findBySportContainingIgnoreCase(String sport);
+    Page<VenueCard> findAllByOrderByIdAsc(Pageable pageable);
+
+    // keyset listing, newest venues first; served by idx_venue_card_created
+    @Query("SELECT c FROM VenueCard c ORDER BY c.createdAt DESC, c.id DESC")
+    List<VenueCard> findPageFirst(Pageable pageable);
+
+    @Query("SELECT c FROM VenueCard c WHERE c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<VenueCard> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Integer id, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE VenueCard c SET c.createdAt = :createdAt WHERE c.createdAt IS NULL")
+    int fillMissingCreatedAt(@Param("createdAt") LocalDateTime createdAt);
+
+    // copies the venue's current rating onto its card (after a rating aggregate update)
+    @Modifying
+    @Query(value = "UPDATE venue_card c SET rating = v.rating FROM venue v WHERE c.id = v.id AND v.id = :venueId", nativeQuery = true)
+    int syncRating(@Param("venueId") Integer venueId);
+
+    // favorites of a user, most recently added first, in one query
+    @Query("SELECT c FROM Favorite f JOIN VenueCard c ON c.id = f.venue.id WHERE f.user.id = :userId ORDER BY f.createdAt DESC")
+    List<VenueCard> findFavoritesByUserId(@Param("userId") Integer userId);
+
+    /*
+     * Fuzzy text search over the accent-folded search_text (q must be folded the same way).
+     * Substring matches and trigram word similarity (typos, partial words) both qualify; ranked by word similarity.
+     * Needs pg_trgm; both predicates are served by the trigram GIN index.
+     */
+    @Query(value = "SELECT c.* FROM venue_card c " +
+            "WHERE c.search_text LIKE ('%' || :q || '%') OR :q <% c.search_text " +
+            "ORDER BY (c.search_text LIKE ('%' || :q || '%')) DESC, word_similarity(:q, c.search_text) DESC, c.rating DESC, c.id " +
+            "LIMIT :limit", nativeQuery = true)
+    List<VenueCard> searchText(@Param("q") String q, @Param("limit") int limit);
+
+    // fallback when pg_trgm is not installed: substring match only
+    @Query("SELECT c FROM VenueCard c WHERE c.searchText LIKE CONCAT('%', :q, '%') ORDER BY c.rating DESC, c.id")
+    List<VenueCard> searchTextContaining(@Param("q") String q, Pageable pageable);
+
+    @Query("SELECT c FROM VenueCard c WHERE c.searchText IS NULL ORDER BY c.id")
+    List<VenueCard> findWithoutSearchText(Pageable pageable);
+
+    // venues that have no card yet (created before the read model existed)
+    @Query("SELECT v FROM Venue v WHERE NOT EXISTS (SELECT 1 FROM VenueCard c WHERE c.id = v.id) ORDER BY v.id")
+    List<Venue> findVenuesWithoutCard(Pageable pageable);
+}
@@ -3,6 +3,7 @@ package com.badminton.shop.ws_booking_sport.venue.repository;
 import com.badminton.shop.ws_booking_sport.model.venue.Venue;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,6 +15,15 @@ public interface VenueRepository extends JpaRepository<Venue, Integer>, JpaSpeci
     List<Venue> findByOwnerId(Integer ownerId);
     List<Venue> findBySportContainingIgnoreCase(String sport);
 
+    // applies a review write to the running aggregate in one row update; rating is derived from the new sum/count
+    @Modifying
+    @Query(value = "UPDATE venue SET rating_sum = COALESCE(rating_sum, 0) + :sumDelta, " +
+            "rating_count = COALESCE(rating_count, 0) + :countDelta, " +
+            "rating = CASE WHEN COALESCE(rating_count, 0) + :countDelta > 0 " +
+            "THEN CAST(COALESCE(rating_sum, 0) + :sumDelta AS real) / (COALESCE(rating_count, 0) + :countDelta) ELSE 0 END " +
+            "WHERE id = :venueId", nativeQuery = true)
+    int applyRatingDelta(@Param("venueId") Integer venueId, @Param("sumDelta") long sumDelta, @Param("countDelta") int countDelta);
+
     // Projection interface for native query
     interface VenueDistanceProjection {
         Integer getId();
@@ -21,10 +31,22 @@ public interface VenueRepository extends JpaRepository<Venue, Integer>, JpaSpeci
     }
 
     /*
-     * Native query to compute distance (km) using Haversine formula and return venues within radius.
-     * Uses a subselect so we can filter by computed distance.
-     * Note: this assumes the Venue table has columns named 'latitude' and 'longitude' (embedded Address fields).
+     * Venues within radiusKm of (lat, lng), nearest first.
+     * The circle's bounding box is matched against the GiST index on point(longitude, latitude)
+     * (see VenueSchemaInitializer) so only venues inside the box get the Haversine distance computed.
      */
-    @Query(value = "SELECT t.id as id, t.distance as distance FROM (SELECT v.id, (6371 * acos(cos(radians(:lat)) * cos(radians(v.latitude)) * cos(radians(v.longitude) - radians(:lng)) + sin(radians(:lat)) * sin(radians(v.latitude)))) AS distance FROM venue v) t WHERE t.distance <= :radiusKm ORDER BY t.distance", nativeQuery = true)
-    List<VenueDistanceProjection> findVenueIdsWithinDistance(@Param("lat") double lat, @Param("lng") double lng, @Param("radiusKm") double radiusKm);
+    default List<VenueDistanceProjection> findVenueIdsWithinDistance(double lat, double lng, double radiusKm) {
+        double[] box = VenueSearchRepository.boundingBox(lat, lng, radiusKm);
+        return findVenueIdsWithinBox(lat, lng, radiusKm, box[0], box[1], box[2], box[3]);
+    }
+
+    // acos argument is clamped to [-1, 1]: rounding can push it just past 1 for a venue at the exact center
+    @Query(value = "SELECT t.id as id, t.distance as distance FROM (" +
+            "SELECT v.id, (6371 * acos(LEAST(1.0, GREATEST(-1.0, cos(radians(:lat)) * cos(radians(v.latitude)) * cos(radians(v.longitude) - radians(:lng)) + sin(radians(:lat)) * sin(radians(v.latitude)))))) AS distance " +
+            "FROM venue v " +
+            "WHERE point(v.longitude, v.latitude) <@ box(point(:minLng, :minLat), point(:maxLng, :maxLat))) t " +
+            "WHERE t.distance <= :radiusKm ORDER BY t.distance", nativeQuery = true)
+    List<VenueDistanceProjection> findVenueIdsWithinBox(@Param("lat") double lat, @Param("lng") double lng, @Param("radiusKm") double radiusKm,
+                                                        @Param("minLat") double minLat, @Param("maxLat") double maxLat,
+                                                        @Param("minLng") double minLng, @Param("maxLng") double maxLng);
 }
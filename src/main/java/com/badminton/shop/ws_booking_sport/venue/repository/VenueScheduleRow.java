@@ -0,0 +1,14 @@
+package com.badminton.shop.ws_booking_sport.venue.repository;
+
+import com.badminton.shop.ws_booking_sport.enums.SlotStatus;
+
+import java.time.LocalTime;
+
+// One (field, occupying slot) pair of a venue's day sheet; slot columns are null for a field with no slots that day
+public interface VenueScheduleRow {
+    Integer getFieldId();
+    String getFieldName();
+    LocalTime getStartTime();
+    LocalTime getEndTime();
+    SlotStatus getStatus();
+}
@@ -0,0 +1,155 @@
+package com.badminton.shop.ws_booking_sport.venue.repository;
+
+import com.badminton.shop.ws_booking_sport.dto.response.VenuesResponse;
+import com.badminton.shop.ws_booking_sport.model.action.SearchFilter;
+import com.badminton.shop.ws_booking_sport.model.core.Address;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Venue search as a single SQL statement: radius (bounding box on the location GiST index + Haversine),
+ * the SearchFilter attribute predicates (same semantics as VenueSpecifications.bySearchFilter), ORDER BY and
+ * LIMIT/OFFSET, with rows mapped straight into VenuesResponse. No entities or element collections are loaded.
+ * When the filter has a time window, each candidate venue also gets its number of fields that are free for the
+ * whole window (no BOOKED/BLOCKED slot and no unmaterialized series occurrence overlapping it); venues with none
+ * are dropped and AVAILABILITY sorts by that count.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VenueSearchRepository {
+
+    static final double KM_PER_DEGREE_LAT = 111.045;
+
+    // fields of v with nothing occupying [:windowStart, :windowEnd) on :windowDate; mirrors BookingService.claims for series
+    private static final String FREE_FIELDS = "(SELECT count(*) FROM field f WHERE f.venue_id = v.id " +
+            "AND NOT EXISTS (SELECT 1 FROM slot s WHERE s.field_id = f.id AND s.date = :windowDate " +
+            "AND s.status IN ('BOOKED', 'BLOCKED') AND s.start_time < :windowEnd AND s.end_time > :windowStart) " +
+            "AND NOT EXISTS (SELECT 1 FROM booking_series bs WHERE bs.field_id = f.id AND bs.day_of_week = :windowDow " +
+            "AND bs.status = 'ACTIVE' AND bs.start_date <= :windowDate AND bs.until_date >= :windowDate " +
+            "AND (bs.materialized_through IS NULL OR bs.materialized_through < :windowDate) " +
+            "AND ((:windowDate - bs.start_date) / 7) % GREATEST(1, bs.interval_weeks) = 0 " +
+            "AND bs.start_time < :windowEnd AND bs.end_time > :windowStart))";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<VenuesResponse> search(SearchFilter filter, double lat, double lng, double radiusKm, int offset, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder where = new StringBuilder();
+        appendRadius(where, params, lat, lng, radiusKm);
+        appendFilter(where, params, filter);
+        boolean window = appendWindow(params, filter);
+
+        String sql = "SELECT * FROM (SELECT v.id, v.name, v.sport, v.rating, v.street, v.district, v.city, v.province, " +
+                "v.latitude, v.longitude, v.price_per_hour, " +
+                "6371 * acos(LEAST(1.0, GREATEST(-1.0, cos(radians(:lat)) * cos(radians(v.latitude)) * cos(radians(v.longitude) - radians(:lng)) " +
+                "+ sin(radians(:lat)) * sin(radians(v.latitude))))) AS distance, " +
+                (window ? FREE_FIELDS : "CAST(NULL AS bigint)") + " AS free_fields " +
+                "FROM venue v WHERE " + where + ") t " +
+                "WHERE t.distance <= :radiusKm" + (window ? " AND t.free_fields > 0 " : " ") +
+                "ORDER BY " + orderBy(filter.getSortBy()) + " LIMIT :limit OFFSET :offset";
+        params.addValue("limit", limit);
+        params.addValue("offset", offset);
+        return jdbcTemplate.query(sql, params, (rs, i) -> toResponse(rs));
+    }
+
+    /**
+     * Lat/lng box around the circle: {minLat, maxLat, minLng, maxLng}.
+     */
+    public static double[] boundingBox(double lat, double lng, double radiusKm) {
+        double dLat = radiusKm / KM_PER_DEGREE_LAT;
+        double cosLat = Math.cos(Math.toRadians(lat));
+        // near the poles (or for huge radii) the longitude span covers the whole globe
+        double dLng = cosLat < 1e-6 ? 180.0 : Math.min(180.0, radiusKm / (KM_PER_DEGREE_LAT * cosLat));
+        return new double[]{Math.max(-90.0, lat - dLat), Math.min(90.0, lat + dLat), lng - dLng, lng + dLng};
+    }
+
+    private static void appendRadius(StringBuilder where, MapSqlParameterSource params, double lat, double lng, double radiusKm) {
+        double[] box = boundingBox(lat, lng, radiusKm);
+        where.append("point(v.longitude, v.latitude) <@ box(point(:minLng, :minLat), point(:maxLng, :maxLat))");
+        params.addValue("lat", lat);
+        params.addValue("lng", lng);
+        params.addValue("radiusKm", radiusKm);
+        params.addValue("minLat", box[0]);
+        params.addValue("maxLat", box[1]);
+        params.addValue("minLng", box[2]);
+        params.addValue("maxLng", box[3]);
+    }
+
+    private static void appendFilter(StringBuilder where, MapSqlParameterSource params, SearchFilter filter) {
+        if (filter.getMinRating() != null) {
+            where.append(" AND v.rating >= :minRating");
+            params.addValue("minRating", filter.getMinRating());
+        }
+        if (filter.getSports() != null && !filter.getSports().isEmpty()) {
+            where.append(" AND lower(v.sport) IN (:sports)");
+            params.addValue("sports", filter.getSports().stream().map(s -> s.toLowerCase(Locale.ROOT)).toList());
+        }
+        // venue must be open for the whole requested window
+        if (filter.getTimeStart() != null && filter.getTimeEnd() != null) {
+            where.append(" AND v.time_open <= :timeStart AND v.time_close >= :timeEnd");
+            params.addValue("timeStart", filter.getTimeStart().toLocalTime());
+            params.addValue("timeEnd", filter.getTimeEnd().toLocalTime());
+        }
+        if (filter.getMinPrice() != null) {
+            where.append(" AND v.price_per_hour >= :minPrice");
+            params.addValue("minPrice", filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            where.append(" AND v.price_per_hour <= :maxPrice");
+            params.addValue("maxPrice", filter.getMaxPrice());
+        }
+    }
+
+    // the availability window is [timeStart, timeEnd) on date (or on timeStart's date when date is not given)
+    private static boolean appendWindow(MapSqlParameterSource params, SearchFilter filter) {
+        if (filter.getTimeStart() == null || filter.getTimeEnd() == null) return false;
+        LocalDate date = filter.getDate() != null ? filter.getDate().toLocalDate() : filter.getTimeStart().toLocalDate();
+        params.addValue("windowDate", date);
+        params.addValue("windowDow", date.getDayOfWeek().name());
+        params.addValue("windowStart", filter.getTimeStart().toLocalTime());
+        params.addValue("windowEnd", filter.getTimeEnd().toLocalTime());
+        return true;
+    }
+
+    // id as the final key keeps pages stable between requests
+    private static String orderBy(String sortBy) {
+        String key = sortBy == null ? "DISTANCE" : sortBy.toUpperCase(Locale.ROOT);
+        return switch (key) {
+            case "PRICE" -> "t.price_per_hour ASC NULLS LAST, t.distance ASC, t.id ASC";
+            case "RATING" -> "t.rating DESC, t.distance ASC, t.id ASC";
+            case "AVAILABILITY" -> "t.free_fields DESC NULLS LAST, t.distance ASC, t.id ASC";
+            default -> "t.distance ASC, t.id ASC";
+        };
+    }
+
+    private static VenuesResponse toResponse(ResultSet rs) throws SQLException {
+        VenuesResponse vr = new VenuesResponse();
+        vr.setId(rs.getInt("id"));
+        vr.setName(rs.getString("name"));
+        vr.setSport(rs.getString("sport"));
+        vr.setRating(rs.getFloat("rating"));
+        Double lat = rs.getObject("latitude", Double.class);
+        Double lng = rs.getObject("longitude", Double.class);
+        Address address = new Address(rs.getString("street"), rs.getString("district"), rs.getString("city"),
+                rs.getString("province"), lat, lng);
+        vr.setAddress(address);
+        vr.setLatitude(lat);
+        vr.setLongitude(lng);
+        vr.setDistanceKm(rs.getObject("distance", Double.class));
+        // price is stored at venue level
+        Double price = rs.getObject("price_per_hour", Double.class);
+        vr.setMinPricePerHour(price);
+        vr.setPricePerHour(price != null ? price : 0.0);
+        Long freeFields = rs.getObject("free_fields", Long.class);
+        vr.setFreeFields(freeFields != null ? freeFields.intValue() : null);
+        return vr;
+    }
+}
@@ -1,10 +1,30 @@
 package com.badminton.shop.ws_booking_sport.venue.service;
 
+import com.badminton.shop.ws_booking_sport.booking.service.BookingSeriesService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
 /**
- * AvailabilitySlotScheduler disabled.
- * The automated availability-slot generation feature was removed per request.
- * This class intentionally does nothing to avoid scheduled runs.
+ * Rolling materialization of recurring bookings: moves every active booking series up to the current horizon
+ * so the slots of upcoming occurrences exist before they show up in availability queries.
  */
+@Component
+@RequiredArgsConstructor
 public class AvailabilitySlotScheduler {
-    // scheduler disabled
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilitySlotScheduler.class);
+
+    private final BookingSeriesService bookingSeriesService;
+
+    @Scheduled(cron = "${booking.series.materialize-cron:0 10 * * * *}")
+    public void materializeBookingSeries() {
+        try {
+            bookingSeriesService.materializeDue();
+        } catch (Exception e) {
+            log.error("Booking series materialization run failed", e);
+        }
+    }
 }
@@ -1,6 +1,5 @@
 package com.badminton.shop.ws_booking_sport.venue.service;
 
-import com.badminton.shop.ws_booking_sport.core.repository.AccountRepository;
 import com.badminton.shop.ws_booking_sport.dto.request.CreateFacilityRequest;
 import com.badminton.shop.ws_booking_sport.dto.request.UpdateFacilityRequest;
 import com.badminton.shop.ws_booking_sport.dto.response.FacilityResponse;
@@ -9,7 +8,7 @@ import com.badminton.shop.ws_booking_sport.model.venue.Facility;
 import com.badminton.shop.ws_booking_sport.model.venue.Venue;
 import com.badminton.shop.ws_booking_sport.venue.repository.FacilityRepository;
 import com.badminton.shop.ws_booking_sport.venue.repository.VenueRepository;
-import com.badminton.shop.ws_booking_sport.security.JwtService;
+import com.badminton.shop.ws_booking_sport.security.OwnerAuthorization;
 import com.badminton.shop.ws_booking_sport.enums.Role;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
@@ -25,41 +24,14 @@ public class FacilityServiceImpl implements FacilityService {
 
     private final FacilityRepository facilityRepository;
     private final VenueRepository venueRepository;
-    private final JwtService jwtService;
-    private final AccountRepository accountRepository;
-
-    private Account validateOwner(String authorizationHeader) {
-        if (authorizationHeader == null || authorizationHeader.isBlank()) {
-            throw new IllegalArgumentException("Authorization header is required");
-        }
-        if (!authorizationHeader.startsWith("Bearer ")) {
-            throw new IllegalArgumentException("Invalid Authorization header");
-        }
-        String token = authorizationHeader.substring(7);
-        if (!jwtService.isTokenValid(token)) {
-            throw new IllegalArgumentException("Invalid or expired token");
-        }
-
-        String email = jwtService.extractEmail(token);
-        if (email == null || email.isBlank()) {
-            throw new IllegalArgumentException("Token does not contain email");
-        }
-
-        Account account = accountRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-
-        if (account.getRole() != Role.OWNER && account.getRole() != Role.ADMIN) {
-            throw new AccessDeniedException("Only owners or admins are allowed to perform this action");
-        }
-
-        return account;
-    }
+    private final OwnerAuthorization ownerAuthorization;
+    private final VenueDetailCache venueDetailCache;
 
     @Transactional
     @Override
     public FacilityResponse create(Integer venueId, CreateFacilityRequest req, String authHeader) {
         if (req == null) throw new IllegalArgumentException("Request body is required");
-        Account account = validateOwner(authHeader);
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authHeader);
         Venue v = venueRepository.findById(venueId).orElseThrow(() -> new IllegalArgumentException("Venue not found"));
 
         if (account.getRole() != Role.ADMIN) {
@@ -75,6 +47,7 @@ public class FacilityServiceImpl implements FacilityService {
         f.setVenue(v);
 
         Facility saved = facilityRepository.save(f);
+        venueDetailCache.evict(venueId);
         return toResponse(saved);
     }
 
@@ -94,7 +67,7 @@ public class FacilityServiceImpl implements FacilityService {
     @Override
     public FacilityResponse update(Integer id, UpdateFacilityRequest req, String authHeader) {
         if (req == null) throw new IllegalArgumentException("Request body is required");
-        Account account = validateOwner(authHeader);
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authHeader);
         Facility f = facilityRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Facility not found"));
         Venue v = f.getVenue();
 
@@ -109,13 +82,14 @@ public class FacilityServiceImpl implements FacilityService {
         if (req.getPrice() != null) f.setPrice(req.getPrice());
 
         Facility saved = facilityRepository.save(f);
+        venueDetailCache.evict(v != null ? v.getId() : null);
         return toResponse(saved);
     }
 
     @Transactional
     @Override
     public String delete(Integer id, String authHeader) {
-        Account account = validateOwner(authHeader);
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authHeader);
         Facility f = facilityRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Facility not found"));
         Venue v = f.getVenue();
 
@@ -126,6 +100,7 @@ public class FacilityServiceImpl implements FacilityService {
         }
 
         facilityRepository.delete(f);
+        venueDetailCache.evict(v != null ? v.getId() : null);
         return "Facility deleted";
     }
 
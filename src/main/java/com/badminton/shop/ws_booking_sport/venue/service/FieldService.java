@@ -1,6 +1,5 @@
 package com.badminton.shop.ws_booking_sport.venue.service;
 
-import com.badminton.shop.ws_booking_sport.core.repository.AccountRepository;
 import com.badminton.shop.ws_booking_sport.dto.request.CreateFieldRequest;
 import com.badminton.shop.ws_booking_sport.dto.request.UpdateFieldRequest;
 import com.badminton.shop.ws_booking_sport.dto.response.FieldResponse;
@@ -9,7 +8,7 @@ import com.badminton.shop.ws_booking_sport.model.venue.Field;
 import com.badminton.shop.ws_booking_sport.model.venue.Venue;
 import com.badminton.shop.ws_booking_sport.venue.repository.FieldRepository;
 import com.badminton.shop.ws_booking_sport.venue.repository.VenueRepository;
-import com.badminton.shop.ws_booking_sport.security.JwtService;
+import com.badminton.shop.ws_booking_sport.security.OwnerAuthorization;
 import com.badminton.shop.ws_booking_sport.enums.Role;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
@@ -25,40 +24,14 @@ public class FieldService {
 
     private final FieldRepository fieldRepository;
     private final VenueRepository venueRepository;
-    private final JwtService jwtService;
-    private final AccountRepository accountRepository;
-
-    private Account validateOwner(String authorizationHeader) {
-        if (authorizationHeader == null || authorizationHeader.isBlank()) {
-            throw new IllegalArgumentException("Authorization header is required");
-        }
-        if (!authorizationHeader.startsWith("Bearer ")) {
-            throw new IllegalArgumentException("Invalid Authorization header");
-        }
-        String token = authorizationHeader.substring(7);
-        if (!jwtService.isTokenValid(token)) {
-            throw new IllegalArgumentException("Invalid or expired token");
-        }
-
-        String email = jwtService.extractEmail(token);
-        if (email == null || email.isBlank()) {
-            throw new IllegalArgumentException("Token does not contain email");
-        }
-
-        Account account = accountRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-
-        if (account.getRole() != Role.OWNER && account.getRole() != Role.ADMIN) {
-            throw new AccessDeniedException("Only owners or admins are allowed to perform this action");
-        }
-
-        return account;
-    }
+    private final OwnerAuthorization ownerAuthorization;
+    private final PricingEngine pricingEngine;
+    private final VenueDetailCache venueDetailCache;
 
     @Transactional
     public FieldResponse createField(Integer venueId, CreateFieldRequest req, String authorizationHeader) {
         if (req == null) throw new IllegalArgumentException("Request body is required");
-        Account account = validateOwner(authorizationHeader);
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authorizationHeader);
         Venue venue = venueRepository.findById(venueId).orElseThrow(() -> new IllegalArgumentException("Venue not found"));
 
         if (account.getRole() != Role.ADMIN) {
@@ -73,6 +46,7 @@ public class FieldService {
         f.setVenue(venue);
 
         Field saved = fieldRepository.save(f);
+        venueDetailCache.evict(venueId);
         return toResponse(saved);
     }
 
@@ -84,7 +58,7 @@ public class FieldService {
     @Transactional
     public FieldResponse updateField(Integer id, UpdateFieldRequest req, String authorizationHeader) {
         if (req == null) throw new IllegalArgumentException("Request body is required");
-        Account account = validateOwner(authorizationHeader);
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authorizationHeader);
         Field f = fieldRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Field not found"));
         Venue venue = f.getVenue();
 
@@ -98,12 +72,13 @@ public class FieldService {
         if (req.getType() != null) f.setType(req.getType());
 
         Field saved = fieldRepository.save(f);
+        venueDetailCache.evict(venue != null ? venue.getId() : null);
         return toResponse(saved);
     }
 
     @Transactional
     public String deleteField(Integer id, String authorizationHeader) {
-        Account account = validateOwner(authorizationHeader);
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authorizationHeader);
         Field f = fieldRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Field not found"));
         Venue venue = f.getVenue();
 
@@ -114,6 +89,8 @@ public class FieldService {
         }
 
         fieldRepository.delete(f);
+        pricingEngine.evictField(id);
+        venueDetailCache.evict(venue != null ? venue.getId() : null);
         return "Field deleted";
     }
 
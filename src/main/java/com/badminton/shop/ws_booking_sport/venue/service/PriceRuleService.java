@@ -0,0 +1,112 @@
+package com.badminton.shop.ws_booking_sport.venue.service;
+
+import com.badminton.shop.ws_booking_sport.dto.request.CreatePriceRuleRequest;
+import com.badminton.shop.ws_booking_sport.dto.request.UpdatePriceRuleRequest;
+import com.badminton.shop.ws_booking_sport.dto.response.PriceRuleResponse;
+import com.badminton.shop.ws_booking_sport.enums.Role;
+import com.badminton.shop.ws_booking_sport.model.core.Account;
+import com.badminton.shop.ws_booking_sport.model.venue.Field;
+import com.badminton.shop.ws_booking_sport.model.venue.PriceRule;
+import com.badminton.shop.ws_booking_sport.model.venue.Venue;
+import com.badminton.shop.ws_booking_sport.security.OwnerAuthorization;
+import com.badminton.shop.ws_booking_sport.venue.repository.FieldRepository;
+import com.badminton.shop.ws_booking_sport.venue.repository.PriceRuleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class PriceRuleService {
+
+    private final PriceRuleRepository priceRuleRepository;
+    private final FieldRepository fieldRepository;
+    private final PricingEngine pricingEngine;
+    private final OwnerAuthorization ownerAuthorization;
+
+    private void checkFieldOwner(Account account, Field field) {
+        if (account.getRole() == Role.ADMIN) return;
+        Venue venue = field.getVenue();
+        if (venue == null || venue.getOwner() == null || !venue.getOwner().getId().equals(account.getUser().getId())) {
+            throw new AccessDeniedException("You are not allowed to change prices of this field");
+        }
+    }
+
+    public List<PriceRuleResponse> listByField(Integer fieldId) {
+        return priceRuleRepository.findByFieldIdOrderByIdAsc(fieldId).stream().map(this::toResponse).collect(Collectors.toList());
+    }
+
+    public PriceRuleResponse getRule(Integer id) {
+        PriceRule r = priceRuleRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Price rule not found"));
+        return toResponse(r);
+    }
+
+    @Transactional
+    public PriceRuleResponse createRule(Integer fieldId, CreatePriceRuleRequest req, String authorizationHeader) {
+        if (req == null) throw new IllegalArgumentException("Request body is required");
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authorizationHeader);
+        Field field = fieldRepository.findById(fieldId).orElseThrow(() -> new IllegalArgumentException("Field not found"));
+        checkFieldOwner(account, field);
+
+        PriceRule r = new PriceRule();
+        r.setField(field);
+        r.setDayOfWeek(req.getDayOfWeek());
+        r.setStartTime(req.getStartTime());
+        r.setEndTime(req.getEndTime());
+        if (req.getPricePerHour() == null) throw new IllegalArgumentException("pricePerHour is required");
+        r.setPricePerHour(req.getPricePerHour());
+        validate(r);
+
+        PriceRule saved = priceRuleRepository.save(r);
+        pricingEngine.evictField(fieldId);
+        return toResponse(saved);
+    }
+
+    @Transactional
+    public PriceRuleResponse updateRule(Integer id, UpdatePriceRuleRequest req, String authorizationHeader) {
+        if (req == null) throw new IllegalArgumentException("Request body is required");
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authorizationHeader);
+        PriceRule r = priceRuleRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Price rule not found"));
+        checkFieldOwner(account, r.getField());
+
+        if (req.getDayOfWeek() != null) r.setDayOfWeek(req.getDayOfWeek());
+        if (req.getStartTime() != null) r.setStartTime(req.getStartTime());
+        if (req.getEndTime() != null) r.setEndTime(req.getEndTime());
+        if (req.getPricePerHour() != null) r.setPricePerHour(req.getPricePerHour());
+        validate(r);
+
+        PriceRule saved = priceRuleRepository.save(r);
+        pricingEngine.evictField(r.getField().getId());
+        return toResponse(saved);
+    }
+
+    @Transactional
+    public String deleteRule(Integer id, String authorizationHeader) {
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authorizationHeader);
+        PriceRule r = priceRuleRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Price rule not found"));
+        checkFieldOwner(account, r.getField());
+
+        priceRuleRepository.delete(r);
+        pricingEngine.evictField(r.getField().getId());
+        return "Price rule deleted";
+    }
+
+    private void validate(PriceRule r) {
+        if (r.getDayOfWeek() < 1 || r.getDayOfWeek() > 7) throw new IllegalArgumentException("dayOfWeek must be between 1 (Monday) and 7 (Sunday)");
+        if (r.getStartTime() == null || r.getEndTime() == null) throw new IllegalArgumentException("startTime and endTime are required");
+        if (!r.getEndTime().equals(LocalTime.MIDNIGHT) && !r.getStartTime().isBefore(r.getEndTime())) {
+            throw new IllegalArgumentException("startTime must be before endTime");
+        }
+        if (r.getPricePerHour() < 0) throw new IllegalArgumentException("pricePerHour must not be negative");
+    }
+
+    private PriceRuleResponse toResponse(PriceRule r) {
+        return new PriceRuleResponse(r.getId(), r.getField() != null ? r.getField().getId() : null,
+                r.getDayOfWeek(), r.getStartTime(), r.getEndTime(), r.getPricePerHour());
+    }
+}
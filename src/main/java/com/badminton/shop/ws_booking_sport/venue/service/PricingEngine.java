@@ -0,0 +1,253 @@
+package com.badminton.shop.ws_booking_sport.venue.service;
+
+import com.badminton.shop.ws_booking_sport.dto.response.PriceQuoteResponse;
+import com.badminton.shop.ws_booking_sport.model.venue.Field;
+import com.badminton.shop.ws_booking_sport.model.venue.PriceRule;
+import com.badminton.shop.ws_booking_sport.venue.repository.FieldRepository;
+import com.badminton.shop.ws_booking_sport.venue.repository.PriceRuleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-of-day / day-of-week pricing.
+ * Each field's PriceRules are compiled once into an immutable table of hourly rates per weekday in 5-minute cells
+ * (Venue.pricePerHour where no rule applies) plus prefix sums, so any range is priced in O(1) without DB access.
+ * Cells a rule boundary falls inside keep their per-minute rates, so rules off the 5-minute grid price exactly.
+ * An end time of 00:00 means the end of the day, for rules as well as for priced ranges.
+ * Tables are cached per field, evicted on this node when rules or the venue base price change and recompiled
+ * after pricing.table-ttl-seconds, which bounds how long a change made through another node prices with the old
+ * rules. When full, the least recently used tables are dropped.
+ */
+@Component
+@RequiredArgsConstructor
+public class PricingEngine {
+
+    static final int CELL_MINUTES = 5;
+    static final int CELLS_PER_DAY = 24 * 60 / CELL_MINUTES;
+    private static final int MAX_ENTRIES = 20_000;
+    private static final int EVICT_TO_ENTRIES = MAX_ENTRIES * 9 / 10;
+
+    private final PriceRuleRepository priceRuleRepository;
+    private final FieldRepository fieldRepository;
+
+    @Value("${pricing.table-ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final ConcurrentMap<Integer, FieldPriceTable> tables = new ConcurrentHashMap<>();
+    // bumped by every eviction; a table compiled across an eviction is not cached (it may hold the old rules)
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Price of [start, end) on the given date for an already loaded field.
+     */
+    public double price(Field field, LocalDate date, LocalTime start, LocalTime end) {
+        return tableFor(field).price(date.getDayOfWeek().getValue(), toMinute(start), endMinute(end));
+    }
+
+    public PriceQuoteResponse quote(Integer fieldId, LocalDate date, LocalTime start, LocalTime end) {
+        if (fieldId == null || date == null || start == null || end == null) {
+            throw new IllegalArgumentException("fieldId, date, startTime and endTime are required");
+        }
+        int from = toMinute(start);
+        int to = endMinute(end);
+        if (from >= to) throw new IllegalArgumentException("startTime must be before endTime");
+
+        FieldPriceTable table = cached(fieldId);
+        if (table == null) {
+            Field field = fieldRepository.findById(fieldId).orElseThrow(() -> new IllegalArgumentException("Field not found"));
+            table = tableFor(field);
+        }
+        int dow = date.getDayOfWeek().getValue();
+
+        List<PriceQuoteResponse.Segment> segments = new ArrayList<>();
+        int segStart = from;
+        while (segStart < to) {
+            double rate = table.rateAt(dow, segStart);
+            int segEnd = segStart;
+            while (segEnd < to && table.rateAt(dow, segEnd) == rate) {
+                segEnd = Math.min(to, table.nextBoundary(dow, segEnd));
+            }
+            segments.add(new PriceQuoteResponse.Segment(fromMinute(segStart), fromMinute(segEnd), rate,
+                    table.price(dow, segStart, segEnd)));
+            segStart = segEnd;
+        }
+        return new PriceQuoteResponse(fieldId, date, start, end, table.price(dow, from, to), "VND", segments);
+    }
+
+    FieldPriceTable tableFor(Field field) {
+        FieldPriceTable table = cached(field.getId());
+        if (table != null) return table;
+        if (field.getVenue() == null || field.getVenue().getPricePerHour() == null) {
+            throw new IllegalArgumentException("Venue pricePerHour is not set");
+        }
+        evictIfNeeded();
+        // compiled outside the map's bin lock; two threads may compile the same field once, which is harmless
+        long epoch = evictions.get();
+        table = FieldPriceTable.compile(field.getVenue().getId(), field.getVenue().getPricePerHour(),
+                priceRuleRepository.findByFieldIdOrderByIdAsc(field.getId()));
+        if (evictions.get() == epoch) tables.put(field.getId(), table);
+        return table;
+    }
+
+    // the field's table if it is cached and younger than the TTL
+    private FieldPriceTable cached(Integer fieldId) {
+        FieldPriceTable table = tables.get(fieldId);
+        if (table == null) return null;
+        long now = System.nanoTime();
+        if (now - table.compiledAtNanos > TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+            tables.remove(fieldId, table);
+            return null;
+        }
+        table.lastUsedNanos = now;
+        return table;
+    }
+
+    private void evictIfNeeded() {
+        int excess = tables.size() - EVICT_TO_ENTRIES;
+        if (tables.size() < MAX_ENTRIES || excess <= 0) return;
+        // least recently used first
+        List<Map.Entry<Integer, Long>> byUse = new ArrayList<>(tables.size());
+        tables.forEach((id, t) -> byUse.add(Map.entry(id, t.lastUsedNanos)));
+        byUse.sort(Map.Entry.comparingByValue());
+        for (int i = 0; i < excess && i < byUse.size(); i++) {
+            tables.remove(byUse.get(i).getKey());
+        }
+    }
+
+    /**
+     * Drops the field's table now and again when the current transaction completes, so a concurrent reader can
+     * not re-cache the rules as they were before the commit.
+     */
+    public void evictField(Integer fieldId) {
+        evictions.incrementAndGet();
+        tables.remove(fieldId);
+        afterCompletion(() -> {
+            evictions.incrementAndGet();
+            tables.remove(fieldId);
+        });
+    }
+
+    // venue base price changed: every field of the venue falls back to it
+    public void evictVenue(Integer venueId) {
+        evictions.incrementAndGet();
+        tables.values().removeIf(t -> t.venueId.equals(venueId));
+        afterCompletion(() -> {
+            evictions.incrementAndGet();
+            tables.values().removeIf(t -> t.venueId.equals(venueId));
+        });
+    }
+
+    private void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    static int toMinute(LocalTime t) {
+        return t.getHour() * 60 + t.getMinute();
+    }
+
+    static LocalTime fromMinute(int minute) {
+        if (minute >= 24 * 60) return LocalTime.MAX;
+        return LocalTime.of(minute / 60, minute % 60);
+    }
+
+    // end of a range or rule: 00:00 (and LocalTime.MAX, as returned in quote segments) means end of day
+    static int endMinute(LocalTime t) {
+        if (t.equals(LocalTime.MAX)) return 24 * 60;
+        int end = toMinute(t);
+        return end == 0 ? 24 * 60 : end;
+    }
+
+    static final class FieldPriceTable {
+        final Integer venueId;
+        final long compiledAtNanos = System.nanoTime();
+        volatile long lastUsedNanos = compiledAtNanos;
+        // rate[dow - 1][cell] = price per hour; cost[dow - 1][cell] = price of the day up to the start of the cell;
+        // minuteRate[dow - 1][cell] = per-minute prices per hour, only for cells a rule boundary falls inside (else null)
+        private final double[][] rate = new double[7][CELLS_PER_DAY];
+        private final double[][] cost = new double[7][CELLS_PER_DAY + 1];
+        private final double[][][] minuteRate = new double[7][CELLS_PER_DAY][];
+
+        private FieldPriceTable(Integer venueId) {
+            this.venueId = venueId;
+        }
+
+        static FieldPriceTable compile(Integer venueId, double basePrice, List<PriceRule> rules) {
+            FieldPriceTable t = new FieldPriceTable(venueId);
+            // rules are laid out per minute first; later rules (higher id) win where rules overlap
+            double[][] perMinute = new double[7][24 * 60];
+            for (double[] day : perMinute) Arrays.fill(day, basePrice);
+            for (PriceRule r : rules) {
+                if (r.getDayOfWeek() < 1 || r.getDayOfWeek() > 7 || r.getStartTime() == null || r.getEndTime() == null) continue;
+                int from = toMinute(r.getStartTime());
+                int to = endMinute(r.getEndTime());
+                if (from < to) Arrays.fill(perMinute[r.getDayOfWeek() - 1], from, to, r.getPricePerHour());
+            }
+            for (int d = 0; d < 7; d++) {
+                double[] day = perMinute[d];
+                for (int c = 0; c < CELLS_PER_DAY; c++) {
+                    int first = c * CELL_MINUTES;
+                    double sum = 0;
+                    boolean uniform = true;
+                    for (int m = first; m < first + CELL_MINUTES; m++) {
+                        sum += day[m];
+                        uniform &= day[m] == day[first];
+                    }
+                    t.rate[d][c] = day[first];
+                    if (!uniform) t.minuteRate[d][c] = Arrays.copyOfRange(day, first, first + CELL_MINUTES);
+                    t.cost[d][c + 1] = t.cost[d][c] + sum / 60.0;
+                }
+            }
+            return t;
+        }
+
+        double rateAt(int dow, int minute) {
+            int c = Math.min(minute / CELL_MINUTES, CELLS_PER_DAY - 1);
+            double[] perMinute = minuteRate[dow - 1][c];
+            return perMinute != null ? perMinute[Math.min(minute - c * CELL_MINUTES, CELL_MINUTES - 1)] : rate[dow - 1][c];
+        }
+
+        // next minute after the given one at which the rate may change: the next minute inside a mixed cell,
+        // otherwise the next cell boundary
+        int nextBoundary(int dow, int minute) {
+            int c = minute / CELL_MINUTES;
+            if (c < CELLS_PER_DAY && minuteRate[dow - 1][c] != null) return minute + 1;
+            return (c + 1) * CELL_MINUTES;
+        }
+
+        // price of [fromMinute, toMinute) on the weekday
+        double price(int dow, int fromMinute, int toMinute) {
+            return costUpTo(dow, toMinute) - costUpTo(dow, fromMinute);
+        }
+
+        private double costUpTo(int dow, int minute) {
+            int c = minute / CELL_MINUTES;
+            if (c >= CELLS_PER_DAY) return cost[dow - 1][CELLS_PER_DAY];
+            int into = minute - c * CELL_MINUTES;
+            double[] perMinute = minuteRate[dow - 1][c];
+            if (perMinute == null) return cost[dow - 1][c] + rate[dow - 1][c] * into / 60.0;
+            double partial = 0;
+            for (int m = 0; m < into; m++) partial += perMinute[m];
+            return cost[dow - 1][c] + partial / 60.0;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.badminton.shop.ws_booking_sport.venue.service;
+
+import com.badminton.shop.ws_booking_sport.dto.response.VenuePageResponse;
+import com.badminton.shop.ws_booking_sport.dto.response.VenueResponse;
+import com.badminton.shop.ws_booking_sport.goong.GoongMapService;
+import com.badminton.shop.ws_booking_sport.model.core.Address;
+import com.badminton.shop.ws_booking_sport.model.venue.Venue;
+import com.badminton.shop.ws_booking_sport.model.venue.VenueCard;
+import com.badminton.shop.ws_booking_sport.venue.repository.VenueCardRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keeps the venue_card read model in step with Venue. Writers call refresh/delete inside their own transaction
+ * so the card commits (or rolls back) together with the venue change.
+ */
+@Service
+@RequiredArgsConstructor
+public class VenueCardService {
+
+    private static final Logger log = LoggerFactory.getLogger(VenueCardService.class);
+
+    private static final int BACKFILL_BATCH = 200;
+    public static final int MAX_TEXT_RESULTS = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+    // stands in for a missing Venue.createdAt so the (createdAt, id) keyset never meets nulls
+    static final LocalDateTime UNKNOWN_CREATED_AT = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final VenueCardRepository venueCardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final GoongMapService goongMapService;
+    private final VenueCatalogVersion venueCatalogVersion;
+
+    public VenueCard refresh(Venue v) {
+        VenueCard saved = venueCardRepository.save(toCard(v));
+        // the loaded venue may predate a concurrent review; take the rating from the venue row instead
+        venueCardRepository.syncRating(v.getId());
+        venueCatalogVersion.bump();
+        return saved;
+    }
+
+    public void delete(Integer venueId) {
+        venueCardRepository.deleteById(venueId);
+        venueCatalogVersion.bump();
+    }
+
+    public void syncRating(Integer venueId) {
+        if (venueCardRepository.syncRating(venueId) > 0) venueCatalogVersion.bump();
+    }
+
+    // cursor == null or blank -> newest venues first
+    @Transactional(readOnly = true)
+    public VenuePageResponse listPage(String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // fetch one extra row to know whether there is a next page; no COUNT query
+        PageRequest window = PageRequest.of(0, limit + 1);
+
+        List<VenueCard> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = venueCardRepository.findPageFirst(window);
+        } else {
+            Cursor c = decodeCursor(cursor);
+            rows = venueCardRepository.findPageAfter(c.createdAt, c.id, window);
+        }
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) rows = rows.subList(0, limit);
+
+        String nextCursor = null;
+        if (hasMore) {
+            VenueCard last = rows.get(rows.size() - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getId());
+        }
+        return new VenuePageResponse(rows.stream().map(VenueCardService::toResponse).toList(), nextCursor, hasMore);
+    }
+
+    /**
+     * Venues whose name, sport, district or city match q, accents and case ignored ("cau long" finds "Cầu lông"),
+     * tolerating small typos. Best matches first.
+     */
+    public List<VenueResponse> searchText(String q, int limit) {
+        String folded = fold(q);
+        if (folded.isEmpty()) throw new IllegalArgumentException("q is required");
+        int safeLimit = Math.min(Math.max(1, limit), MAX_TEXT_RESULTS);
+        List<VenueCard> cards;
+        try {
+            cards = venueCardRepository.searchText(folded, safeLimit);
+        } catch (DataAccessException e) {
+            log.debug("Trigram search unavailable, using substring match: {}", e.getMessage());
+            cards = venueCardRepository.searchTextContaining(folded, PageRequest.of(0, safeLimit));
+        }
+        return cards.stream().map(VenueCardService::toResponse).toList();
+    }
+
+    // accent-free, lower-case, only letters/digits separated by single spaces (also keeps LIKE wildcards out)
+    String fold(String text) {
+        if (text == null) return "";
+        return goongMapService.removeAccent(text).toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    String searchTextOf(String name, String sport, Address address) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : new String[]{name, sport, address != null ? address.getDistrict() : null, address != null ? address.getCity() : null}) {
+            if (part != null && !part.isBlank()) sb.append(part).append(' ');
+        }
+        return fold(sb.toString());
+    }
+
+    // venues created before venue_card existed get their card once at startup; older cards get their search text
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        backfillCards();
+        backfillSearchText();
+        try {
+            Integer filled = transactionTemplate.execute(status -> venueCardRepository.fillMissingCreatedAt(UNKNOWN_CREATED_AT));
+            if (filled != null && filled > 0) venueCatalogVersion.bump();
+        } catch (Exception e) {
+            log.warn("Could not fill venue card createdAt: {}", e.getMessage());
+        }
+    }
+
+    private void backfillSearchText() {
+        int total = 0;
+        try {
+            while (true) {
+                Integer written = transactionTemplate.execute(status -> {
+                    List<VenueCard> cards = venueCardRepository.findWithoutSearchText(PageRequest.of(0, BACKFILL_BATCH));
+                    for (VenueCard c : cards) c.setSearchText(searchTextOf(c.getName(), c.getSport(), c.getAddress()));
+                    venueCardRepository.saveAll(cards);
+                    return cards.size();
+                });
+                if (written == null) break;
+                total += written;
+                if (written < BACKFILL_BATCH) break;
+            }
+        } catch (Exception e) {
+            log.warn("Could not backfill venue search text: {}", e.getMessage());
+        }
+        if (total > 0) log.info("Backfilled search text for {} venue cards", total);
+    }
+
+    private void backfillCards() {
+        int total = 0;
+        try {
+            while (true) {
+                Integer written = transactionTemplate.execute(status -> {
+                    List<Venue> missing = venueCardRepository.findVenuesWithoutCard(PageRequest.of(0, BACKFILL_BATCH));
+                    List<VenueCard> cards = new ArrayList<>();
+                    for (Venue v : missing) cards.add(toCard(v));
+                    venueCardRepository.saveAll(cards);
+                    return cards.size();
+                });
+                if (written == null || written == 0) break;
+                total += written;
+                venueCatalogVersion.bump();
+                if (written < BACKFILL_BATCH) break;
+            }
+        } catch (Exception e) {
+            log.warn("Could not backfill venue cards: {}", e.getMessage());
+        }
+        if (total > 0) log.info("Backfilled {} venue cards", total);
+    }
+
+    VenueCard toCard(Venue v) {
+        VenueCard c = new VenueCard();
+        c.setId(v.getId());
+        c.setName(v.getName());
+        c.setDescription(v.getDescription());
+        c.setSport(v.getSport());
+        Address a = v.getAddress();
+        // copied: an embeddable instance must not be shared between two entities
+        c.setAddress(a == null ? null : new Address(a.getStreet(), a.getDistrict(), a.getCity(), a.getProvince(), a.getLatitude(), a.getLongitude()));
+        c.setTimeOpen(v.getTimeOpen());
+        c.setTimeClose(v.getTimeClose());
+        c.setMainImageUrl(v.getImageUrls() != null && !v.getImageUrls().isEmpty() ? v.getImageUrls().get(0) : null);
+        c.setRating(v.getRating());
+        c.setPricePerHour(v.getPricePerHour());
+        c.setOwnerId(v.getOwner() != null ? v.getOwner().getId() : null);
+        c.setCreatedAt(v.getCreatedAt() != null ? v.getCreatedAt() : UNKNOWN_CREATED_AT);
+        c.setUpdatedAt(v.getUpdatedAt());
+        c.setSearchText(searchTextOf(v.getName(), v.getSport(), v.getAddress()));
+        return c;
+    }
+
+    // opaque cursor: base64url("<createdAt>|<id>")
+    private static String encodeCursor(LocalDateTime createdAt, Integer id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, sep)), Integer.valueOf(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private record Cursor(LocalDateTime createdAt, Integer id) {}
+
+    // list endpoints carry only the main image; the full gallery is on the detail/images endpoints
+    public static VenueResponse toResponse(VenueCard c) {
+        VenueResponse resp = new VenueResponse();
+        resp.setId(c.getId());
+        resp.setName(c.getName());
+        resp.setDescription(c.getDescription());
+        resp.setSport(c.getSport());
+        resp.setAddress(c.getAddress());
+        resp.setTimeOpen(c.getTimeOpen());
+        resp.setTimeClose(c.getTimeClose());
+        resp.setMainImageUrl(c.getMainImageUrl());
+        resp.setImageUrls(c.getMainImageUrl() != null ? List.of(c.getMainImageUrl()) : Collections.emptyList());
+        resp.setOwnerId(c.getOwnerId());
+        resp.setRating(c.getRating());
+        resp.setCreatedAt(c.getCreatedAt());
+        resp.setUpdatedAt(c.getUpdatedAt());
+        resp.setPricePerHour(c.getPricePerHour() != null ? c.getPricePerHour() : 0.0);
+        return resp;
+    }
+}
@@ -0,0 +1,107 @@
+package com.badminton.shop.ws_booking_sport.venue.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Version of the venue catalog (venue_card). The version is the venue_catalog_seq sequence and the
+ * Last-Modified time sits in the venue_catalog_version row; both are advanced after the card write commits,
+ * outside its transaction, so card writers never queue on a shared row and the version only changes once the
+ * new data is visible. Public listing validators (ETag / Last-Modified) are derived from it, so a client poll
+ * with an unchanged version is answered 304 after one cheap read, and every instance answers with the same
+ * validators.
+ */
+@Component
+@RequiredArgsConstructor
+public class VenueCatalogVersion {
+
+    private static final Logger log = LoggerFactory.getLogger(VenueCatalogVersion.class);
+
+    public static final String SEQUENCE_NAME = "venue_catalog_seq";
+
+    private static final String CURRENT_SQL = "SELECT s.last_value, s.is_called, " +
+            "(SELECT updated_at FROM venue_catalog_version WHERE id = 1) AS updated_at FROM " + SEQUENCE_NAME + " s";
+
+    // updated_at moves forward by at least a second per bump, since HTTP dates have second precision. A bump
+    // that finds the row locked by a concurrent bump skips it: that one is setting the same second, and the
+    // ETag already carries the new version.
+    private static final String TOUCH_SQL = "UPDATE venue_catalog_version " +
+            "SET updated_at = GREATEST(date_trunc('second', now()), updated_at + interval '1 second') " +
+            "WHERE id = (SELECT id FROM venue_catalog_version WHERE id = 1 FOR UPDATE SKIP LOCKED)";
+    private static final String INSERT_SQL = "INSERT INTO venue_catalog_version (id, updated_at) " +
+            "VALUES (1, date_trunc('second', now())) ON CONFLICT (id) DO NOTHING";
+
+    // bound while a transaction already has a pending bump, so many card writes in one transaction bump once
+    private static final Object PENDING_KEY = new Object();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Snapshot(long version, long lastModifiedMillis) {
+        // "s" marks sequence-based versions; the earlier row counter used "v", so tags cached from it never match
+        public String tag() {
+            return "s" + version;
+        }
+    }
+
+    /**
+     * Current version, or null if it cannot be read (callers then skip conditional handling).
+     */
+    public Snapshot current() {
+        try {
+            List<Snapshot> rows = jdbcTemplate.query(CURRENT_SQL, (rs, i) -> {
+                Timestamp at = rs.getTimestamp("updated_at");
+                // is_called is false until the first nextval: no catalog write yet
+                long version = rs.getBoolean("is_called") ? rs.getLong("last_value") : 0;
+                return new Snapshot(version, at != null ? at.getTime() : 0);
+            });
+            return rows.isEmpty() ? new Snapshot(0, 0) : rows.get(0);
+        } catch (DataAccessException e) {
+            log.warn("Could not read venue catalog version: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Bumps the version once the current transaction commits (right away if there is none); nothing happens on
+     * rollback. The bump runs in auto-commit statements after the writer's locks are released.
+     */
+    public void bump() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            advance();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(PENDING_KEY)) return;
+        TransactionSynchronizationManager.bindResource(PENDING_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                advance();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_KEY);
+            }
+        });
+    }
+
+    // the card data is already committed here, so a failure must not fail the caller; listings then keep the
+    // old validators until the next bump
+    private void advance() {
+        try {
+            jdbcTemplate.queryForObject("SELECT nextval('" + SEQUENCE_NAME + "')", Long.class);
+            if (jdbcTemplate.update(TOUCH_SQL) == 0) jdbcTemplate.update(INSERT_SQL);
+        } catch (DataAccessException e) {
+            log.warn("Could not bump venue catalog version: {}", e.getMessage());
+        }
+    }
+}
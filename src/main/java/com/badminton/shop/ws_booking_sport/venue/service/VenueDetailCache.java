@@ -0,0 +1,114 @@
+package com.badminton.shop.ws_booking_sport.venue.service;
+
+import com.badminton.shop.ws_booking_sport.dto.response.VenueDetailResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Assembled venue detail responses per venue id, local to this instance.
+ * Writers of anything the detail page shows (venue, images, fields, facilities, reviews) call evict, which only
+ * reaches this instance's cache: other instances keep serving their copy until it expires after
+ * venue.detail.cache-ttl-seconds (capped at MAX_TTL_SECONDS), so that is the staleness the detail page accepts
+ * after a write through another instance. Prices are not part of the detail response.
+ * A generation counter, bumped on every eviction, keeps a response that was assembled while a write committed
+ * from being cached after that write's eviction. When full, expired and then least recently read entries go.
+ */
+@Component
+public class VenueDetailCache {
+
+    private static final int MAX_ENTRIES = 5_000;
+    private static final int EVICT_TO_ENTRIES = MAX_ENTRIES * 9 / 10;
+    static final long MAX_TTL_SECONDS = 120;
+
+    @Value("${venue.detail.cache-ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final ConcurrentMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public VenueDetailResponse get(Integer venueId) {
+        Entry e = entries.get(venueId);
+        if (e == null) return null;
+        long now = System.currentTimeMillis();
+        if (e.expiresAtMillis <= now) {
+            entries.remove(venueId, e);
+            return null;
+        }
+        e.lastReadMillis = now;
+        return e.detail;
+    }
+
+    // read before assembling a response; pass it back to put
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(Integer venueId, VenueDetailResponse detail, long generationAtLoad) {
+        if (generation.get() != generationAtLoad) return;
+        if (entries.size() >= MAX_ENTRIES) evictLeastRecentlyRead();
+        long now = System.currentTimeMillis();
+        entries.put(venueId, new Entry(detail, now + Math.min(ttlSeconds, MAX_TTL_SECONDS) * 1000, now));
+        // an eviction that raced with the put wins
+        if (generation.get() != generationAtLoad) entries.remove(venueId);
+    }
+
+    /**
+     * Drops the venue's entry now and again when the current transaction completes, so a concurrent reader can
+     * not re-cache the state from before the commit.
+     */
+    public void evict(Integer venueId) {
+        if (venueId == null) return;
+        evictNow(venueId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                evictNow(venueId);
+            }
+        });
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    private void evictNow(Integer venueId) {
+        generation.incrementAndGet();
+        entries.remove(venueId);
+    }
+
+    private void evictLeastRecentlyRead() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(e -> e.expiresAtMillis <= now);
+        int excess = entries.size() - EVICT_TO_ENTRIES;
+        if (excess <= 0) return;
+        List<Map.Entry<Integer, Long>> byRead = new ArrayList<>(entries.size());
+        entries.forEach((id, e) -> byRead.add(Map.entry(id, e.lastReadMillis)));
+        byRead.sort(Map.Entry.comparingByValue());
+        for (int i = 0; i < excess && i < byRead.size(); i++) {
+            entries.remove(byRead.get(i).getKey());
+        }
+    }
+
+    private static final class Entry {
+        final VenueDetailResponse detail;
+        final long expiresAtMillis;
+        volatile long lastReadMillis;
+
+        Entry(VenueDetailResponse detail, long expiresAtMillis, long now) {
+            this.detail = detail;
+            this.expiresAtMillis = expiresAtMillis;
+            this.lastReadMillis = now;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.badminton.shop.ws_booking_sport.venue.service;
+
+import com.badminton.shop.ws_booking_sport.model.booking.Review;
+import com.badminton.shop.ws_booking_sport.venue.repository.VenueRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Venue rating as a running aggregate (Venue.ratingSum / ratingCount, rating = their ratio).
+ * Review writes apply their delta with a single atomic row update in the review's transaction; a periodic
+ * reconciliation recomputes the aggregates from the review table in id-range batches and repairs any drift
+ * (e.g. reviews written before aggregation existed). Each batch locks its venue rows before aggregating, so it
+ * never overwrites a delta applied by a review transaction it could not see.
+ */
+@Service
+@RequiredArgsConstructor
+public class VenueRatingService {
+
+    private static final Logger log = LoggerFactory.getLogger(VenueRatingService.class);
+
+    private static final int RECONCILE_BATCH = 500;
+
+    // taken in id order, like any other multi-venue lock, so batches cannot deadlock with each other
+    private static final String LOCK_BATCH_SQL = "SELECT id FROM venue WHERE id > ? AND id <= ? ORDER BY id FOR UPDATE";
+
+    // recomputes (sum, count, rating) for venues with id in (:afterId, :toId]; only rows that differ are written
+    private static final String RECONCILE_SQL =
+            "UPDATE venue v SET rating_sum = a.s, rating_count = a.c, " +
+            "rating = CASE WHEN a.c > 0 THEN CAST(a.s AS real) / a.c ELSE 0 END " +
+            "FROM (SELECT vv.id, COALESCE(agg.s, 0) AS s, COALESCE(agg.c, 0) AS c FROM venue vv LEFT JOIN (" +
+            "  SELECT f.venue_id, SUM(r.rating) AS s, COUNT(*) AS c FROM review r " +
+            "  JOIN booking b ON b.id = r.booking_id JOIN field f ON f.id = b.field_id " +
+            "  WHERE f.venue_id > ? AND f.venue_id <= ? GROUP BY f.venue_id) agg ON agg.venue_id = vv.id " +
+            "  WHERE vv.id > ? AND vv.id <= ?) a " +
+            "WHERE v.id = a.id AND (v.rating_sum IS DISTINCT FROM a.s OR v.rating_count IS DISTINCT FROM a.c)";
+
+    private static final String SYNC_CARDS_SQL =
+            "UPDATE venue_card c SET rating = v.rating FROM venue v " +
+            "WHERE c.id = v.id AND c.rating IS DISTINCT FROM v.rating AND v.id > ? AND v.id <= ?";
+
+    private final VenueRepository venueRepository;
+    private final VenueCardService venueCardService;
+    private final VenueCatalogVersion venueCatalogVersion;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VenueDetailCache venueDetailCache;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reviewCreated(Review review) {
+        apply(review, review.getRating(), 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reviewUpdated(Review review, int previousRating) {
+        if (review.getRating() != previousRating) apply(review, review.getRating() - previousRating, 0);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reviewDeleted(Review review) {
+        apply(review, -review.getRating(), -1);
+    }
+
+    private void apply(Review review, long sumDelta, int countDelta) {
+        Integer venueId = venueIdOf(review);
+        if (venueId == null) return;
+        venueRepository.applyRatingDelta(venueId, sumDelta, countDelta);
+        venueCardService.syncRating(venueId);
+    }
+
+    public static Integer venueIdOf(Review review) {
+        if (review.getBooking() == null || review.getBooking().getField() == null || review.getBooking().getField().getVenue() == null) {
+            return null;
+        }
+        return review.getBooking().getField().getVenue().getId();
+    }
+
+    // aggregates of venues that existed before aggregation are filled on the first run
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${venue.rating.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        int repaired = 0;
+        int afterId = 0;
+        try {
+            while (true) {
+                List<Integer> ids = jdbcTemplate.queryForList(
+                        "SELECT id FROM venue WHERE id > ? ORDER BY id LIMIT ?", Integer.class, afterId, RECONCILE_BATCH);
+                if (ids.isEmpty()) break;
+                int from = afterId;
+                int to = ids.get(ids.size() - 1);
+                // one transaction per batch keeps row locks short. Under READ COMMITTED each statement takes a new
+                // snapshot: once the lock waits for every review transaction holding one of these rows (applyRatingDelta
+                // locks it), their reviews are committed and counted by the aggregate, and reviews that have not
+                // applied their delta yet will do so on top of the recomputed values after this commit
+                Integer updated = transactionTemplate.execute(status -> {
+                    jdbcTemplate.queryForList(LOCK_BATCH_SQL, Integer.class, from, to);
+                    int n = jdbcTemplate.update(RECONCILE_SQL, from, to, from, to);
+                    if (jdbcTemplate.update(SYNC_CARDS_SQL, from, to) > 0) venueCatalogVersion.bump();
+                    return n;
+                });
+                repaired += updated != null ? updated : 0;
+                afterId = to;
+                if (ids.size() < RECONCILE_BATCH) break;
+            }
+        } catch (Exception e) {
+            log.error("Venue rating reconciliation failed after venue id {}", afterId, e);
+        }
+        if (repaired > 0) {
+            // drifted ratings may be on any cached detail page
+            venueDetailCache.evictAll();
+            log.info("Venue rating reconciliation repaired {} venues", repaired);
+        }
+    }
+}
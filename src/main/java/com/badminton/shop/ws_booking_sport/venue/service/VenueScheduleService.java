@@ -0,0 +1,114 @@
+package com.badminton.shop.ws_booking_sport.venue.service;
+
+import com.badminton.shop.ws_booking_sport.booking.repository.BookingSeriesRepository;
+import com.badminton.shop.ws_booking_sport.booking.service.SlotAvailabilityIndex;
+import com.badminton.shop.ws_booking_sport.dto.response.VenueScheduleResponse;
+import com.badminton.shop.ws_booking_sport.enums.Role;
+import com.badminton.shop.ws_booking_sport.enums.SlotStatus;
+import com.badminton.shop.ws_booking_sport.model.booking.BookingSeries;
+import com.badminton.shop.ws_booking_sport.model.core.Account;
+import com.badminton.shop.ws_booking_sport.model.venue.Venue;
+import com.badminton.shop.ws_booking_sport.security.OwnerAuthorization;
+import com.badminton.shop.ws_booking_sport.venue.repository.FieldRepository;
+import com.badminton.shop.ws_booking_sport.venue.repository.VenueRepository;
+import com.badminton.shop.ws_booking_sport.venue.repository.VenueScheduleRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Day sheet of a venue: every field × 5-minute cells (the SlotAvailabilityIndex grid) for one date, built from a
+ * single grouped query. Each field's occupancy is one string of CELLS_PER_DAY characters so the payload stays small
+ * for polling clients. Only the venue's owner and admins may read it.
+ */
+@Service
+@RequiredArgsConstructor
+public class VenueScheduleService {
+
+    private static final List<SlotStatus> OCCUPYING_STATUSES = List.of(SlotStatus.BOOKED, SlotStatus.BLOCKED);
+
+    private final VenueRepository venueRepository;
+    private final FieldRepository fieldRepository;
+    private final BookingSeriesRepository bookingSeriesRepository;
+    private final OwnerAuthorization ownerAuthorization;
+
+    public void requireScheduleAccess(Integer venueId, String authorizationHeader) {
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authorizationHeader);
+        if (account.getRole() == Role.ADMIN) return;
+        Venue venue = venueRepository.findById(venueId).orElseThrow(() -> new IllegalArgumentException("Venue not found"));
+        if (venue.getOwner() == null || !venue.getOwner().getId().equals(account.getUser().getId())) {
+            throw new AccessDeniedException("You are not allowed to view the schedule of this venue");
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public VenueScheduleResponse getSchedule(Integer venueId, LocalDate date) {
+        if (date == null) throw new IllegalArgumentException("date is required");
+        Venue venue = venueRepository.findById(venueId).orElseThrow(() -> new IllegalArgumentException("Venue not found"));
+
+        List<VenueScheduleRow> rows = fieldRepository.findDaySchedule(venueId, date, OCCUPYING_STATUSES);
+        List<Integer> fieldIds = new ArrayList<>();
+        List<String> fieldNames = new ArrayList<>();
+        List<char[]> cellsByField = new ArrayList<>();
+
+        // rows arrive ordered by field, so each field's cells are filled in one pass
+        char[] cells = null;
+        Integer current = null;
+        for (VenueScheduleRow r : rows) {
+            if (!r.getFieldId().equals(current)) {
+                current = r.getFieldId();
+                fieldIds.add(current);
+                fieldNames.add(r.getFieldName());
+                cells = new char[SlotAvailabilityIndex.CELLS_PER_DAY];
+                Arrays.fill(cells, '0');
+                cellsByField.add(cells);
+            }
+            if (r.getStartTime() != null && r.getEndTime() != null) {
+                mark(cells, r.getStartTime(), r.getEndTime(), r.getStatus() == SlotStatus.BLOCKED ? '2' : '1');
+            }
+        }
+
+        // series occurrences not materialized yet are booked as far as new bookings are concerned
+        if (!fieldIds.isEmpty()) {
+            for (BookingSeries s : bookingSeriesRepository.findUnmaterializedOn(fieldIds, date.getDayOfWeek(), date)) {
+                Integer fieldId = s.getField().getId();
+                if (s.claims(fieldId, date, s.getStartTime(), s.getEndTime())) {
+                    mark(cellsByField.get(fieldIds.indexOf(fieldId)), s.getStartTime(), s.getEndTime(), '1');
+                }
+            }
+        }
+        List<String> occupancy = cellsByField.stream().map(String::new).toList();
+
+        return new VenueScheduleResponse(venueId, date, venue.getTimeOpen(), venue.getTimeClose(), SlotAvailabilityIndex.CELL_MINUTES,
+                fieldIds, fieldNames, occupancy);
+    }
+
+    /**
+     * Validator for the day sheet taken from a cheap version query, so an unchanged sheet is answered with 304 without
+     * building it. Read it before the sheet: a change landing in between only makes the next poll fetch again.
+     */
+    @Transactional(readOnly = true)
+    public String etag(Integer venueId, LocalDate date) {
+        String version = venueId + "|" + date + "|" + fieldRepository.findScheduleVersion(venueId, date);
+        return "\"" + DigestUtils.md5DigestAsHex(version.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    // every cell the slot touches; BLOCKED wins over BOOKED where both overlap
+    private static void mark(char[] cells, LocalTime start, LocalTime end, char code) {
+        int from = SlotAvailabilityIndex.toCell(start);
+        int to = end.equals(LocalTime.MIDNIGHT) || end.isBefore(start) ? SlotAvailabilityIndex.CELLS_PER_DAY
+                : Math.min(SlotAvailabilityIndex.CELLS_PER_DAY, SlotAvailabilityIndex.toCellCeil(end));
+        for (int c = from; c < to; c++) {
+            if (cells[c] != '2') cells[c] = code;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.badminton.shop.ws_booking_sport.model.action.LocationSearchFilter;
 import com.badminton.shop.ws_booking_sport.model.action.SearchFilter;
 import com.badminton.shop.ws_booking_sport.model.venue.Venue;
 import com.badminton.shop.ws_booking_sport.venue.repository.VenueRepository;
+import com.badminton.shop.ws_booking_sport.venue.repository.VenueSearchRepository;
 import com.badminton.shop.ws_booking_sport.venue.repository.VenueSpecifications;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.jpa.domain.Specification;
@@ -20,9 +21,16 @@ import java.util.*;
 public class VenueSearchService {
 
     private final VenueRepository venueRepository;
+    private final VenueSearchRepository venueSearchRepository;
     private final GoongMapService goongMapService;
 
-    public List<VenuesResponse> search(SearchFilter filter) {
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * One page of venues matching the filter; distance, attribute filters, sorting and paging all run in a single
+     * SQL statement. page is 0-based.
+     */
+    public List<VenuesResponse> search(SearchFilter filter, int page, int size) {
         if (filter == null) throw new IllegalArgumentException("SearchFilter is required");
 
         // Resolve center coordinates
@@ -56,67 +64,9 @@ public class VenueSearchService {
             throw new IllegalArgumentException("Unsupported SearchFilter type");
         }
 
-        // Step 2: DB native query to get venue ids within distance and their distances
-        List<VenueRepository.VenueDistanceProjection> projections = venueRepository.findVenueIdsWithinDistance(centerLat, centerLng, radiusKm);
-        if (projections == null || projections.isEmpty()) return Collections.emptyList();
-
-        // Map id -> distance
-        Map<Integer, Double> idToDistance = new HashMap<>();
-        List<Integer> ids = new ArrayList<>();
-        for (VenueRepository.VenueDistanceProjection p : projections) {
-            if (p.getId() != null) {
-                ids.add(p.getId());
-                idToDistance.put(p.getId(), p.getDistance());
-            }
-        }
-        if (ids.isEmpty()) return Collections.emptyList();
-
-        // Build Specification: attribute filters + idsIn
-        Specification<Venue> baseSpec = VenueSpecifications.bySearchFilter(filter);
-        Specification<Venue> spec = (baseSpec != null) ? baseSpec.and(VenueSpecifications.idsIn(ids)) : VenueSpecifications.idsIn(ids);
-
-        List<Venue> venues = venueRepository.findAll(spec);
-        if (venues.isEmpty()) return Collections.emptyList();
-
-        // Map to response and set pricePerHour from venue
-        List<VenuesResponse> resp = new ArrayList<>();
-        for (Venue v : venues) {
-            VenuesResponse vr = new VenuesResponse();
-            vr.setId(v.getId());
-            vr.setName(v.getName());
-            vr.setSport(v.getSport());
-            vr.setRating(v.getRating());
-            vr.setAddress(v.getAddress());
-            vr.setLatitude(v.getAddress() != null ? v.getAddress().getLatitude() : null);
-            vr.setLongitude(v.getAddress() != null ? v.getAddress().getLongitude() : null);
-            vr.setDistanceKm(idToDistance.get(v.getId()));
-
-            // price now stored at venue level
-            Double price = v.getPricePerHour();
-            vr.setMinPricePerHour(price);
-            vr.setPricePerHour(price != null ? price : 0.0);
-            resp.add(vr);
-        }
-
-        // Step 3: Sorting
-        String sortBy = filter.getSortBy();
-        if (sortBy != null) {
-            switch (sortBy.toUpperCase()) {
-                case "DISTANCE":
-                    resp.sort(Comparator.comparing(r -> r.getDistanceKm() == null ? Double.MAX_VALUE : r.getDistanceKm()));
-                    break;
-                case "PRICE":
-                    resp.sort(Comparator.comparing(r -> r.getMinPricePerHour() == null ? Double.MAX_VALUE : r.getMinPricePerHour()));
-                    break;
-                case "RATING":
-                    resp.sort(Comparator.comparing(VenuesResponse::getRating).reversed());
-                    break;
-                default:
-                    break;
-            }
-        }
-
-        return resp;
+        int safeSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        int offset = Math.max(0, page) * safeSize;
+        return venueSearchRepository.search(filter, centerLat, centerLng, radiusKm, offset, safeSize);
     }
 
     public Map<String, Object> searchDebug(SearchFilter filter) {
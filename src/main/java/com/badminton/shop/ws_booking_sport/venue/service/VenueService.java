@@ -1,6 +1,5 @@
 package com.badminton.shop.ws_booking_sport.venue.service;
 
-import com.badminton.shop.ws_booking_sport.core.repository.AccountRepository;
 import com.badminton.shop.ws_booking_sport.dto.request.AddVenueRequest;
 import com.badminton.shop.ws_booking_sport.dto.request.AddressRequest;
 import com.badminton.shop.ws_booking_sport.dto.request.UpdateVenueRequest;
@@ -8,6 +7,7 @@ import com.badminton.shop.ws_booking_sport.dto.request.CreateFieldRequest;
 import com.badminton.shop.ws_booking_sport.dto.response.VenueResponse;
 import com.badminton.shop.ws_booking_sport.dto.response.FieldResponse;
 import com.badminton.shop.ws_booking_sport.dto.response.VenueDetailResponse;
+import com.badminton.shop.ws_booking_sport.dto.response.FacilityResponse;
 import com.badminton.shop.ws_booking_sport.goong.GoongMapService;
 import com.badminton.shop.ws_booking_sport.goong.GoongResponse;
 import com.badminton.shop.ws_booking_sport.model.core.Account;
@@ -15,9 +15,10 @@ import com.badminton.shop.ws_booking_sport.model.core.Address;
 import com.badminton.shop.ws_booking_sport.model.core.Owner;
 import com.badminton.shop.ws_booking_sport.model.venue.Venue;
 import com.badminton.shop.ws_booking_sport.model.venue.Field;
+import com.badminton.shop.ws_booking_sport.venue.repository.VenueCardRepository;
 import com.badminton.shop.ws_booking_sport.venue.repository.VenueRepository;
 import com.badminton.shop.ws_booking_sport.venue.repository.FieldRepository;
-import com.badminton.shop.ws_booking_sport.security.JwtService;
+import com.badminton.shop.ws_booking_sport.security.OwnerAuthorization;
 import com.badminton.shop.ws_booking_sport.enums.Role;
 import com.badminton.shop.ws_booking_sport.booking.repository.ReviewRepository;
 import com.badminton.shop.ws_booking_sport.dto.response.ReviewResponse;
@@ -26,16 +27,26 @@ import com.badminton.shop.ws_booking_sport.model.action.Favorite;
 import com.badminton.shop.ws_booking_sport.venue.repository.FavoriteRepository;
 import com.badminton.shop.ws_booking_sport.model.core.User;
 import com.badminton.shop.ws_booking_sport.core.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.security.access.AccessDeniedException;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -44,52 +55,32 @@ public class VenueService {
 
     private final VenueRepository venueRepository;
     private final FieldRepository fieldRepository;
-    private final JwtService jwtService;
-    private final AccountRepository accountRepository;
+    private final OwnerAuthorization ownerAuthorization;
     private final GoongMapService goongMapService;
     private final ReviewRepository reviewRepository;
     private final FieldService fieldService;
     private final FacilityService facilityService;
     private final FavoriteRepository favoriteRepository; // Injection
     private final UserRepository userRepository; // Injection
+    private final PricingEngine pricingEngine;
+    private final VenueCardRepository venueCardRepository;
+    private final VenueCardService venueCardService;
+    private final VenueDetailCache venueDetailCache;
+    private final PlatformTransactionManager transactionManager;
 
-    private Account validateOwner(String authorizationHeader) {
-        if (authorizationHeader == null || authorizationHeader.isBlank()) {
-            throw new IllegalArgumentException("Authorization header is required");
-        }
-        if (!authorizationHeader.startsWith("Bearer ")) {
-            throw new IllegalArgumentException("Invalid Authorization header");
-        }
-        String token = authorizationHeader.substring(7);
-        if (!jwtService.isTokenValid(token)) {
-            throw new IllegalArgumentException("Invalid or expired token");
-        }
-
-        String email = jwtService.extractEmail(token);
-        if (email == null || email.isBlank()) {
-            throw new IllegalArgumentException("Token does not contain email");
-        }
-
-        Account account = accountRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
-
-        if (account.getRole() != Role.OWNER && account.getRole() != Role.ADMIN) {
-            throw new AccessDeniedException("Only owners or admins are allowed to perform this action");
-        }
-
-        return account;
-    }
+    // detail sub-queries block on JDBC; virtual threads make running them side by side cheap
+    private final ExecutorService detailExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
     public List<VenueResponse> getVenuesBySport(String sport) {
-        List<Venue> venues = venueRepository.findBySportContainingIgnoreCase(sport);
-        return venues.stream().map(this::toResponse).collect(Collectors.toList());
+        return venueCardRepository.findBySportContainingIgnoreCase(sport).stream()
+                .map(VenueCardService::toResponse).collect(Collectors.toList());
     }
 
     @Transactional
     public VenueResponse createVenue(AddVenueRequest req, String authorizationHeader) {
         if (req == null) throw new IllegalArgumentException("Request body is required");
 
-        Account account = validateOwner(authorizationHeader);
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authorizationHeader);
         if (!(account.getUser() instanceof Owner)) {
             throw new AccessDeniedException("Account is not an owner");
         }
@@ -127,6 +118,7 @@ public class VenueService {
         }
 
         Venue saved = venueRepository.save(v);
+        venueCardService.refresh(saved);
         return toResponse(saved);
     }
 
@@ -134,7 +126,7 @@ public class VenueService {
     @Transactional
     public List<FieldResponse> addFields(Integer venueId, List<CreateFieldRequest> reqs, String authorizationHeader) {
         if (reqs == null || reqs.isEmpty()) throw new IllegalArgumentException("Request list is empty");
-        Account account = validateOwner(authorizationHeader);
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authorizationHeader);
         Venue v = venueRepository.findById(venueId).orElseThrow(() -> new IllegalArgumentException("Venue not found"));
 
         if (account.getRole() != Role.ADMIN) {
@@ -152,6 +144,7 @@ public class VenueService {
         }).collect(Collectors.toList());
 
         List<Field> saved = fieldRepository.saveAll(fields);
+        venueDetailCache.evict(venueId);
 
         return saved.stream().map(f -> {
             FieldResponse fr = new FieldResponse();
@@ -169,7 +162,33 @@ public class VenueService {
     }
 
     // NEW: get venue detail
+    // venue, fields, latest reviews and facilities are loaded concurrently on virtual threads, each in its own
+    // read-only transaction; the assembled response is cached until one of them changes (VenueDetailCache)
     public VenueDetailResponse getVenueDetail(Integer id) {
+        VenueDetailResponse cached = venueDetailCache.get(id);
+        if (cached != null) return cached;
+        long generation = venueDetailCache.generation();
+
+        Future<VenueDetailResponse> venueF = detailExecutor.submit(() -> readOnly(() -> loadVenueDetail(id)));
+        Future<List<FieldResponse>> fieldsF = detailExecutor.submit(() -> readOnly(() -> fieldService.listByVenue(id)));
+        Future<List<ReviewResponse>> reviewsF = detailExecutor.submit(() -> readOnly(() -> detachedReviews(getLatestReviews(id))));
+        Future<List<FacilityResponse>> facilitiesF = detailExecutor.submit(() -> readOnly(() -> facilityService.listByVenue(id)));
+
+        VenueDetailResponse resp;
+        try {
+            resp = join(venueF);
+            resp.setFields(join(fieldsF));
+            resp.setReviews(join(reviewsF));
+            resp.setFacilities(join(facilitiesF));
+        } catch (RuntimeException e) {
+            for (Future<?> f : List.of(venueF, fieldsF, reviewsF, facilitiesF)) f.cancel(true);
+            throw e;
+        }
+        venueDetailCache.put(id, resp, generation);
+        return resp;
+    }
+
+    private VenueDetailResponse loadVenueDetail(Integer id) {
         Venue v = venueRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Venue not found"));
         VenueDetailResponse resp = new VenueDetailResponse();
         resp.setId(v.getId());
@@ -192,41 +211,51 @@ public class VenueService {
         resp.setTimeOpen(v.getTimeOpen());
         resp.setTimeClose(v.getTimeClose());
 
-        resp.setImageUrls(v.getImageUrls());
-        resp.setMainImageUrl((v.getImageUrls() != null && !v.getImageUrls().isEmpty()) ? v.getImageUrls().get(0) : null);
+        // copied out of the lazy collection: the response outlives this transaction (and is cached)
+        List<String> images = v.getImageUrls() != null ? new ArrayList<>(v.getImageUrls()) : new ArrayList<>();
+        resp.setImageUrls(images);
+        resp.setMainImageUrl(!images.isEmpty() ? images.get(0) : null);
 
-        // fields with price rules
-        try {
-            resp.setFields(fieldService.listByVenue(v.getId()));
-        } catch (Exception e) {
-            resp.setFields(java.util.Collections.emptyList());
-        }
+        resp.setOwnerId(v.getOwner() != null ? v.getOwner().getId() : null);
+        resp.setRating(v.getRating());
+        return resp;
+    }
 
-        // latest reviews
-        try {
-            resp.setReviews(getLatestReviews(v.getId()));
-        } catch (Exception e) {
-            resp.setReviews(java.util.Collections.emptyList());
+    private static List<ReviewResponse> detachedReviews(List<ReviewResponse> reviews) {
+        for (ReviewResponse r : reviews) {
+            if (r.getPhotos() != null) r.setPhotos(new ArrayList<>(r.getPhotos()));
         }
+        return reviews;
+    }
+
+    private <T> T readOnly(Supplier<T> work) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return tx.execute(status -> work.get());
+    }
 
-        // facilities: map using FacilityService
+    private static <T> T join(Future<T> future) {
         try {
-            resp.setFacilities(facilityService.listByVenue(v.getId()));
-        } catch (Exception e) {
-            resp.setFacilities(java.util.Collections.emptyList());
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Failed to load venue detail", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading venue detail");
         }
+    }
 
-        resp.setOwnerId(v.getOwner() != null ? v.getOwner().getId() : null);
-        resp.setRating(v.getRating());
-
-        return resp;
+    @PreDestroy
+    void shutdownDetailExecutor() {
+        detailExecutor.shutdownNow();
     }
 
     @Transactional
     public VenueResponse updateVenue(Integer id, UpdateVenueRequest req, String authorizationHeader) {
         if (req == null) throw new IllegalArgumentException("Request body is required");
 
-        Account account = validateOwner(authorizationHeader);
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authorizationHeader);
         Venue v = venueRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Venue not found"));
 
         // allow admin or owner of the venue
@@ -241,7 +270,11 @@ public class VenueService {
         if (req.getSport() != null) v.setSport(req.getSport());
         if (req.getTimeOpen() != null) v.setTimeOpen(req.getTimeOpen());
         if (req.getTimeClose() != null) v.setTimeClose(req.getTimeClose());
-        if (req.getPricePerHour() != null) v.setPricePerHour(req.getPricePerHour());
+        if (req.getPricePerHour() != null) {
+            v.setPricePerHour(req.getPricePerHour());
+            // compiled price tables fall back to the venue price
+            pricingEngine.evictVenue(v.getId());
+        }
 
         AddressRequest addrReq = req.getAddress();
         if (addrReq != null) {
@@ -266,12 +299,14 @@ public class VenueService {
 
         v.setUpdatedAt(LocalDateTime.now());
         Venue saved = venueRepository.save(v);
+        venueCardService.refresh(saved);
+        venueDetailCache.evict(saved.getId());
         return toResponse(saved);
     }
 
     @Transactional
     public String deleteVenue(Integer id, String authorizationHeader) {
-        Account account = validateOwner(authorizationHeader);
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authorizationHeader);
         Venue v = venueRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Venue not found"));
 
         // allow admin or owner
@@ -282,15 +317,17 @@ public class VenueService {
         }
 
         venueRepository.delete(v);
+        venueCardService.delete(id);
+        venueDetailCache.evict(id);
         return "Venue deleted";
     }
 
     public List<VenueResponse> listAll() {
-        return venueRepository.findAll().stream().map(this::toResponse).collect(Collectors.toList());
+        return venueCardRepository.findAll(Sort.by("id")).stream().map(VenueCardService::toResponse).collect(Collectors.toList());
     }
 
     public List<VenueResponse> listByOwner(Integer ownerId) {
-        return venueRepository.findByOwnerId(ownerId).stream().map(this::toResponse).collect(Collectors.toList());
+        return venueCardRepository.findByOwnerIdOrderByIdAsc(ownerId).stream().map(VenueCardService::toResponse).collect(Collectors.toList());
     }
 
     // NEW: paginated list of venues
@@ -298,13 +335,12 @@ public class VenueService {
         int safePage = Math.max(0, page);
         int safeSize = Math.max(1, size);
         Pageable p = PageRequest.of(safePage, safeSize);
-        Page<Venue> pr = venueRepository.findAll(p);
-        return pr.map(this::toResponse);
+        return venueCardRepository.findAllByOrderByIdAsc(p).map(VenueCardService::toResponse);
     }
 
     // NEW: list venues for authenticated owner using Authorization header (access token)
     public List<VenueResponse> listByOwner(String authorizationHeader) {
-        Account account = validateOwner(authorizationHeader);
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authorizationHeader);
         Integer ownerId = account.getUser() != null ? account.getUser().getId() : null;
         if (ownerId == null) throw new IllegalArgumentException("Owner id not found in account");
         return listByOwner(ownerId);
@@ -314,7 +350,7 @@ public class VenueService {
     @Transactional
     public VenueResponse updateMainImage(Integer id, String imageUrl, String authorizationHeader) {
         if (imageUrl == null || imageUrl.isBlank()) throw new IllegalArgumentException("imageUrl is required");
-        Account account = validateOwner(authorizationHeader);
+        Account account = ownerAuthorization.requireOwnerOrAdmin(authorizationHeader);
         Venue v = venueRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("Venue not found"));
 
         if (account.getRole() != Role.ADMIN) {
@@ -333,6 +369,8 @@ public class VenueService {
         v.setImageUrls(imgs);
         v.setUpdatedAt(LocalDateTime.now());
         Venue saved = venueRepository.save(v);
+        venueCardService.refresh(saved);
+        venueDetailCache.evict(saved.getId());
         return toResponse(saved);
     }
 
@@ -383,9 +421,8 @@ public class VenueService {
     }
 
     public List<VenueResponse> getFavoriteVenues(Integer userId) {
-        List<Favorite> favs = favoriteRepository.findByUserId(userId);
-        return favs.stream()
-                .map(f -> toResponse(f.getVenue())) // Use existing toResponse method
+        return venueCardRepository.findFavoritesByUserId(userId).stream()
+                .map(VenueCardService::toResponse)
                 .collect(Collectors.toList());
     }
 
@@ -400,6 +437,7 @@ public class VenueService {
         resp.setTimeOpen(v.getTimeOpen());
         resp.setTimeClose(v.getTimeClose());
         resp.setImageUrls(v.getImageUrls());
+        resp.setMainImageUrl(v.getImageUrls() != null && !v.getImageUrls().isEmpty() ? v.getImageUrls().get(0) : null);
         resp.setOwnerId(v.getOwner() != null ? v.getOwner().getId() : null);
         resp.setRating(v.getRating());
         resp.setCreatedAt(v.getCreatedAt());
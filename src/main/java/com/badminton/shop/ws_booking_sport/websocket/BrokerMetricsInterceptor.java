@@ -0,0 +1,97 @@
+package com.badminton.shop.ws_booking_sport.websocket;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Broker metrics, tagged by destination with ids replaced by '*' (/topic/chat.*, /topic/venue.*.bookings) to keep
+ * the tag cardinality bounded:
+ * websocket.subscriptions - gauge of local subscriptions (client inbound channel: SUBSCRIBE/UNSUBSCRIBE/DISCONNECT);
+ * websocket.fanout - time to hand a published message to the broker and its subscribers (broker channel).
+ * Registered on the client inbound channel after DestinationAliasInterceptor, so aliases count as their target.
+ */
+@Component
+public class BrokerMetricsInterceptor implements ChannelInterceptor {
+
+    // a destination segment containing a digit is an id (numeric ids, room UUIDs)
+    private static final Pattern ID_SEGMENT = Pattern.compile("(?<=[./])[^./]*\\d[^./]*");
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, AtomicInteger> subscriptionsByDestination = new ConcurrentHashMap<>();
+    // sessionId -> (subscriptionId -> destination tag), so UNSUBSCRIBE and DISCONNECT know what to decrement
+    private final ConcurrentMap<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+    private final ThreadLocal<Long> publishStart = new ThreadLocal<>();
+
+    public BrokerMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        MessageHeaders headers = message.getHeaders();
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(headers);
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+        if (type == SimpMessageType.MESSAGE && sessionId == null) {
+            // published by the server (SimpMessagingTemplate) to the broker channel
+            publishStart.set(System.nanoTime());
+        } else if (type == SimpMessageType.SUBSCRIBE && sessionId != null) {
+            String tag = destinationTag(SimpMessageHeaderAccessor.getDestination(headers));
+            String previous = sessions.computeIfAbsent(sessionId, k -> new ConcurrentHashMap<>())
+                    .put(SimpMessageHeaderAccessor.getSubscriptionId(headers), tag);
+            if (previous != null) counter(previous).decrementAndGet();
+            counter(tag).incrementAndGet();
+        } else if (type == SimpMessageType.UNSUBSCRIBE && sessionId != null) {
+            Map<String, String> subs = sessions.get(sessionId);
+            String tag = subs != null ? subs.remove(SimpMessageHeaderAccessor.getSubscriptionId(headers)) : null;
+            if (tag != null) counter(tag).decrementAndGet();
+        } else if (type == SimpMessageType.DISCONNECT && sessionId != null) {
+            // sent by the client and again when the socket closes; the first one removes the session
+            Map<String, String> subs = sessions.remove(sessionId);
+            if (subs != null) subs.values().forEach(tag -> counter(tag).decrementAndGet());
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        Long start = publishStart.get();
+        if (start == null) return;
+        publishStart.remove();
+        Timer.builder("websocket.fanout")
+                .description("Time to dispatch a server-published message to the broker and its subscribers")
+                .tag("destination", destinationTag(SimpMessageHeaderAccessor.getDestination(message.getHeaders())))
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private AtomicInteger counter(String tag) {
+        return subscriptionsByDestination.computeIfAbsent(tag, t -> {
+            AtomicInteger count = new AtomicInteger();
+            Gauge.builder("websocket.subscriptions", count, AtomicInteger::get)
+                    .description("Subscriptions of clients connected to this node")
+                    .tag("destination", t)
+                    .register(meterRegistry);
+            return count;
+        });
+    }
+
+    static String destinationTag(String destination) {
+        if (destination == null) return "none";
+        return ID_SEGMENT.matcher(destination).replaceAll("*");
+    }
+}
@@ -0,0 +1,42 @@
+package com.badminton.shop.ws_booking_sport.websocket;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+
+/**
+ * Maps alias subscription destinations onto their canonical destination before the broker sees them:
+ * further slashes after /topic/ become dots, so /topic/chat/{id} becomes /topic/chat.{id} and
+ * /topic/admin/global-updates becomes /topic/admin.global-updates. External STOMP brokers (RabbitMQ) only accept
+ * /topic/{name} without slashes, so every server-side destination uses the dot form.
+ * Publishers send (and encode) a message once to the canonical destination and the broker delivers it to
+ * subscribers of both forms; STOMP clients route MESSAGE frames by subscription id, so the slash-form subscribers
+ * are unaffected by the destination header.
+ */
+public class DestinationAliasInterceptor implements ChannelInterceptor {
+
+    private static final String TOPIC_PREFIX = "/topic/";
+
+    public static String canonical(String destination) {
+        if (destination == null || !destination.startsWith(TOPIC_PREFIX)) return destination;
+        String name = destination.substring(TOPIC_PREFIX.length());
+        if (name.indexOf('/') < 0) return destination;
+        return TOPIC_PREFIX + name.replace('/', '.');
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (type != SimpMessageType.SUBSCRIBE && type != SimpMessageType.MESSAGE) return message;
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        String target = canonical(destination);
+        if (target == null || target.equals(destination)) return message;
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        accessor.setDestination(target);
+        return MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+    }
+}
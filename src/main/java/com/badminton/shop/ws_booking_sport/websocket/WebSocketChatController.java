@@ -3,14 +3,19 @@ package com.badminton.shop.ws_booking_sport.websocket;
 import com.badminton.shop.ws_booking_sport.chat.service.ChatService;
 import com.badminton.shop.ws_booking_sport.dto.request.MessageRequest;
 import com.badminton.shop.ws_booking_sport.dto.response.MessageResponse;
+import com.badminton.shop.ws_booking_sport.handleException.ResourceUnavailableException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 
+import java.util.Map;
+
 @Controller
 @RequiredArgsConstructor
 public class WebSocketChatController {
@@ -49,4 +54,11 @@ public class WebSocketChatController {
         // persist and broadcast via ChatService
         chatService.sendMessage(chatRoomId, userId, roleName, req.getContent());
     }
+
+    // the message was not accepted (it could not be journaled): tell the sending session so the client can retry
+    @MessageExceptionHandler(ResourceUnavailableException.class)
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public Map<String, String> handleUnavailable(ResourceUnavailableException e) {
+        return Map.of("error", e.getMessage());
+    }
 }
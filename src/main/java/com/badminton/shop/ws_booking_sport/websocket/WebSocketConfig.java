@@ -29,8 +29,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         // messages sent to destinations starting with /app are routed to @MessageMapping
         registry.setApplicationDestinationPrefixes("/app");
-        // simple broker for broadcasting to clients
-        registry.enableSimpleBroker("/topic", "/queue");
+        // the broker itself (simple or relay, see websocket.broker.mode) is configured in config.WebSocketConfig
     }
 }
 
@@ -0,0 +1,276 @@
+package com.badminton.shop.ws_booking_sport.booking.service;
+
+import com.badminton.shop.ws_booking_sport.core.repository.CustomerRepository;
+import com.badminton.shop.ws_booking_sport.dto.request.BookingRequest;
+import com.badminton.shop.ws_booking_sport.handleException.ResourceUnavailableException;
+import com.badminton.shop.ws_booking_sport.model.core.Customer;
+import com.badminton.shop.ws_booking_sport.model.venue.Field;
+import com.badminton.shop.ws_booking_sport.model.venue.Venue;
+import com.badminton.shop.ws_booking_sport.venue.repository.FieldRepository;
+import com.badminton.shop.ws_booking_sport.venue.repository.VenueRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Double-booking protection against a real PostgreSQL: the per-(field, date) advisory lock serializes competing
+ * createBooking calls and the slot_no_overlap exclusion constraint (SlotSchemaInitializer) rejects overlapping
+ * BOOKED/BLOCKED rows that bypass the lock. The stress test drives 1000 randomized, overlapping bookings at one
+ * field through a bounded pool.
+ */
+@Testcontainers
+@SpringBootTest(properties = {
+        "jwt.secret=test-secret-test-secret-test-secret-test-secret-0123456789",
+        "spring.security.oauth2.client.registration.google.client-id=test",
+        "spring.security.oauth2.client.registration.google.client-secret=test",
+        "spring.security.oauth2.client.registration.facebook.client-id=test",
+        "spring.security.oauth2.client.registration.facebook.client-secret=test",
+        "goong.api.key=test",
+        "spring.jpa.show-sql=false",
+        "chat.persist.journal.dir=build/test-chat-journal"
+})
+class BookingConcurrencyTest {
+
+    private static final int THREADS = 8;
+    // stress run: attempts per round through a bounded pool, repeated over several rounds and dates
+    private static final int STRESS_POOL = 32;
+    private static final int STRESS_ROUNDS = 5;
+    private static final int STRESS_ATTEMPTS_PER_ROUND = 200;
+    private static final int STRESS_DATES = 4;
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private VenueRepository venueRepository;
+    @Autowired
+    private FieldRepository fieldRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelBookingsOfTheSameSlotLetExactlyOneSucceed() throws Exception {
+        Field field = newField();
+        Customer customer = newCustomer();
+        LocalDate date = LocalDate.now().plusDays(3);
+
+        List<Object> outcomes = runConcurrently(i ->
+                bookingService.createBooking(request(field, customer, date, LocalTime.of(18, 0), LocalTime.of(19, 0))));
+
+        long booked = outcomes.stream().filter(o -> !(o instanceof Throwable)).count();
+        assertEquals(1, booked, "outcomes: " + outcomes);
+        outcomes.stream().filter(o -> o instanceof Throwable)
+                .forEach(o -> assertInstanceOf(ResourceUnavailableException.class, o));
+
+        Integer slots = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM slot WHERE field_id = ? AND date = ? AND status IN ('BOOKED', 'BLOCKED')",
+                Integer.class, field.getId(), date);
+        assertEquals(2, slots);
+        assertEquals(0, overlappingPairs(field.getId(), date));
+    }
+
+    @Test
+    void parallelOverlappingRangesNeverProduceOverlappingSlots() throws Exception {
+        Field field = newField();
+        Customer customer = newCustomer();
+        LocalDate date = LocalDate.now().plusDays(4);
+
+        // thread i asks for [16:00 + 30i, 17:00 + 30i): each range overlaps its neighbours
+        List<Object> outcomes = runConcurrently(i -> {
+            LocalTime start = LocalTime.of(16, 0).plusMinutes(30L * i);
+            return bookingService.createBooking(request(field, customer, date, start, start.plusHours(1)));
+        });
+
+        assertTrue(outcomes.stream().anyMatch(o -> !(o instanceof Throwable)), "outcomes: " + outcomes);
+        outcomes.stream().filter(o -> o instanceof Throwable)
+                .forEach(o -> assertInstanceOf(ResourceUnavailableException.class, o));
+        assertEquals(0, overlappingPairs(field.getId(), date));
+    }
+
+    @Test
+    void thousandRandomOverlappingBookingsNeverDoubleBook() throws Exception {
+        Field field = newField();
+        Customer customer = newCustomer();
+        LocalDate firstDate = LocalDate.now().plusDays(10);
+        Random random = new Random(42);
+
+        int succeeded = 0;
+        for (int round = 0; round < STRESS_ROUNDS; round++) {
+            // each attempt: one of a few dates, a start on the half hour between 16:00 and 20:00, 30 to 120 minutes
+            LocalDate[] dates = new LocalDate[STRESS_ATTEMPTS_PER_ROUND];
+            LocalTime[] starts = new LocalTime[STRESS_ATTEMPTS_PER_ROUND];
+            LocalTime[] ends = new LocalTime[STRESS_ATTEMPTS_PER_ROUND];
+            for (int i = 0; i < STRESS_ATTEMPTS_PER_ROUND; i++) {
+                dates[i] = firstDate.plusDays(random.nextInt(STRESS_DATES));
+                starts[i] = LocalTime.of(16, 0).plusMinutes(30L * random.nextInt(9));
+                ends[i] = starts[i].plusMinutes(30L * (1 + random.nextInt(4)));
+            }
+
+            List<Object> outcomes = runConcurrently(STRESS_ATTEMPTS_PER_ROUND, STRESS_POOL, i ->
+                    bookingService.createBooking(request(field, customer, dates[i], starts[i], ends[i])));
+
+            for (Object o : outcomes) {
+                if (o instanceof Throwable) {
+                    assertInstanceOf(ResourceUnavailableException.class, o, "round " + round);
+                } else {
+                    succeeded++;
+                }
+            }
+            for (int d = 0; d < STRESS_DATES; d++) {
+                assertEquals(0, overlappingPairs(field.getId(), firstDate.plusDays(d)), "round " + round + ", date " + d);
+            }
+        }
+        // a day has 8 free hours in the window at most, so most attempts must lose, but some always win
+        assertTrue(succeeded > 0);
+        assertTrue(succeeded < STRESS_ROUNDS * STRESS_ATTEMPTS_PER_ROUND);
+    }
+
+    @Test
+    void exclusionConstraintRejectsOverlapsThatBypassTheLock() {
+        Field field = newField();
+        LocalDate date = LocalDate.now().plusDays(5);
+
+        Integer installed = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_constraint WHERE conname = 'slot_no_overlap'", Integer.class);
+        assertEquals(1, installed);
+
+        insertSlot(field.getId(), date, LocalTime.of(8, 0), LocalTime.of(9, 0), "BOOKED");
+        assertThrows(DataIntegrityViolationException.class,
+                () -> insertSlot(field.getId(), date, LocalTime.of(8, 30), LocalTime.of(9, 30), "BLOCKED"));
+
+        // adjacent ranges and released (AVAILABLE) rows are allowed
+        insertSlot(field.getId(), date, LocalTime.of(9, 0), LocalTime.of(10, 0), "BOOKED");
+        insertSlot(field.getId(), date, LocalTime.of(8, 0), LocalTime.of(9, 0), "AVAILABLE");
+    }
+
+    private interface Attempt {
+        Object run(int i) throws Exception;
+    }
+
+    private List<Object> runConcurrently(Attempt attempt) throws InterruptedException {
+        return runConcurrently(THREADS, THREADS, attempt);
+    }
+
+    // releases all attempts at once into a pool of the given size; returns each attempt's result or the exception
+    // it threw, in attempt order
+    private List<Object> runConcurrently(int attempts, int poolSize, Attempt attempt) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < attempts; i++) {
+                int n = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return attempt.run(n);
+                }));
+            }
+            start.countDown();
+            List<Object> outcomes = new ArrayList<>();
+            for (Future<Object> f : futures) {
+                try {
+                    outcomes.add(f.get(120, TimeUnit.SECONDS));
+                } catch (ExecutionException e) {
+                    outcomes.add(e.getCause());
+                } catch (TimeoutException e) {
+                    outcomes.add(e);
+                }
+            }
+            return outcomes;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private int overlappingPairs(Integer fieldId, LocalDate date) {
+        Integer pairs = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM slot a JOIN slot b ON a.field_id = b.field_id AND a.date = b.date AND a.id < b.id " +
+                        "AND a.start_time < b.end_time AND a.end_time > b.start_time " +
+                        "WHERE a.field_id = ? AND a.date = ? " +
+                        "AND a.status IN ('BOOKED', 'BLOCKED') AND b.status IN ('BOOKED', 'BLOCKED')",
+                Integer.class, fieldId, date);
+        return pairs != null ? pairs : 0;
+    }
+
+    private void insertSlot(Integer fieldId, LocalDate date, LocalTime start, LocalTime end, String status) {
+        jdbcTemplate.update("INSERT INTO slot (id, date, start_time, end_time, status, final_price, field_id) " +
+                        "VALUES (nextval('slot_seq'), ?, ?, ?, ?, 0, ?)",
+                Date.valueOf(date), Time.valueOf(start), Time.valueOf(end), status, fieldId);
+    }
+
+    private BookingRequest request(Field field, Customer customer, LocalDate date, LocalTime start, LocalTime end) {
+        BookingRequest req = new BookingRequest();
+        req.setVenueId(field.getVenue().getId());
+        req.setFieldId(field.getId());
+        req.setCustomerId(customer.getId());
+        req.setDate(date);
+        req.setStartTime(start);
+        req.setEndTime(end);
+        req.setPaymentMethod("CASH");
+        return req;
+    }
+
+    private Field newField() {
+        Venue venue = new Venue();
+        venue.setName("Concurrency test venue");
+        venue.setPricePerHour(100_000.0);
+        venue.setTimeOpen(LocalTime.of(6, 0));
+        venue.setTimeClose(LocalTime.of(23, 0));
+        venue.setCreatedAt(LocalDateTime.now());
+        venue.setUpdatedAt(LocalDateTime.now());
+        venue = venueRepository.save(venue);
+
+        Field field = new Field();
+        field.setName("Court 1");
+        field.setVenue(venue);
+        return fieldRepository.save(field);
+    }
+
+    private Customer newCustomer() {
+        Customer customer = new Customer();
+        customer.setName("Concurrent customer");
+        customer.setActive(true);
+        customer.setCreatedAt(LocalDateTime.now());
+        customer.setUpdatedAt(LocalDateTime.now());
+        return customerRepository.save(customer);
+    }
+}
@@ -0,0 +1,104 @@
+package com.badminton.shop.ws_booking_sport.booking.service;
+
+import com.badminton.shop.ws_booking_sport.dto.response.UnavailableSlotResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cell arithmetic of SlotAvailabilityIndex.DayBitmap: unaligned ranges, ranges crossing a 64-cell word and ranges
+ * ending at midnight.
+ */
+class SlotAvailabilityIndexTest {
+
+    @Test
+    void unalignedRangeMarksTheBitmapInexact() {
+        SlotAvailabilityIndex.DayBitmap bitmap = new SlotAvailabilityIndex.DayBitmap();
+        bitmap.mark(time("10:00"), time("10:30"));
+        assertTrue(bitmap.exact);
+
+        bitmap.mark(time("10:02"), time("10:30"));
+        assertFalse(bitmap.exact);
+
+        SlotAvailabilityIndex.DayBitmap seconds = new SlotAvailabilityIndex.DayBitmap();
+        seconds.mark(time("10:00"), LocalTime.of(10, 30, 15));
+        assertFalse(seconds.exact);
+    }
+
+    @Test
+    void cellHelpersRoundUnalignedTimes() {
+        assertFalse(SlotAvailabilityIndex.isAligned(time("10:02")));
+        assertEquals(SlotAvailabilityIndex.toCell(time("10:00")), SlotAvailabilityIndex.toCell(time("10:04")));
+        assertEquals(SlotAvailabilityIndex.toCell(time("10:05")), SlotAvailabilityIndex.toCellCeil(time("10:01")));
+        assertEquals(SlotAvailabilityIndex.toCell(time("10:05")), SlotAvailabilityIndex.toCellCeil(time("10:05")));
+    }
+
+    @Test
+    void rangeAcrossAWordBoundaryIsMarkedExactly() {
+        // cell 64 (05:20) is the first cell of the second word
+        SlotAvailabilityIndex.DayBitmap bitmap = new SlotAvailabilityIndex.DayBitmap();
+        bitmap.mark(time("05:10"), time("05:30"));
+
+        assertTrue(bitmap.isFree(cell("05:00"), cell("05:10")));
+        assertFalse(bitmap.isFree(cell("05:15"), cell("05:20")));
+        assertFalse(bitmap.isFree(cell("05:20"), cell("05:25")));
+        assertTrue(bitmap.isFree(cell("05:30"), cell("06:00")));
+        assertEquals(List.of(range("05:10", "05:30")), ranges(bitmap));
+    }
+
+    @Test
+    void adjacentRangesMergeAndTouchingRangesStayFree() {
+        SlotAvailabilityIndex.DayBitmap bitmap = new SlotAvailabilityIndex.DayBitmap();
+        bitmap.mark(time("18:00"), time("18:30"));
+        bitmap.mark(time("18:30"), time("19:00"));
+        bitmap.mark(time("20:00"), time("20:05"));
+
+        assertTrue(bitmap.isFree(cell("17:00"), cell("18:00")));
+        assertTrue(bitmap.isFree(cell("19:00"), cell("20:00")));
+        assertEquals(List.of(range("18:00", "19:00"), range("20:00", "20:05")), ranges(bitmap));
+    }
+
+    @Test
+    void rangeEndingAtMidnightCoversTheLastCell() {
+        SlotAvailabilityIndex.DayBitmap bitmap = new SlotAvailabilityIndex.DayBitmap();
+        bitmap.mark(time("23:00"), LocalTime.MIDNIGHT);
+
+        assertTrue(bitmap.exact);
+        assertEquals(SlotAvailabilityIndex.CELLS_PER_DAY, SlotAvailabilityIndex.endCell(LocalTime.MIDNIGHT));
+        assertFalse(bitmap.isFree(cell("23:55"), SlotAvailabilityIndex.endCell(LocalTime.MIDNIGHT)));
+        assertTrue(bitmap.isFree(cell("22:00"), cell("23:00")));
+        assertEquals(List.of(new UnavailableSlotResponse(time("23:00"), LocalTime.MAX)), ranges(bitmap));
+    }
+
+    @Test
+    void emptyAndReversedRangesAreIgnored() {
+        SlotAvailabilityIndex.DayBitmap bitmap = new SlotAvailabilityIndex.DayBitmap();
+        bitmap.mark(time("10:00"), time("10:00"));
+        bitmap.mark(time("11:00"), time("10:00"));
+        bitmap.mark(null, time("10:00"));
+
+        assertTrue(bitmap.exact);
+        assertTrue(ranges(bitmap).isEmpty());
+    }
+
+    private static List<UnavailableSlotResponse> ranges(SlotAvailabilityIndex.DayBitmap bitmap) {
+        return bitmap.toRanges();
+    }
+
+    private static UnavailableSlotResponse range(String start, String end) {
+        return new UnavailableSlotResponse(time(start), time(end));
+    }
+
+    private static int cell(String time) {
+        return SlotAvailabilityIndex.toCell(time(time));
+    }
+
+    private static LocalTime time(String time) {
+        return LocalTime.parse(time);
+    }
+}
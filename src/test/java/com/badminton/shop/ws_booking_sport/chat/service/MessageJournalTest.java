@@ -0,0 +1,180 @@
+package com.badminton.shop.ws_booking_sport.chat.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Crash recovery of MessageJournal. A "crash" is simulated by abandoning a journal without close() and opening the
+ * directory again, the way the next start would after the process died.
+ */
+class MessageJournalTest {
+
+    private static final int SEGMENT_BYTES = 1024 * 1024;
+    private static final LocalDateTime SENT_AT = LocalDateTime.of(2026, 3, 1, 18, 30, 15, 123_456_000);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysExactlyTheRecordsAfterTheCheckpoint() throws IOException {
+        MessageJournal journal = MessageJournal.open(dir, 0, SEGMENT_BYTES, 0);
+        appendAll(journal, 1, 10);
+
+        MessageJournal reopened = MessageJournal.open(dir, 0, SEGMENT_BYTES, 4);
+
+        List<MessageSaveQueue.PersistMessage> replayed = reopened.read(100);
+        assertSeqs(replayed, 5, 10);
+        MessageSaveQueue.PersistMessage first = replayed.get(0);
+        assertEquals(1005, first.id);
+        assertEquals("room-5", first.chatRoomId);
+        assertEquals(5, first.senderId);
+        assertEquals("CUSTOMER", first.senderRole);
+        assertEquals("message 5", first.content);
+        assertEquals(SENT_AT, first.sentAt);
+        assertEquals(10, reopened.pending() + 4);
+    }
+
+    @Test
+    void workerKilledMidBatchReplaysTheUnstoredPart() throws IOException {
+        MessageJournal journal = MessageJournal.open(dir, 0, SEGMENT_BYTES, 0);
+        appendAll(journal, 1, 10);
+
+        // the worker took a batch of 6, only the first 2 were committed (DB checkpoint = 2) before it died
+        List<MessageSaveQueue.PersistMessage> batch = journal.read(6);
+        assertSeqs(batch, 1, 6);
+        journal.checkpoint(2);
+
+        MessageJournal reopened = MessageJournal.open(dir, 0, SEGMENT_BYTES, 2);
+        assertSeqs(reopened.read(100), 3, 10);
+
+        // new messages continue the sequence
+        appendAll(reopened, 11, 11);
+        assertSeqs(reopened.read(100), 11, 11);
+    }
+
+    @Test
+    void tornLastRecordIsDroppedAndLaterAppendsSurvive() throws IOException {
+        MessageJournal journal = MessageJournal.open(dir, 0, SEGMENT_BYTES, 0);
+        appendAll(journal, 1, 5);
+        // half-written 6th record: header and part of the payload, no crc
+        writeTornRecord(onlySegment(), 6);
+
+        MessageJournal reopened = MessageJournal.open(dir, 0, SEGMENT_BYTES, 0);
+        assertSeqs(reopened.read(100), 1, 5);
+        appendAll(reopened, 6, 8);
+
+        MessageJournal again = MessageJournal.open(dir, 0, SEGMENT_BYTES, 0);
+        List<MessageSaveQueue.PersistMessage> replayed = again.read(100);
+        assertSeqs(replayed, 1, 8);
+        assertEquals("message 6", replayed.get(5).content);
+    }
+
+    @Test
+    void rollsSegmentsAndDeletesThemPastTheCheckpoint() throws IOException {
+        // room for three records per segment
+        int segmentBytes = 256;
+        MessageJournal journal = MessageJournal.open(dir, 0, segmentBytes, 0);
+        appendAll(journal, 1, 10);
+        assertEquals(4, segments().size());
+
+        assertSeqs(journal.read(100), 1, 10);
+        journal.checkpoint(7);
+
+        // segments holding 1-3 and 4-6 are fully stored; 7-9 still holds 8 and 9
+        List<Path> left = segments();
+        assertEquals(2, left.size());
+        assertTrue(left.get(0).getFileName().toString().startsWith("p0-00000000000000000007"));
+
+        MessageJournal reopened = MessageJournal.open(dir, 0, segmentBytes, 7);
+        assertSeqs(reopened.read(100), 8, 10);
+        reopened.close();
+    }
+
+    @Test
+    void nullFieldsRoundTrip() throws IOException {
+        MessageJournal journal = MessageJournal.open(dir, 0, SEGMENT_BYTES, 0);
+        MessageSaveQueue.PersistMessage pm = message(1);
+        pm.id = null;
+        pm.senderId = null;
+        pm.senderRole = null;
+        journal.sync(journal.append(pm));
+
+        MessageSaveQueue.PersistMessage replayed = MessageJournal.open(dir, 0, SEGMENT_BYTES, 0).read(1).get(0);
+        assertNull(replayed.id);
+        assertNull(replayed.senderId);
+        assertNull(replayed.senderRole);
+        assertEquals("message 1", replayed.content);
+    }
+
+    private static void appendAll(MessageJournal journal, int from, int to) throws IOException {
+        long seq = 0;
+        for (int i = from; i <= to; i++) {
+            seq = journal.append(message(i));
+            assertEquals(i, seq);
+        }
+        journal.sync(seq);
+    }
+
+    private static MessageSaveQueue.PersistMessage message(int i) {
+        MessageSaveQueue.PersistMessage pm = new MessageSaveQueue.PersistMessage();
+        pm.id = 1000 + i;
+        pm.chatRoomId = "room-" + i;
+        pm.senderId = i;
+        pm.senderRole = "CUSTOMER";
+        pm.content = "message " + i;
+        pm.sentAt = SENT_AT;
+        return pm;
+    }
+
+    private static void assertSeqs(List<MessageSaveQueue.PersistMessage> records, long from, long to) {
+        assertEquals(to - from + 1, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(from + i, records.get(i).seq);
+            assertEquals("message " + (from + i), records.get(i).content);
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> segments = segments();
+        assertEquals(1, segments.size());
+        return segments.get(0);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    // writes the first bytes of a record with the given seq right after the last complete one
+    private static void writeTornRecord(Path segment, long seq) throws IOException {
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            long p = 0;
+            while (true) {
+                header.clear();
+                ch.read(header, p);
+                int len = header.getInt(0);
+                if (len == 0) break;
+                p += 4 + 8 + len + 4;
+            }
+            ByteBuffer torn = ByteBuffer.allocate(4 + 8 + 10);
+            torn.putInt(60).putLong(seq).put(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}).flip();
+            ch.write(torn, p);
+        }
+    }
+}
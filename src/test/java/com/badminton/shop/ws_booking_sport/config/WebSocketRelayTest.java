@@ -0,0 +1,191 @@
+package com.badminton.shop.ws_booking_sport.config;
+
+import com.badminton.shop.ws_booking_sport.websocket.BrokerMetricsInterceptor;
+import com.badminton.shop.ws_booking_sport.websocket.DestinationAliasInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketMessagingAutoConfiguration;
+import org.springframework.boot.autoconfigure.websocket.servlet.WebSocketServletAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * websocket.broker.mode=relay against an embedded STOMP broker (Artemis, /topic/ mapped to multicast like
+ * RabbitMQ's STOMP plugin): two application nodes share the broker, a client subscribes on one node and a message
+ * published with SimpMessagingTemplate on the other node reaches it.
+ */
+class WebSocketRelayTest {
+
+    private static EmbeddedActiveMQ broker;
+    private static ConfigurableApplicationContext publisherNode;
+    private static ConfigurableApplicationContext subscriberNode;
+
+    @BeforeAll
+    static void start() throws Exception {
+        int stompPort = freePort();
+        broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(new ConfigurationImpl()
+                .setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                .setJMXManagementEnabled(false)
+                .addAcceptorConfiguration("stomp", "tcp://127.0.0.1:" + stompPort +
+                        "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/"));
+        broker.start();
+
+        publisherNode = startNode(stompPort);
+        subscriberNode = startNode(stompPort);
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        if (subscriberNode != null) subscriberNode.close();
+        if (publisherNode != null) publisherNode.close();
+        if (broker != null) broker.stop();
+    }
+
+    @Test
+    void messagePublishedOnOneNodeReachesSubscriberOnAnother() throws Exception {
+        BlockingQueue<Map<String, Object>> inbox = new LinkedBlockingQueue<>();
+        StompSession session = connect(subscriberNode);
+        try {
+            subscribe(session, "/topic/chat.room-42", inbox);
+
+            Map<String, Object> received = publishUntilReceived("/topic/chat.room-42",
+                    Map.of("content", "hello from the other node"), inbox);
+            assertNotNull(received, "message did not arrive through the relay");
+            assertEquals("hello from the other node", received.get("content"));
+        } finally {
+            session.disconnect();
+        }
+    }
+
+    @Test
+    void slashFormSubscriptionsAreAliasedToTheDotForm() throws Exception {
+        BlockingQueue<Map<String, Object>> inbox = new LinkedBlockingQueue<>();
+        StompSession session = connect(subscriberNode);
+        try {
+            // older clients still subscribe with slashes, which an external broker would reject as is
+            subscribe(session, "/topic/admin/global-updates", inbox);
+
+            Map<String, Object> received = publishUntilReceived("/topic/admin.global-updates",
+                    Map.of("type", "ROOM_CLAIMED", "roomId", "room-7"), inbox);
+            assertNotNull(received, "message did not arrive through the relay");
+            assertEquals("room-7", received.get("roomId"));
+        } finally {
+            session.disconnect();
+        }
+    }
+
+    @Test
+    void canonicalDestinationsHaveNoSlashAfterTopic() {
+        assertEquals("/topic/chat.abc", DestinationAliasInterceptor.canonical("/topic/chat/abc"));
+        assertEquals("/topic/admin.global-updates", DestinationAliasInterceptor.canonical("/topic/admin/global-updates"));
+        assertEquals("/topic/venue.5.bookings", DestinationAliasInterceptor.canonical("/topic/venue.5.bookings"));
+        assertEquals("/queue/errors", DestinationAliasInterceptor.canonical("/queue/errors"));
+    }
+
+    // the publisher node's relay connects asynchronously, so keep publishing until the first message comes through
+    private static Map<String, Object> publishUntilReceived(String destination, Map<String, Object> payload,
+                                                            BlockingQueue<Map<String, Object>> inbox) throws InterruptedException {
+        SimpMessagingTemplate template = publisherNode.getBean(SimpMessagingTemplate.class);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (System.nanoTime() < deadline) {
+            template.convertAndSend(destination, payload);
+            Map<String, Object> received = inbox.poll(500, TimeUnit.MILLISECONDS);
+            if (received != null) return received;
+        }
+        return null;
+    }
+
+    private static StompSession connect(ConfigurableApplicationContext node) throws Exception {
+        int port = ((ServletWebServerApplicationContext) node).getWebServer().getPort();
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+        return client.connectAsync("ws://127.0.0.1:" + port + "/ws", new StompSessionHandlerAdapter() {
+        }).get(10, TimeUnit.SECONDS);
+    }
+
+    // subscribes and waits for the broker's receipt, so nothing published afterwards can be missed
+    private static void subscribe(StompSession session, String destination, BlockingQueue<Map<String, Object>> inbox)
+            throws InterruptedException {
+        session.setAutoReceipt(true);
+        CountDownLatch subscribed = new CountDownLatch(1);
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(StompHeaders headers, Object payload) {
+                inbox.add((Map<String, Object>) payload);
+            }
+        }).addReceiptTask(subscribed::countDown);
+        assertTrue(subscribed.await(10, TimeUnit.SECONDS), "no receipt for subscription to " + destination);
+    }
+
+    private static ConfigurableApplicationContext startNode(int stompPort) {
+        return new SpringApplicationBuilder(RelayNode.class)
+                .web(WebApplicationType.SERVLET)
+                .run("--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--websocket.broker.mode=relay",
+                        "--websocket.broker.relay.host=127.0.0.1",
+                        "--websocket.broker.relay.port=" + stompPort,
+                        "--websocket.broker.relay.virtual-host=");
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    // just the web server and the STOMP setup of the application, no database or security
+    @Configuration
+    @ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class, DispatcherServletAutoConfiguration.class,
+            JacksonAutoConfiguration.class, WebSocketServletAutoConfiguration.class, WebSocketMessagingAutoConfiguration.class})
+    @Import({WebSocketConfig.class, BrokerMetricsInterceptor.class})
+    static class RelayNode {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.badminton.shop.ws_booking_sport.model.booking;
+
+import com.badminton.shop.ws_booking_sport.model.venue.Field;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Occurrence rules of BookingSeries for series whose startDate is not on their dayOfWeek: the interval counts from
+ * the first occurrence, not from startDate.
+ */
+class BookingSeriesTest {
+
+    private static final int FIELD_ID = 7;
+    // a Wednesday; the series below run on Mondays, so the first occurrence is 2026-03-09
+    private static final LocalDate START = LocalDate.of(2026, 3, 4);
+    private static final LocalDate FIRST_MONDAY = LocalDate.of(2026, 3, 9);
+
+    @Test
+    void firstOccurrenceIsTheNextMatchingDay() {
+        assertEquals(FIRST_MONDAY, series(2).firstOccurrence());
+
+        BookingSeries onStartDay = series(2);
+        onStartDay.setDayOfWeek(DayOfWeek.WEDNESDAY);
+        assertEquals(START, onStartDay.firstOccurrence());
+    }
+
+    @Test
+    void biweeklySeriesOccursEveryOtherWeekFromTheFirstOccurrence() {
+        BookingSeries s = series(2);
+
+        assertFalse(s.occursOn(FIRST_MONDAY.minusWeeks(1)));
+        assertTrue(s.occursOn(FIRST_MONDAY));
+        assertFalse(s.occursOn(FIRST_MONDAY.plusWeeks(1)));
+        assertTrue(s.occursOn(FIRST_MONDAY.plusWeeks(2)));
+        assertFalse(s.occursOn(FIRST_MONDAY.plusWeeks(3)));
+        assertTrue(s.occursOn(FIRST_MONDAY.plusWeeks(4)));
+        assertFalse(s.occursOn(FIRST_MONDAY.plusDays(1)));
+    }
+
+    @Test
+    void triweeklySeriesSkipsTwoWeeks() {
+        BookingSeries s = series(3);
+
+        assertTrue(s.occursOn(FIRST_MONDAY));
+        assertFalse(s.occursOn(FIRST_MONDAY.plusWeeks(1)));
+        assertFalse(s.occursOn(FIRST_MONDAY.plusWeeks(2)));
+        assertTrue(s.occursOn(FIRST_MONDAY.plusWeeks(3)));
+    }
+
+    @Test
+    void untilDateIsInclusive() {
+        BookingSeries s = series(2);
+        s.setUntilDate(FIRST_MONDAY.plusWeeks(4));
+
+        assertTrue(s.occursOn(FIRST_MONDAY.plusWeeks(4)));
+        assertFalse(s.occursOn(FIRST_MONDAY.plusWeeks(6)));
+    }
+
+    @Test
+    void claimsOnlyUnmaterializedOverlappingOccurrencesOnItsField() {
+        BookingSeries s = series(2);
+        LocalDate third = FIRST_MONDAY.plusWeeks(4);
+
+        assertTrue(s.claims(FIELD_ID, third, time("18:30"), time("19:30")));
+        assertFalse(s.claims(FIELD_ID + 1, third, time("18:30"), time("19:30")));
+        // off-week of a biweekly series
+        assertFalse(s.claims(FIELD_ID, FIRST_MONDAY.plusWeeks(1), time("18:30"), time("19:30")));
+        // touching ranges do not overlap
+        assertFalse(s.claims(FIELD_ID, third, time("17:00"), time("18:00")));
+        assertFalse(s.claims(FIELD_ID, third, time("20:00"), time("21:00")));
+
+        s.setMaterializedThrough(FIRST_MONDAY.plusWeeks(2));
+        assertFalse(s.claims(FIELD_ID, FIRST_MONDAY.plusWeeks(2), time("18:30"), time("19:30")));
+        assertTrue(s.claims(FIELD_ID, third, time("18:30"), time("19:30")));
+    }
+
+    private static BookingSeries series(int intervalWeeks) {
+        Field field = new Field();
+        field.setId(FIELD_ID);
+        BookingSeries s = new BookingSeries();
+        s.setField(field);
+        s.setDayOfWeek(DayOfWeek.MONDAY);
+        s.setIntervalWeeks(intervalWeeks);
+        s.setStartTime(time("18:00"));
+        s.setEndTime(time("20:00"));
+        s.setStartDate(START);
+        s.setUntilDate(START.plusMonths(6));
+        return s;
+    }
+
+    private static LocalTime time(String time) {
+        return LocalTime.parse(time);
+    }
+}
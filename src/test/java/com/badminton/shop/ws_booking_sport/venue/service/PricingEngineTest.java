@@ -0,0 +1,104 @@
+package com.badminton.shop.ws_booking_sport.venue.service;
+
+import com.badminton.shop.ws_booking_sport.model.venue.PriceRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Prefix-sum quotes of PricingEngine.FieldPriceTable. The base price of 60 000 per hour (1 000 per minute) and rule
+ * prices in multiples of 60 000 keep the expected amounts whole.
+ */
+class PricingEngineTest {
+
+    private static final double BASE = 60_000;
+    private static final double DELTA = 1e-6;
+    private static final int MONDAY = 1;
+    private static final int TUESDAY = 2;
+    private static final int SUNDAY = 7;
+
+    @Test
+    void ruleBoundariesOffTheCellGridArePricedToTheMinute() {
+        // 10:02-11:03 falls inside the cells 10:00-10:05 and 11:00-11:05
+        PricingEngine.FieldPriceTable table = compile(rule(MONDAY, "10:02", "11:03", 120_000));
+
+        assertEquals(2 * 1_000 + 58 * 2_000, table.price(MONDAY, minute("10:00"), minute("11:00")), DELTA);
+        assertEquals(1_000 + 2 * 2_000, table.price(MONDAY, minute("10:01"), minute("10:04")), DELTA);
+        assertEquals(3 * 2_000 + 2 * 1_000, table.price(MONDAY, minute("11:00"), minute("11:05")), DELTA);
+        assertEquals(BASE, table.rateAt(MONDAY, minute("10:01")), DELTA);
+        assertEquals(120_000, table.rateAt(MONDAY, minute("10:02")), DELTA);
+        assertEquals(BASE, table.rateAt(MONDAY, minute("11:03")), DELTA);
+    }
+
+    @Test
+    void rateChangesInsideMixedCellsAreFoundMinuteByMinute() {
+        PricingEngine.FieldPriceTable table = compile(rule(MONDAY, "10:02", "11:03", 120_000));
+
+        assertEquals(minute("10:02"), table.nextBoundary(MONDAY, minute("10:01")));
+        assertEquals(minute("10:10"), table.nextBoundary(MONDAY, minute("10:05")));
+        assertEquals(minute("10:10"), table.nextBoundary(MONDAY, minute("10:07")));
+    }
+
+    @Test
+    void laterRuleWinsWhereRulesOverlap() {
+        PricingEngine.FieldPriceTable table = compile(
+                rule(MONDAY, "10:00", "12:00", 120_000),
+                rule(MONDAY, "11:01", "11:31", 180_000));
+
+        assertEquals(2_000 + 30 * 3_000 + 4 * 2_000, table.price(MONDAY, minute("11:00"), minute("11:35")), DELTA);
+    }
+
+    @Test
+    void midnightEndCoversTheLastCellOfTheDay() {
+        PricingEngine.FieldPriceTable table = compile(rule(TUESDAY, "22:00", "00:00", 120_000));
+
+        assertEquals(24 * 60, PricingEngine.endMinute(LocalTime.MIDNIGHT));
+        assertEquals(24 * 60, PricingEngine.endMinute(LocalTime.MAX));
+        assertEquals(120_000, table.price(TUESDAY, minute("23:00"), PricingEngine.endMinute(LocalTime.MIDNIGHT)), DELTA);
+        assertEquals(5 * 2_000, table.price(TUESDAY, minute("23:55"), 24 * 60), DELTA);
+        assertEquals(22 * BASE + 2 * 120_000, table.price(TUESDAY, 0, 24 * 60), DELTA);
+    }
+
+    @Test
+    void wholeDayRuleFromMidnightToMidnight() {
+        PricingEngine.FieldPriceTable table = compile(rule(TUESDAY, "00:00", "00:00", 120_000));
+
+        assertEquals(24 * 120_000, table.price(TUESDAY, 0, 24 * 60), DELTA);
+        assertEquals(24 * BASE, table.price(MONDAY, 0, 24 * 60), DELTA);
+    }
+
+    @Test
+    void sundayRuleDoesNotRollOverIntoMonday() {
+        LocalDate sunday = LocalDate.of(2026, 3, 1);
+        int sundayDow = sunday.getDayOfWeek().getValue();
+        int mondayDow = sunday.plusDays(1).getDayOfWeek().getValue();
+        PricingEngine.FieldPriceTable table = compile(rule(SUNDAY, "23:00", "00:00", 120_000));
+
+        assertEquals(SUNDAY, sundayDow);
+        assertEquals(MONDAY, mondayDow);
+        assertEquals(120_000, table.price(sundayDow, minute("23:00"), 24 * 60), DELTA);
+        assertEquals(BASE, table.price(mondayDow, 0, minute("01:00")), DELTA);
+        assertEquals(BASE, table.price(SUNDAY - 1, minute("23:00"), 24 * 60), DELTA);
+    }
+
+    private static PricingEngine.FieldPriceTable compile(PriceRule... rules) {
+        return PricingEngine.FieldPriceTable.compile(1, BASE, List.of(rules));
+    }
+
+    private static PriceRule rule(int dayOfWeek, String start, String end, double pricePerHour) {
+        PriceRule r = new PriceRule();
+        r.setDayOfWeek(dayOfWeek);
+        r.setStartTime(LocalTime.parse(start));
+        r.setEndTime(LocalTime.parse(end));
+        r.setPricePerHour(pricePerHour);
+        return r;
+    }
+
+    private static int minute(String time) {
+        return PricingEngine.toMinute(LocalTime.parse(time));
+    }
+}